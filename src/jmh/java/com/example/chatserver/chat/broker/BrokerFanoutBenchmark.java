@@ -0,0 +1,113 @@
+package com.example.chatserver.chat.broker;
+
+import com.example.chatserver.support.StubWebSocketSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.messaging.StompSubProtocolHandler;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 방 하나에 메시지 1건을 발행해서 모든 구독자의 STOMP 프레임이 session에 쓰일 때까지의 시간
+// simple : SimpleBroker + StompEncoder, fanout : FanoutBrokerMessageHandler + SharedFrameStompEncoder
+// outbound channel은 executor 없이 바로 StompSubProtocolHandler로 넘기고, session은 전송 건수만 셈
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BrokerFanoutBenchmark {
+
+    private static final String DESTINATION = "/topic/1";
+
+    @Param({"simple", "fanout"})
+    private String broker;
+
+    @Param({"10", "1000"})
+    private int subscribers;
+
+    private SimpleBrokerMessageHandler brokerMessageHandler;
+    private CountingSession session;
+    private byte[] payload;
+    private long expected;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ExecutorSubscribableChannel clientInboundChannel = new ExecutorSubscribableChannel();
+        ExecutorSubscribableChannel clientOutboundChannel = new ExecutorSubscribableChannel();
+        ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+        StompSubProtocolHandler protocolHandler = new StompSubProtocolHandler();
+        if("fanout".equals(broker)) {
+            protocolHandler.setEncoder(new SharedFrameStompEncoder());
+            brokerMessageHandler = new FanoutBrokerMessageHandler(clientInboundChannel, clientOutboundChannel, brokerChannel,
+                    List.of("/topic"), Runtime.getRuntime().availableProcessors());
+        } else {
+            brokerMessageHandler = new SimpleBrokerMessageHandler(clientInboundChannel, clientOutboundChannel, brokerChannel, List.of("/topic"));
+        }
+        session = new CountingSession();
+        clientOutboundChannel.subscribe(message -> protocolHandler.handleMessageToClient(session, message));
+        brokerMessageHandler.start();
+
+        for (int i = 0; i < subscribers; i++) {
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+            accessor.setSessionId("session-" + i);
+            accessor.setSubscriptionId("sub-0");
+            accessor.setDestination(DESTINATION);
+            brokerMessageHandler.handleMessage(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()));
+        }
+        payload = "{\"roomId\":1,\"messageId\":123456,\"message\":\"hello benchmark\",\"senderEmail\":\"sender@test.com\",\"senderId\":42}"
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        brokerMessageHandler.stop();
+    }
+
+    @Benchmark
+    public long publish() {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(DESTINATION);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        // convertAndSend처럼 발행마다 새로 직렬화된 payload
+        Message<byte[]> message = MessageBuilder.createMessage(Arrays.copyOf(payload, payload.length), accessor.getMessageHeaders());
+        expected += subscribers;
+        brokerMessageHandler.handleMessage(message);
+        // fanout은 lane에서 비동기로 보내므로 모든 구독자에게 쓰일 때까지 대기
+        while (session.sent.get() < expected) {
+            Thread.onSpinWait();
+        }
+        return expected;
+    }
+
+    private static final class CountingSession extends StubWebSocketSession {
+
+        private final AtomicLong sent = new AtomicLong();
+
+        private CountingSession() {
+            super("benchmark");
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) {
+            sent.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.chatserver.chat.codec;
+
+import com.example.chatserver.chat.dto.ChatMessageDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// StompController -> RedisPubSubService 발행/수신시 메시지 직렬화 비용
+// objectMapperString : codec 도입 전처럼 json 문자열로 만든 뒤 다시 byte[]로 인코딩
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ChatMessageCodecBenchmark {
+
+    @Param({"16", "256", "2048"})
+    private int messageLength;
+
+    private ObjectMapper objectMapper;
+    private ChatMessageCodecs jsonCodecs;
+    private ChatMessageCodecs binaryCodecs;
+    private ChatMessageDto chatMessageDto;
+    private byte[] jsonPayload;
+    private byte[] binaryPayload;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        jsonCodecs = new ChatMessageCodecs(objectMapper, "json");
+        binaryCodecs = new ChatMessageCodecs(objectMapper, "binary");
+        chatMessageDto = ChatMessageDto.builder()
+                .roomId(1L)
+                .messageId(123456L)
+                .message("가".repeat(messageLength))
+                .senderEmail("sender@test.com")
+                .senderId(42L)
+                .sentAt(System.currentTimeMillis())
+                .build();
+        jsonPayload = jsonCodecs.encode(chatMessageDto);
+        binaryPayload = binaryCodecs.encode(chatMessageDto);
+    }
+
+    @Benchmark
+    public byte[] objectMapperString() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(chatMessageDto).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() {
+        return jsonCodecs.encode(chatMessageDto);
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() {
+        return binaryCodecs.encode(chatMessageDto);
+    }
+
+    @Benchmark
+    public ChatMessageDto jsonDecode() {
+        return jsonCodecs.decode(jsonPayload);
+    }
+
+    @Benchmark
+    public ChatMessageDto binaryDecode() {
+        return binaryCodecs.decode(binaryPayload);
+    }
+}
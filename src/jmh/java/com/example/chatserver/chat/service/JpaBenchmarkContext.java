@@ -0,0 +1,74 @@
+package com.example.chatserver.chat.service;
+
+import com.example.chatserver.chat.repository.ChatMessageRepository;
+import com.example.chatserver.chat.repository.ChatParticipantRepository;
+import com.example.chatserver.chat.repository.ChatRoomRepository;
+import com.example.chatserver.member.repository.MemberRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.RedisRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+// redis, security 없이 H2 + JPA repository만 띄운 context
+// ChatService는 저장/조회 경로에서 쓰는 의존성만 넣어서 직접 생성 (트랜잭션은 TransactionTemplate으로)
+final class JpaBenchmarkContext implements AutoCloseable {
+
+    final ConfigurableApplicationContext context;
+    final ChatMessageRepository chatMessageRepository;
+    final ChatParticipantRepository chatParticipantRepository;
+    final ChatRoomRepository chatRoomRepository;
+    final MemberRepository memberRepository;
+    final TransactionTemplate transactionTemplate;
+    final ChatService chatService;
+
+    JpaBenchmarkContext() {
+        this.context = new SpringApplicationBuilder(JpaConfiguration.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "spring.datasource.url=jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.open-in-view=false",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+                        "spring.jpa.properties.hibernate.order_inserts=true",
+                        "logging.level.root=WARN")
+                .run();
+        this.chatMessageRepository = context.getBean(ChatMessageRepository.class);
+        this.chatParticipantRepository = context.getBean(ChatParticipantRepository.class);
+        this.chatRoomRepository = context.getBean(ChatRoomRepository.class);
+        this.memberRepository = context.getBean(MemberRepository.class);
+        this.transactionTemplate = context.getBean(TransactionTemplate.class);
+        this.chatService = new ChatService(chatMessageRepository, chatParticipantRepository, chatRoomRepository, memberRepository,
+                null, null, null, null, null,
+                new MessagePathMetrics(new SimpleMeterRegistry(), null),
+                context);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+
+    @Configuration
+    @EnableAutoConfiguration(exclude = {
+            RedisAutoConfiguration.class,
+            RedisRepositoriesAutoConfiguration.class,
+            SecurityAutoConfiguration.class,
+            UserDetailsServiceAutoConfiguration.class
+    })
+    @EntityScan("com.example.chatserver")
+    @EnableJpaRepositories("com.example.chatserver")
+    static class JpaConfiguration {
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.chatserver.chat.service;
+
+import com.example.chatserver.chat.domain.ChatMessage;
+import com.example.chatserver.chat.domain.ChatParticipant;
+import com.example.chatserver.chat.domain.ChatRoom;
+import com.example.chatserver.chat.repository.ChatParticipantRepository.MyChatRoomView;
+import com.example.chatserver.chat.repository.ChatParticipantRepository.UnreadCountView;
+import com.example.chatserver.member.domain.Member;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// getMyChatRooms의 DB 조회 패턴 (redis unread hash가 비어있을 때의 fallback 경로)
+// groupedCount : 내 채팅방 목록 1번 + 방별 안읽은 개수 group by 1번
+// perRoomCount : 이전 방식처럼 방마다 참여 정보(read cursor) 조회 + 안읽은 개수 count (2N+1)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MyChatRoomsBenchmark {
+
+    private static final int MESSAGES_PER_ROOM = 20;
+
+    @Param({"10", "200"})
+    private int rooms;
+
+    private JpaBenchmarkContext benchmarkContext;
+    private Long memberId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        benchmarkContext = new JpaBenchmarkContext();
+        benchmarkContext.transactionTemplate.executeWithoutResult(status -> {
+            Member me = benchmarkContext.memberRepository.save(Member.builder()
+                    .name("me")
+                    .email("me@test.com")
+                    .password("password")
+                    .build());
+            Member other = benchmarkContext.memberRepository.save(Member.builder()
+                    .name("other")
+                    .email("other@test.com")
+                    .password("password")
+                    .build());
+            for (int i = 0; i < rooms; i++) {
+                ChatRoom chatRoom = benchmarkContext.chatRoomRepository.save(ChatRoom.builder()
+                        .name("room" + i)
+                        .build());
+                List<ChatMessage> chatMessages = new ArrayList<>(MESSAGES_PER_ROOM);
+                for (int j = 0; j < MESSAGES_PER_ROOM; j++) {
+                    chatMessages.add(ChatMessage.builder()
+                            .chatRoom(chatRoom)
+                            .member(j % 2 == 0 ? me : other)
+                            .content("message" + j)
+                            .build());
+                }
+                benchmarkContext.chatMessageRepository.saveAll(chatMessages);
+                // 절반쯤 읽은 상태
+                Long lastReadMessageId = chatMessages.get(MESSAGES_PER_ROOM / 2).getId();
+                benchmarkContext.chatParticipantRepository.save(ChatParticipant.builder()
+                        .chatRoom(chatRoom)
+                        .member(me)
+                        .lastReadMessageId(lastReadMessageId)
+                        .build());
+                benchmarkContext.chatParticipantRepository.save(ChatParticipant.builder()
+                        .chatRoom(chatRoom)
+                        .member(other)
+                        .build());
+            }
+            memberId = me.getId();
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        benchmarkContext.close();
+    }
+
+    @Benchmark
+    public Map<Long, Long> groupedCount() {
+        return benchmarkContext.transactionTemplate.execute(status -> {
+            List<MyChatRoomView> myChatRooms = benchmarkContext.chatParticipantRepository.findMyChatRooms(memberId);
+            Map<Long, Long> unreadCounts = new HashMap<>();
+            for (UnreadCountView unreadCountView : benchmarkContext.chatParticipantRepository.countUnreadByMemberId(memberId)) {
+                unreadCounts.put(unreadCountView.getRoomId(), unreadCountView.getUnreadCount());
+            }
+            Map<Long, Long> result = new HashMap<>();
+            for (MyChatRoomView myChatRoom : myChatRooms) {
+                result.put(myChatRoom.getRoomId(), unreadCounts.getOrDefault(myChatRoom.getRoomId(), 0L));
+            }
+            return result;
+        });
+    }
+
+    @Benchmark
+    public Map<Long, Long> perRoomCount() {
+        return benchmarkContext.transactionTemplate.execute(status -> {
+            Member me = benchmarkContext.memberRepository.getReferenceById(memberId);
+            Map<Long, Long> result = new HashMap<>();
+            for (MyChatRoomView myChatRoom : benchmarkContext.chatParticipantRepository.findMyChatRooms(memberId)) {
+                ChatRoom chatRoom = benchmarkContext.chatRoomRepository.getReferenceById(myChatRoom.getRoomId());
+                ChatParticipant chatParticipant = benchmarkContext.chatParticipantRepository.findByChatRoomAndMember(chatRoom, me).orElseThrow();
+                result.put(myChatRoom.getRoomId(),
+                        benchmarkContext.chatMessageRepository.countUnread(myChatRoom.getRoomId(), memberId, chatParticipant.getLastReadMessageId()));
+            }
+            return result;
+        });
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.chatserver.chat.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// 여러 inbound 스레드가 동시에 채팅 메시지를 redis에 PUBLISH 할 때의 처리량 (구독자 없는 channel)
+// direct : RedisPubSubService 기존 방식, 메시지마다 chatPubSub 연결로 convertAndSend 후 응답 대기
+// pipelined : RedisBatchPublisher가 발행 전용 연결에서 pipeline으로 모아서 전송
+// 기본은 embedded redis, -Dchat.benchmark.redis-port=6379 이면 로컬에 떠있는 redis 사용
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class RedisPublishBenchmark {
+
+    private static final int MESSAGES_PER_INVOCATION = 32;
+
+    @Param({"direct", "pipelined"})
+    private String mode;
+
+    @Param({"128", "1024"})
+    private int payloadBytes;
+
+    private RedisServer redisServer;
+    private LettuceConnectionFactory pubSubFactory;
+    private LettuceConnectionFactory publishFactory;
+    private RedisTemplate<String, byte[]> chatPubSubTemplate;
+    private RedisBatchPublisher redisBatchPublisher;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        String externalPort = System.getProperty("chat.benchmark.redis-port");
+        int port;
+        if(externalPort != null) {
+            port = Integer.parseInt(externalPort);
+        } else {
+            port = freePort();
+            redisServer = new RedisServer(port);
+            redisServer.start();
+        }
+        RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration("localhost", port);
+
+        // RedisConfig의 chatPubSubFactory, chatPublishFactory와 같은 설정
+        pubSubFactory = new LettuceConnectionFactory(configuration);
+        pubSubFactory.afterPropertiesSet();
+        pubSubFactory.start();
+        publishFactory = new LettuceConnectionFactory(configuration);
+        publishFactory.setShareNativeConnection(false);
+        publishFactory.setPipeliningFlushPolicy(LettuceConnection.PipeliningFlushPolicy.flushOnClose());
+        publishFactory.afterPropertiesSet();
+        publishFactory.start();
+
+        chatPubSubTemplate = new RedisTemplate<>();
+        chatPubSubTemplate.setConnectionFactory(pubSubFactory);
+        chatPubSubTemplate.setKeySerializer(RedisSerializer.string());
+        chatPubSubTemplate.setValueSerializer(RedisSerializer.byteArray());
+        chatPubSubTemplate.afterPropertiesSet();
+
+        redisBatchPublisher = new RedisBatchPublisher(publishFactory, new SimpleMeterRegistry(), mode, 10000, 64, 200, 50);
+        redisBatchPublisher.start();
+        payload = new byte[payloadBytes];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException, IOException {
+        redisBatchPublisher.stop();
+        publishFactory.destroy();
+        pubSubFactory.destroy();
+        if(redisServer != null) {
+            redisServer.stop();
+        }
+    }
+
+    // 한 스레드가 MESSAGES_PER_INVOCATION개를 보내고 모두 redis 응답을 받을 때까지
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES_PER_INVOCATION)
+    public void publish() {
+        if(!redisBatchPublisher.isEnabled()) {
+            for (int i = 0; i < MESSAGES_PER_INVOCATION; i++) {
+                chatPubSubTemplate.convertAndSend("chat.room." + i, payload);
+            }
+            return;
+        }
+        CompletableFuture<?>[] published = new CompletableFuture<?>[MESSAGES_PER_INVOCATION];
+        for (int i = 0; i < MESSAGES_PER_INVOCATION; i++) {
+            published[i] = redisBatchPublisher.publish("chat.room." + i, payload);
+        }
+        CompletableFuture.allOf(published).join();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
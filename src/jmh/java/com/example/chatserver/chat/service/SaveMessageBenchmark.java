@@ -0,0 +1,84 @@
+package com.example.chatserver.chat.service;
+
+import com.example.chatserver.chat.domain.ChatParticipant;
+import com.example.chatserver.chat.domain.ChatRoom;
+import com.example.chatserver.chat.dto.ChatMessageDto;
+import com.example.chatserver.member.domain.Member;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// ChatService.saveMessage를 H2에 대해 측정 (참여자 수별)
+// 참여자 수가 늘어도 메시지 1건 insert만 일어나야 함 (참여자별 read_status를 저장하던 때는 참여자 수만큼 insert)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SaveMessageBenchmark {
+
+    @Param({"2", "100", "1000"})
+    private int participants;
+
+    private JpaBenchmarkContext benchmarkContext;
+    private Long roomId;
+    private Long senderId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        benchmarkContext = new JpaBenchmarkContext();
+        benchmarkContext.transactionTemplate.executeWithoutResult(status -> {
+            ChatRoom chatRoom = benchmarkContext.chatRoomRepository.save(ChatRoom.builder()
+                    .name("bench-room")
+                    .isGroupChat("Y")
+                    .build());
+            List<Member> members = new ArrayList<>(participants);
+            for (int i = 0; i < participants; i++) {
+                members.add(Member.builder()
+                        .name("member" + i)
+                        .email("member" + i + "@test.com")
+                        .password("password")
+                        .build());
+            }
+            benchmarkContext.memberRepository.saveAll(members);
+            List<ChatParticipant> chatParticipants = new ArrayList<>(participants);
+            for (Member member : members) {
+                chatParticipants.add(ChatParticipant.builder()
+                        .chatRoom(chatRoom)
+                        .member(member)
+                        .build());
+            }
+            benchmarkContext.chatParticipantRepository.saveAll(chatParticipants);
+            roomId = chatRoom.getId();
+            senderId = members.get(0).getId();
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        benchmarkContext.close();
+    }
+
+    @Benchmark
+    public Long saveMessage() {
+        ChatMessageDto chatMessageDto = ChatMessageDto.builder()
+                .roomId(roomId)
+                .message("benchmark message")
+                .senderEmail("member0@test.com")
+                .senderId(senderId)
+                .sentAt(System.currentTimeMillis())
+                .build();
+        benchmarkContext.transactionTemplate.executeWithoutResult(status ->
+                benchmarkContext.chatService.saveMessage(roomId, chatMessageDto));
+        return chatMessageDto.getMessageId();
+    }
+}
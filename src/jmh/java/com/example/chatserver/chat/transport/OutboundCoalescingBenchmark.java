@@ -0,0 +1,103 @@
+package com.example.chatserver.chat.transport;
+
+import com.example.chatserver.support.StubWebSocketSession;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 한 session으로 burst개의 MESSAGE 프레임을 보내고 상대편(loopback socket)이 모두 받을 때까지의 시간
+// direct : 프레임마다 socket write 1번, coalesced : CoalescingWebSocketSession이 묶어서 write
+// session의 전송은 실제 loopback socket write (프레임마다 write syscall)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OutboundCoalescingBenchmark {
+
+    @Param({"direct", "coalesced"})
+    private String mode;
+
+    @Param({"1", "10", "50"})
+    private int burst;
+
+    private ServerSocketChannel server;
+    private SocketChannel client;
+    private Thread drainer;
+    private final AtomicLong received = new AtomicLong();
+    private long expected;
+    private OutboundCoalescing outboundCoalescing;
+    private WebSocketSession session;
+    private TextMessage frame;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = ServerSocketChannel.open().bind(new InetSocketAddress("127.0.0.1", 0));
+        client = SocketChannel.open(server.getLocalAddress());
+        SocketChannel accepted = server.accept();
+        drainer = Thread.ofPlatform().daemon(true).start(() -> {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+            try {
+                int read;
+                while ((read = accepted.read(buffer)) >= 0) {
+                    received.addAndGet(read);
+                    buffer.clear();
+                }
+            } catch (IOException ignored) {
+                // trial 종료
+            }
+        });
+
+        WebSocketSession socketSession = new StubWebSocketSession("benchmark") {
+            @Override
+            public void sendMessage(WebSocketMessage<?> message) throws IOException {
+                ByteBuffer buffer = ByteBuffer.wrap(((TextMessage) message).asBytes());
+                while (buffer.hasRemaining()) {
+                    client.write(buffer);
+                }
+            }
+        };
+        outboundCoalescing = new OutboundCoalescing(new SimpleMeterRegistry(), true, 1, 16384, 32, List.of("/topic/**"), List.of());
+        session = "coalesced".equals(mode) ? new CoalescingWebSocketSession(socketSession, outboundCoalescing) : socketSession;
+        frame = new TextMessage(("MESSAGE\nsubscription:sub-0\nmessage-id:1\ndestination:/topic/1\ncontent-type:application/json\ncontent-length:96\n\n"
+                + "{\"roomId\":1,\"messageId\":123456,\"message\":\"hello benchmark\",\"senderEmail\":\"sender@test.com\"}\u0000"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        outboundCoalescing.shutdown();
+        client.close();
+        server.close();
+    }
+
+    @Benchmark
+    public long sendBurst() throws IOException {
+        for (int i = 0; i < burst; i++) {
+            session.sendMessage(frame);
+            expected += frame.getPayloadLength();
+        }
+        while (received.get() < expected) {
+            Thread.onSpinWait();
+        }
+        return expected;
+    }
+}
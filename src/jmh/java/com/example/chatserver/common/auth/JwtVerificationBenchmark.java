@@ -0,0 +1,54 @@
+package com.example.chatserver.common.auth;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.security.Key;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+// StompHandler(CONNECT), JwtAuthFilter의 토큰 검증 비용
+// parserPerCall : 요청마다 key와 parser를 새로 만들던 이전 방식
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtVerificationBenchmark {
+
+    private String secretKey;
+    private JwtTokenProvider jwtTokenProvider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        byte[] secret = new byte[64];
+        new SecureRandom().nextBytes(secret);
+        secretKey = Base64.getEncoder().encodeToString(secret);
+        jwtTokenProvider = new JwtTokenProvider(secretKey, 60);
+        token = jwtTokenProvider.createToken(1L, "member@test.com", "USER");
+    }
+
+    @Benchmark
+    public Claims sharedParser() {
+        return jwtTokenProvider.parseClaims(token);
+    }
+
+    @Benchmark
+    public Claims parserPerCall() {
+        Key key = new SecretKeySpec(Base64.getDecoder().decode(secretKey), SignatureAlgorithm.HS512.getJcaName());
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.chatserver.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.atomic.LongAdder;
+
+// client와 서버 사이에서 TCP byte를 그대로 전달하면서 방향별 byte 수를 셈 (transport별 실제 전송량 비교용)
+// 연결마다 방향별 virtual thread 1개
+final class ByteCountingProxy implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final int targetPort;
+    private final LongAdder toServer = new LongAdder();
+    private final LongAdder fromServer = new LongAdder();
+    private volatile boolean closed;
+
+    ByteCountingProxy(int targetPort) throws IOException {
+        this.targetPort = targetPort;
+        this.serverSocket = new ServerSocket(0, 4096, InetAddress.getLoopbackAddress());
+        Thread.startVirtualThread(this::acceptLoop);
+    }
+
+    int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    long toServer() {
+        return toServer.sum();
+    }
+
+    long fromServer() {
+        return fromServer.sum();
+    }
+
+    void reset() {
+        toServer.reset();
+        fromServer.reset();
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            try {
+                Socket client = serverSocket.accept();
+                Socket server = new Socket(InetAddress.getLoopbackAddress(), targetPort);
+                client.setTcpNoDelay(true);
+                server.setTcpNoDelay(true);
+                Thread.startVirtualThread(() -> pipe(client, server, toServer));
+                Thread.startVirtualThread(() -> pipe(server, client, fromServer));
+            } catch (IOException e) {
+                if(!closed) {
+                    System.err.println("proxy 연결 실패 : " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static void pipe(Socket from, Socket to, LongAdder counter) {
+        byte[] buffer = new byte[16 * 1024];
+        try (InputStream in = from.getInputStream(); OutputStream out = to.getOutputStream()) {
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, read);
+                counter.add(read);
+            }
+        } catch (IOException ignored) {
+            // 반대편이 연결을 닫음
+        } finally {
+            closeQuietly(from);
+            closeQuietly(to);
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+    }
+}
@@ -0,0 +1,367 @@
+package com.example.chatserver.loadtest;
+
+import com.example.chatserver.chat.domain.ChatParticipant;
+import com.example.chatserver.chat.domain.ChatRoom;
+import com.example.chatserver.chat.dto.ChatMessageDto;
+import com.example.chatserver.chat.repository.ChatParticipantRepository;
+import com.example.chatserver.chat.repository.ChatRoomRepository;
+import com.example.chatserver.common.auth.JwtTokenProvider;
+import com.example.chatserver.member.domain.Member;
+import com.example.chatserver.member.repository.MemberRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 앱을 random port로 띄우고 (DB는 H2, redis는 embedded redis) 수천개의 SockJS STOMP client로 fan-out 처리량과 전달 지연을 측정
+// ./gradlew loadTest 로 실행, 결과는 build/reports/loadtest/fanout-report.{txt,json}
+// -Pchat.execution.mode=virtual 처럼 chat.* 설정을 넘겨서 설정별로 비교
+// -Pchat.loadtest.transport=sockjs|websocket|websocket-deflate 로 endpoint별 전송량(bytesPerDelivery)과 CPU 비교
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:loadtest;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.open-in-view=false",
+        "spring.data.redis.host=localhost",
+        "jwt.secretKey=bG9hZHRlc3Qtc2VjcmV0LWtleS1sb2FkdGVzdC1zZWNyZXQta2V5LWxvYWR0ZXN0LXNlY3JldC1rZXktbG9hZHRlc3Q=",
+        "jwt.expiration=120",
+        "logging.level.root=WARN"
+})
+class ChatFanoutLoadTest {
+
+    // 클라이언트가 보내는 메시지 : {구간}{발행 nanoTime}|{padding}
+    private static final char WARMUP = 'w';
+    private static final char MEASURED = 'm';
+    private static final long PUBLISH_TICK_MILLIS = 10;
+    private static final long DRAIN_TIMEOUT_MILLIS = 10_000;
+
+    private static RedisServer redisServer;
+
+    private final LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+    private final LongAdder delivered = new LongAdder();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong expectedDeliveries = new AtomicLong();
+    private LatencyRecorder latencyRecorder;
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private MemberRepository memberRepository;
+    @Autowired
+    private ChatRoomRepository chatRoomRepository;
+    @Autowired
+    private ChatParticipantRepository chatParticipantRepository;
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+    @Autowired
+    private Environment environment;
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) throws IOException {
+        int redisPort = freePort();
+        redisServer = new RedisServer(redisPort);
+        redisServer.start();
+        registry.add("spring.data.redis.port", () -> redisPort);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        if(redisServer != null) {
+            redisServer.stop();
+        }
+    }
+
+    @Test
+    void fanout() throws Exception {
+        List<Client> clients = createRoomsAndMembers();
+        latencyRecorder = new LatencyRecorder(expectedCapacity());
+
+        // client -> proxy -> 서버 : transport별 실제 전송 byte 측정
+        ByteCountingProxy proxy = new ByteCountingProxy(port);
+        WebSocketStompClient stompClient = new WebSocketStompClient("sockjs".equals(settings.transport())
+                ? new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient())))
+                : new StandardWebSocketClient());
+        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+        stompClient.setInboundMessageSizeLimit(1024 * 1024);
+
+        long connectStarted = System.nanoTime();
+        int connected = connectAndSubscribe(stompClient, clients, proxy.port());
+        double connectSeconds = (System.nanoTime() - connectStarted) / 1_000_000_000.0;
+        // 구독이 broker에 등록될 때까지 대기 (SimpleBroker는 SUBSCRIBE에 receipt를 보내지 않음)
+        Thread.sleep(2_000);
+
+        List<Client> connectedClients = clients.stream().filter(client -> client.session != null).toList();
+        publish(connectedClients, WARMUP, settings.warmupSeconds());
+        Thread.sleep(1_000);
+
+        delivered.reset();
+        published.set(0);
+        expectedDeliveries.set(0);
+        proxy.reset();
+        long cpuStarted = processCpuNanos();
+        long measureStarted = System.nanoTime();
+        publish(connectedClients, MEASURED, settings.durationSeconds());
+        double publishSeconds = (System.nanoTime() - measureStarted) / 1_000_000_000.0;
+        long drainDeadline = System.currentTimeMillis() + DRAIN_TIMEOUT_MILLIS;
+        while (delivered.sum() < expectedDeliveries.get() && System.currentTimeMillis() < drainDeadline) {
+            Thread.sleep(50);
+        }
+        double measureSeconds = (System.nanoTime() - measureStarted) / 1_000_000_000.0;
+        double cpuSeconds = (processCpuNanos() - cpuStarted) / 1_000_000_000.0;
+        long bytesFromServer = proxy.fromServer();
+        long bytesToServer = proxy.toServer();
+
+        for (Client client : connectedClients) {
+            client.session.disconnect();
+        }
+        stompClient.stop();
+        proxy.close();
+
+        Map<String, Object> report = report(clients, connected, connectSeconds, publishSeconds, measureSeconds, latencyRecorder.snapshot());
+        report.put("bytesFromServer", bytesFromServer);
+        report.put("bytesToServer", bytesToServer);
+        report.put("bytesPerDelivery", delivered.sum() == 0 ? 0 : (double) bytesFromServer / delivered.sum());
+        // client와 서버가 같은 JVM이므로 양쪽 CPU 합 (transport별 상대 비교용)
+        report.put("cpuSeconds", cpuSeconds);
+        report.put("cpuMillisPer1000Deliveries", delivered.sum() == 0 ? 0 : cpuSeconds * 1_000_000 / delivered.sum());
+        writeReport(report);
+
+        assertThat(delivered.sum()).isPositive();
+        if(settings.maxP99Millis() != null) {
+            assertThat((double) report.get("latencyP99Ms")).isLessThanOrEqualTo(settings.maxP99Millis());
+        }
+    }
+
+    // room-sizes 비율대로 방을 나누고, client 1명 = member 1명 = 방 1개
+    private List<Client> createRoomsAndMembers() {
+        List<Member> members = new ArrayList<>(settings.clients());
+        for (int i = 0; i < settings.clients(); i++) {
+            members.add(Member.builder()
+                    .name("load" + i)
+                    .email("load" + i + "@loadtest.com")
+                    .password("password")
+                    .build());
+        }
+        memberRepository.saveAll(members);
+
+        List<Client> clients = new ArrayList<>(settings.clients());
+        List<ChatParticipant> chatParticipants = new ArrayList<>(settings.clients());
+        int next = 0;
+        for (Map.Entry<Integer, Double> roomSize : settings.roomSizes().entrySet()) {
+            int bucketClients = (int) Math.round(settings.clients() * roomSize.getValue());
+            int bucketEnd = Math.min(members.size(), next + bucketClients);
+            while (next < bucketEnd) {
+                int size = Math.min(roomSize.getKey(), bucketEnd - next);
+                ChatRoom chatRoom = chatRoomRepository.save(ChatRoom.builder()
+                        .name("load-room-" + size)
+                        .isGroupChat(size > 2 ? "Y" : "N")
+                        .build());
+                for (int i = 0; i < size; i++, next++) {
+                    Member member = members.get(next);
+                    chatParticipants.add(ChatParticipant.builder()
+                            .chatRoom(chatRoom)
+                            .member(member)
+                            .build());
+                    clients.add(new Client(chatRoom.getId(), size,
+                            jwtTokenProvider.createToken(member.getId(), member.getEmail(), member.getRole().toString())));
+                }
+            }
+        }
+        chatParticipantRepository.saveAll(chatParticipants);
+        return clients;
+    }
+
+    // transport : sockjs => /connect (SockJS websocket transport), websocket => /ws, websocket-deflate => /ws + permessage-deflate 요청
+    private int connectAndSubscribe(WebSocketStompClient stompClient, List<Client> clients, int connectPort) throws InterruptedException {
+        String url = "sockjs".equals(settings.transport())
+                ? "http://localhost:" + connectPort + "/connect"
+                : "ws://localhost:" + connectPort + "/ws";
+        WebSocketHttpHeaders handshakeHeaders = new WebSocketHttpHeaders();
+        // StompWebSocketConfig에서 허용한 origin
+        handshakeHeaders.setOrigin("http://localhost:3000");
+        if("websocket-deflate".equals(settings.transport())) {
+            handshakeHeaders.setSecWebSocketExtensions(List.of(new WebSocketExtension("permessage-deflate")));
+        }
+        Semaphore inFlight = new Semaphore(settings.connectParallelism());
+        List<CompletableFuture<StompSession>> futures = new ArrayList<>(clients.size());
+        for (Client client : clients) {
+            inFlight.acquire();
+            StompHeaders connectHeaders = new StompHeaders();
+            connectHeaders.add("Authorization", "Bearer " + client.token);
+            CompletableFuture<StompSession> future = stompClient.connectAsync(url, handshakeHeaders, connectHeaders, new StompSessionHandlerAdapter() {})
+                    .whenComplete((session, e) -> {
+                        inFlight.release();
+                        if(session != null) {
+                            client.session = session;
+                            session.subscribe("/topic/" + client.roomId, roomFrameHandler());
+                        }
+                    });
+            futures.add(future);
+        }
+        int connected = 0;
+        for (CompletableFuture<StompSession> future : futures) {
+            try {
+                future.get(30, TimeUnit.SECONDS);
+                connected++;
+            } catch (Exception ignored) {
+                // 연결 실패 수는 report에 남김
+            }
+        }
+        return connected;
+    }
+
+    private StompFrameHandler roomFrameHandler() {
+        return new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return ChatMessageDto.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                long received = System.nanoTime();
+                String message = ((ChatMessageDto) payload).getMessage();
+                if(message == null || message.isEmpty() || message.charAt(0) != MEASURED) {
+                    return;
+                }
+                long sentNanos = Long.parseLong(message, 1, message.indexOf('|'), 10);
+                latencyRecorder.record(received - sentNanos);
+                delivered.increment();
+            }
+        };
+    }
+
+    // 초당 messages-per-second건을 임의의 client가 자기 방으로 발행 (client 수에 비례해서 큰 방일수록 많이 발행)
+    private void publish(List<Client> clients, char phase, int seconds) throws InterruptedException {
+        String padding = "x".repeat(Math.max(0, settings.messageBytes() - 24));
+        double perTick = settings.messagesPerSecond() * PUBLISH_TICK_MILLIS / 1000.0;
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        double[] budget = new double[1];
+        scheduler.scheduleAtFixedRate(() -> {
+            budget[0] += perTick;
+            while (budget[0] >= 1) {
+                budget[0] -= 1;
+                Client client = clients.get(ThreadLocalRandom.current().nextInt(clients.size()));
+                ChatMessageDto chatMessageDto = new ChatMessageDto();
+                chatMessageDto.setMessage(phase + Long.toString(System.nanoTime()) + "|" + padding);
+                try {
+                    client.session.send("/publish/" + client.roomId, chatMessageDto);
+                    published.incrementAndGet();
+                    expectedDeliveries.addAndGet(client.roomSize);
+                } catch (Exception ignored) {
+                    // 끊어진 session, 발행 건수에 포함하지 않음
+                }
+            }
+        }, 0, PUBLISH_TICK_MILLIS, TimeUnit.MILLISECONDS);
+        Thread.sleep(seconds * 1000L);
+        scheduler.shutdown();
+        scheduler.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private int expectedCapacity() {
+        double recipientsPerMessage = 0;
+        for (Map.Entry<Integer, Double> roomSize : settings.roomSizes().entrySet()) {
+            recipientsPerMessage += roomSize.getKey() * roomSize.getValue();
+        }
+        long capacity = (long) (settings.messagesPerSecond() * (double) settings.durationSeconds() * recipientsPerMessage * 1.2);
+        return (int) Math.min(capacity, 50_000_000L);
+    }
+
+    private Map<String, Object> report(List<Client> clients, int connected, double connectSeconds, double publishSeconds,
+                                       double measureSeconds, LatencyRecorder.Snapshot latencies) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("executionMode", environment.getProperty("chat.execution.mode", "platform"));
+        report.put("transport", settings.transport());
+        report.put("settings", settings);
+        report.put("rooms", clients.stream().map(client -> client.roomId).distinct().count());
+        report.put("clients", clients.size());
+        report.put("connectedClients", connected);
+        report.put("connectSeconds", connectSeconds);
+        report.put("published", published.get());
+        report.put("publishedPerSecond", published.get() / publishSeconds);
+        report.put("expectedDeliveries", expectedDeliveries.get());
+        report.put("delivered", delivered.sum());
+        report.put("lost", expectedDeliveries.get() - delivered.sum());
+        report.put("deliveredPerSecond", delivered.sum() / measureSeconds);
+        report.put("latencySamples", latencies.count());
+        report.put("latencySamplesDropped", latencies.overflow());
+        report.put("latencyP50Ms", latencies.percentileMillis(0.50));
+        report.put("latencyP99Ms", latencies.percentileMillis(0.99));
+        report.put("latencyP999Ms", latencies.percentileMillis(0.999));
+        report.put("latencyMaxMs", latencies.maxMillis());
+        return report;
+    }
+
+    private void writeReport(Map<String, Object> report) throws IOException {
+        Path reportDir = Path.of(settings.reportDir());
+        Files.createDirectories(reportDir);
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        Files.writeString(reportDir.resolve("fanout-report.json"), objectMapper.writeValueAsString(report));
+
+        StringBuilder text = new StringBuilder("chat fan-out load test\n");
+        report.forEach((key, value) -> text.append(String.format("%-24s %s%n", key, value)));
+        Files.writeString(reportDir.resolve("fanout-report.txt"), text);
+        System.out.println(text);
+    }
+
+    private static long processCpuNanos() {
+        return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getProcessCpuTime();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static final class Client {
+        private final Long roomId;
+        private final int roomSize;
+        private final String token;
+        private volatile StompSession session;
+
+        private Client(Long roomId, int roomSize, String token) {
+            this.roomId = roomId;
+            this.roomSize = roomSize;
+            this.token = token;
+        }
+    }
+}
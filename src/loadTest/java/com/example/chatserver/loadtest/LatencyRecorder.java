@@ -0,0 +1,52 @@
+package com.example.chatserver.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// 수신 client에서 측정한 전달 지연 (발행 직전 nanoTime -> 수신 nanoTime)
+// 측정 구간의 수신 건수만큼 미리 잡은 배열에 기록하고, 넘치는 건은 개수만 셈
+final class LatencyRecorder {
+
+    private final long[] latencies;
+    private final AtomicInteger size = new AtomicInteger();
+    private final LongAdder overflow = new LongAdder();
+
+    LatencyRecorder(int capacity) {
+        this.latencies = new long[capacity];
+    }
+
+    void record(long latencyNanos) {
+        int index = size.getAndIncrement();
+        if(index < latencies.length) {
+            latencies[index] = latencyNanos;
+        } else {
+            overflow.increment();
+        }
+    }
+
+    Snapshot snapshot() {
+        long[] recorded = Arrays.copyOf(latencies, Math.min(size.get(), latencies.length));
+        Arrays.sort(recorded);
+        return new Snapshot(recorded, overflow.sum());
+    }
+
+    record Snapshot(long[] sortedNanos, long overflow) {
+
+        int count() {
+            return sortedNanos.length;
+        }
+
+        double percentileMillis(double percentile) {
+            if(sortedNanos.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+            return sortedNanos[Math.max(0, Math.min(index, sortedNanos.length - 1))] / 1_000_000.0;
+        }
+
+        double maxMillis() {
+            return sortedNanos.length == 0 ? 0 : sortedNanos[sortedNanos.length - 1] / 1_000_000.0;
+        }
+    }
+}
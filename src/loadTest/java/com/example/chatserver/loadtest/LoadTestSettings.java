@@ -0,0 +1,50 @@
+package com.example.chatserver.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// ./gradlew loadTest -Pchat.loadtest.clients=5000 처럼 system property로 조절
+record LoadTestSettings(
+        int clients,
+        // 방 크기 -> 그 크기의 방에 들어가는 client 비율 (예 : 2:0.5,10:0.3,100:0.15,500:0.05)
+        Map<Integer, Double> roomSizes,
+        int messagesPerSecond,
+        int messageBytes,
+        int warmupSeconds,
+        int durationSeconds,
+        int connectParallelism,
+        // 설정하면 p99가 이 값을 넘을 때 실패
+        Double maxP99Millis,
+        String reportDir,
+        // sockjs(/connect), websocket(/ws), websocket-deflate(/ws + permessage-deflate)
+        String transport
+) {
+
+    static LoadTestSettings fromSystemProperties() {
+        String maxP99 = System.getProperty("chat.loadtest.max-p99-ms");
+        return new LoadTestSettings(
+                Integer.getInteger("chat.loadtest.clients", 2000),
+                parseRoomSizes(System.getProperty("chat.loadtest.room-sizes", "2:0.5,10:0.3,100:0.15,500:0.05")),
+                Integer.getInteger("chat.loadtest.messages-per-second", 200),
+                Integer.getInteger("chat.loadtest.message-bytes", 64),
+                Integer.getInteger("chat.loadtest.warmup-seconds", 5),
+                Integer.getInteger("chat.loadtest.duration-seconds", 30),
+                Integer.getInteger("chat.loadtest.connect-parallelism", 100),
+                maxP99 == null ? null : Double.parseDouble(maxP99),
+                System.getProperty("chat.loadtest.report-dir", "build/reports/loadtest"),
+                System.getProperty("chat.loadtest.transport", "sockjs"));
+    }
+
+    private static Map<Integer, Double> parseRoomSizes(String value) {
+        Map<Integer, Double> roomSizes = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] sizeAndRatio = entry.trim().split(":");
+            int size = Integer.parseInt(sizeAndRatio[0]);
+            if(size < 2) {
+                throw new IllegalArgumentException("방 크기는 2 이상이어야 합니다 : " + entry);
+            }
+            roomSizes.put(size, Double.parseDouble(sizeAndRatio[1]));
+        }
+        return roomSizes;
+    }
+}
@@ -2,12 +2,22 @@ package com.example.chatserver;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.util.Map;
 
 @SpringBootApplication
+@EnableScheduling
 public class ChatserverApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(ChatserverApplication.class, args);
+		SpringApplication application = new SpringApplication(ChatserverApplication.class);
+		// 설정 파일에서 바꾸지 않으면 prometheus scrape endpoint를 노출
+		// actuator는 서비스 포트가 아닌 내부용 management port로 분리 (prometheus는 이 포트에서만 인증 없이 허용)
+		application.setDefaultProperties(Map.of(
+				"management.endpoints.web.exposure.include", "health,info,metrics,prometheus",
+				"management.server.port", "8081"));
+		application.run(args);
 	}
 
 }
@@ -0,0 +1,153 @@
+package com.example.chatserver.chat.broker;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MultiValueMap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// SimpleBrokerMessageHandler에서 구독 조회와 구독자별 전송만 바꾼 broker (chat.broker.type=fanout)
+// - 구독 조회 : RoomSubscriptionRegistry (destination별 색인)
+// - 구독자별 전송 : 발행 스레드에서 구독자를 하나씩 보내지 않고, session id로 나눈 worker(lane)들이 나눠서 전송
+//   같은 session은 항상 같은 lane(단일 스레드)에서 보내므로 session별 메시지 순서는 SimpleBroker와 같음
+// - 프레임 인코딩 : SharedFrameStompEncoder가 같은 메시지의 공통 부분을 한번만 인코딩
+// CONNECT/SUBSCRIBE/DISCONNECT 처리 등 나머지는 SimpleBroker 그대로
+// SimpleBroker는 구독자에게 보낼 때 session의 마지막 전송 시간을 갱신하는데 그 정보는 private이라 lane에서 갱신할 수 없음
+// => 서버 heartbeat를 설정하면 메시지를 계속 받는 session에도 heartbeat가 나가므로 그 경우에는 시작하지 않음
+@Slf4j
+public class FanoutBrokerMessageHandler extends SimpleBrokerMessageHandler {
+
+    private final ExecutorService[] lanes;
+    // session별 outbound channel : preservePublishOrder면 channel(OrderedMessageChannelDecorator)마다 순서를 지키므로
+    // SimpleBroker처럼 CONNECT 때 한번 만들어서 DISCONNECT 때까지 재사용
+    private final ConcurrentMap<String, MessageChannel> sessionChannels = new ConcurrentHashMap<>();
+
+    public FanoutBrokerMessageHandler(SubscribableChannel clientInboundChannel, MessageChannel clientOutboundChannel,
+                                      SubscribableChannel brokerChannel, Collection<String> destinationPrefixes, int workers) {
+        super(clientInboundChannel, clientOutboundChannel, brokerChannel, destinationPrefixes);
+        setSubscriptionRegistry(new RoomSubscriptionRegistry(getSelectorHeaderName()));
+        this.lanes = new ExecutorService[Math.max(1, workers)];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("chat-broker-fanout-" + i).daemon(true).factory());
+        }
+    }
+
+    // @EnableWebSocketMessageBroker가 만든 SimpleBroker 설정을 그대로 가져옴
+    public static FanoutBrokerMessageHandler from(SimpleBrokerMessageHandler simpleBroker, int workers) {
+        FanoutBrokerMessageHandler handler = new FanoutBrokerMessageHandler(simpleBroker.getClientInboundChannel(),
+                simpleBroker.getClientOutboundChannel(), simpleBroker.getBrokerChannel(), simpleBroker.getDestinationPrefixes(), workers);
+        handler.setSelectorHeaderName(simpleBroker.getSelectorHeaderName());
+        handler.setPreservePublishOrder(simpleBroker.isPreservePublishOrder());
+        handler.setTaskScheduler(simpleBroker.getTaskScheduler());
+        handler.setHeartbeatValue(simpleBroker.getHeartbeatValue());
+        handler.setApplicationEventPublisher(simpleBroker.getApplicationEventPublisher());
+        handler.setAutoStartup(simpleBroker.isAutoStartup());
+        return handler;
+    }
+
+    // selector header 이름이 바뀌면 그 이름으로 registry를 다시 만듦 (설정 단계에서만 호출)
+    @Override
+    public void setSelectorHeaderName(@Nullable String selectorHeaderName) {
+        super.setSelectorHeaderName(selectorHeaderName);
+        setSubscriptionRegistry(new RoomSubscriptionRegistry(selectorHeaderName));
+    }
+
+    @Override
+    protected void handleMessageInternal(Message<?> message) {
+        SimpMessageType messageType = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        if(sessionId != null && SimpMessageType.CONNECT == messageType) {
+            sessionChannels.put(sessionId, getClientOutboundChannelForSession(sessionId));
+        }
+        super.handleMessageInternal(message);
+        if(sessionId != null && SimpMessageType.DISCONNECT == messageType) {
+            sessionChannels.remove(sessionId);
+        }
+    }
+
+    @Override
+    protected void sendMessageToSubscribers(@Nullable String destination, Message<?> message) {
+        MultiValueMap<String, String> subscriptions = getSubscriptionRegistry().findSubscriptions(message);
+        if(subscriptions.isEmpty()) {
+            return;
+        }
+        // session id 기준으로 lane별로 묶어서 lane당 작업 1개만 넘김
+        List<List<Map.Entry<String, List<String>>>> laneSubscriptions = new ArrayList<>(lanes.length);
+        for (int i = 0; i < lanes.length; i++) {
+            laneSubscriptions.add(null);
+        }
+        for (Map.Entry<String, List<String>> subscription : subscriptions.entrySet()) {
+            int lane = Math.floorMod(subscription.getKey().hashCode(), lanes.length);
+            List<Map.Entry<String, List<String>>> entries = laneSubscriptions.get(lane);
+            if(entries == null) {
+                entries = new ArrayList<>();
+                laneSubscriptions.set(lane, entries);
+            }
+            entries.add(Map.entry(subscription.getKey(), List.copyOf(subscription.getValue())));
+        }
+        for (int i = 0; i < lanes.length; i++) {
+            List<Map.Entry<String, List<String>>> entries = laneSubscriptions.get(i);
+            if(entries != null) {
+                lanes[i].execute(() -> send(entries, message));
+            }
+        }
+    }
+
+    // SimpleBrokerMessageHandler와 같은 형태로 구독자별 메시지를 만들어 outbound channel로 보냄 (payload는 모두 같은 인스턴스)
+    private void send(List<Map.Entry<String, List<String>>> entries, Message<?> message) {
+        Object payload = message.getPayload();
+        for (Map.Entry<String, List<String>> entry : entries) {
+            String sessionId = entry.getKey();
+            MessageChannel channel = sessionChannels.get(sessionId);
+            if(channel == null) {
+                // CONNECT 전이거나 이미 끊긴 session
+                channel = getClientOutboundChannelForSession(sessionId);
+            }
+            for (String subscriptionId : entry.getValue()) {
+                SimpMessageHeaderAccessor headerAccessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+                headerAccessor.setSessionId(sessionId);
+                headerAccessor.setSubscriptionId(subscriptionId);
+                headerAccessor.copyHeadersIfAbsent(message.getHeaders());
+                headerAccessor.setLeaveMutable(true);
+                Message<?> reply = MessageBuilder.createMessage(payload, headerAccessor.getMessageHeaders());
+                try {
+                    channel.send(reply);
+                } catch (Exception e) {
+                    log.error("구독자에게 메시지 전송 실패 session : {}", sessionId, e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void startInternal() {
+        long[] heartbeat = getHeartbeatValue();
+        if(getTaskScheduler() != null && heartbeat != null && heartbeat[0] > 0) {
+            throw new IllegalStateException("chat.broker.type=fanout 은 서버 heartbeat와 같이 사용할 수 없습니다. heartbeat 설정을 빼거나 chat.broker.type=simple 을 사용하세요.");
+        }
+        super.startInternal();
+    }
+
+    @Override
+    public void stopInternal() {
+        super.stopInternal();
+        sessionChannels.clear();
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+    }
+}
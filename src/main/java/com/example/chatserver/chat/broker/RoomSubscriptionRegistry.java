@@ -0,0 +1,103 @@
+package com.example.chatserver.chat.broker;
+
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.broker.AbstractSubscriptionRegistry;
+import org.springframework.messaging.simp.broker.DefaultSubscriptionRegistry;
+import org.springframework.messaging.support.NativeMessageHeaderAccessor;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.PathMatcher;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// destination -> (session id -> subscription id) 색인
+// 채팅방 구독(/topic/{roomId}...)은 패턴이 아닌 정확한 destination이므로 발행시 구독 전체와 비교하지 않고 색인에서 바로 꺼냄
+// 패턴 destination이나 selector가 있는 구독은 SimpleBroker와 똑같이 처리되도록 DefaultSubscriptionRegistry에 맡김
+public class RoomSubscriptionRegistry extends AbstractSubscriptionRegistry {
+
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+    private final DefaultSubscriptionRegistry fallback = new DefaultSubscriptionRegistry();
+    private final String selectorHeaderName;
+
+    private final ConcurrentMap<String, ConcurrentMap<String, List<String>>> destinations = new ConcurrentHashMap<>();
+    // session id -> (subscription id -> destination), 구독 해제/연결 종료시 사용
+    private final ConcurrentMap<String, ConcurrentMap<String, String>> sessions = new ConcurrentHashMap<>();
+
+    public RoomSubscriptionRegistry(@Nullable String selectorHeaderName) {
+        this.selectorHeaderName = selectorHeaderName;
+        fallback.setSelectorHeaderName(selectorHeaderName);
+    }
+
+    @Override
+    protected void addSubscriptionInternal(String sessionId, String subscriptionId, String destination, Message<?> message) {
+        if(pathMatcher.isPattern(destination) || hasSelector(message)) {
+            fallback.registerSubscription(message);
+            return;
+        }
+        destinations.compute(destination, (key, subscribers) -> {
+            if(subscribers == null) {
+                subscribers = new ConcurrentHashMap<>();
+            }
+            subscribers.computeIfAbsent(sessionId, id -> new CopyOnWriteArrayList<>()).add(subscriptionId);
+            return subscribers;
+        });
+        sessions.computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>()).put(subscriptionId, destination);
+    }
+
+    @Override
+    protected void removeSubscriptionInternal(String sessionId, String subscriptionId, Message<?> message) {
+        ConcurrentMap<String, String> subscriptions = sessions.get(sessionId);
+        String destination = subscriptions == null ? null : subscriptions.remove(subscriptionId);
+        if(destination == null) {
+            fallback.unregisterSubscription(message);
+            return;
+        }
+        removeFromDestination(destination, sessionId, subscriptionId);
+    }
+
+    @Override
+    public void unregisterAllSubscriptions(String sessionId) {
+        ConcurrentMap<String, String> subscriptions = sessions.remove(sessionId);
+        if(subscriptions != null) {
+            subscriptions.forEach((subscriptionId, destination) -> removeFromDestination(destination, sessionId, subscriptionId));
+        }
+        fallback.unregisterAllSubscriptions(sessionId);
+    }
+
+    // 색인의 map을 복사하지 않고 그대로 돌려줌 (발행 중에 구독이 바뀌어도 ConcurrentHashMap이라 순회 가능)
+    @Override
+    protected MultiValueMap<String, String> findSubscriptionsInternal(String destination, Message<?> message) {
+        ConcurrentMap<String, List<String>> subscribers = destinations.get(destination);
+        MultiValueMap<String, String> exact = subscribers == null
+                ? new LinkedMultiValueMap<>()
+                : CollectionUtils.unmodifiableMultiValueMap(CollectionUtils.toMultiValueMap(subscribers));
+        MultiValueMap<String, String> matched = fallback.findSubscriptions(message);
+        if(matched.isEmpty()) {
+            return exact;
+        }
+        MultiValueMap<String, String> merged = new LinkedMultiValueMap<>(exact);
+        matched.forEach(merged::addAll);
+        return merged;
+    }
+
+    private void removeFromDestination(String destination, String sessionId, String subscriptionId) {
+        destinations.computeIfPresent(destination, (key, subscribers) -> {
+            subscribers.computeIfPresent(sessionId, (id, subscriptionIds) -> {
+                subscriptionIds.remove(subscriptionId);
+                return subscriptionIds.isEmpty() ? null : subscriptionIds;
+            });
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    private boolean hasSelector(Message<?> message) {
+        return selectorHeaderName != null
+                && NativeMessageHeaderAccessor.getFirstNativeHeader(selectorHeaderName, message.getHeaders()) != null;
+    }
+}
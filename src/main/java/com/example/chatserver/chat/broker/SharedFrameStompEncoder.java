@@ -0,0 +1,102 @@
+package com.example.chatserver.chat.broker;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompEncoder;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.NativeMessageHeaderAccessor;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// 한 메시지를 구독자 수만큼 MESSAGE 프레임으로 인코딩할 때, 구독자마다 다른 header(subscription, message-id)를 뺀
+// 나머지(공통 header + content-length + body)는 처음 한번만 인코딩하고 이후 구독자는 그대로 이어붙임
+// broker는 모든 구독자에게 같은 payload 인스턴스를 넘기므로 payload 인스턴스(identity)를 key로 사용
+public class SharedFrameStompEncoder extends StompEncoder {
+
+    private static final byte[] MESSAGE_COMMAND = "MESSAGE\n".getBytes(StandardCharsets.UTF_8);
+    private static final String SUBSCRIPTION = "subscription";
+    private static final String MESSAGE_ID = "message-id";
+    private static final String DESTINATION = "destination";
+
+    // weakKeys : key를 identity로 비교하고, 모든 구독자에게 전송이 끝나 payload가 수거되면 같이 정리됨
+    private final Cache<byte[], SharedFrame> sharedFrames = Caffeine.newBuilder()
+            .weakKeys()
+            .maximumSize(10_000)
+            .build();
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public byte[] encode(Map<String, Object> headers, byte[] payload) {
+        if(StompHeaderAccessor.getCommand(headers) != StompCommand.MESSAGE) {
+            return super.encode(headers, payload);
+        }
+        Map<String, List<String>> nativeHeaders = (Map<String, List<String>>) headers.get(NativeMessageHeaderAccessor.NATIVE_HEADERS);
+        if(nativeHeaders == null) {
+            return super.encode(headers, payload);
+        }
+        String destination = first(nativeHeaders, DESTINATION);
+        SharedFrame sharedFrame = sharedFrames.get(payload, key -> new SharedFrame(destination, encodeShared(headers, nativeHeaders, payload)));
+        // 같은 payload 인스턴스를 다른 destination으로 보낸 경우
+        if(!Objects.equals(sharedFrame.destination(), destination)) {
+            return super.encode(headers, payload);
+        }
+
+        StringBuilder recipientHeaders = new StringBuilder();
+        appendHeader(recipientHeaders, SUBSCRIPTION, first(nativeHeaders, SUBSCRIPTION));
+        appendHeader(recipientHeaders, MESSAGE_ID, first(nativeHeaders, MESSAGE_ID));
+        byte[] recipient = recipientHeaders.toString().getBytes(StandardCharsets.UTF_8);
+
+        byte[] frame = new byte[MESSAGE_COMMAND.length + recipient.length + sharedFrame.bytes().length];
+        System.arraycopy(MESSAGE_COMMAND, 0, frame, 0, MESSAGE_COMMAND.length);
+        System.arraycopy(recipient, 0, frame, MESSAGE_COMMAND.length, recipient.length);
+        System.arraycopy(sharedFrame.bytes(), 0, frame, MESSAGE_COMMAND.length + recipient.length, sharedFrame.bytes().length);
+        return frame;
+    }
+
+    // 구독자별 header를 뺀 프레임에서 command 줄을 제외한 부분
+    private byte[] encodeShared(Map<String, Object> headers, Map<String, List<String>> nativeHeaders, byte[] payload) {
+        MultiValueMap<String, String> sharedNativeHeaders = new LinkedMultiValueMap<>(nativeHeaders);
+        sharedNativeHeaders.remove(SUBSCRIPTION);
+        sharedNativeHeaders.remove(MESSAGE_ID);
+        Map<String, Object> sharedHeaders = new HashMap<>(headers);
+        sharedHeaders.put(NativeMessageHeaderAccessor.NATIVE_HEADERS, sharedNativeHeaders);
+        byte[] encoded = super.encode(sharedHeaders, payload);
+        byte[] shared = new byte[encoded.length - MESSAGE_COMMAND.length];
+        System.arraycopy(encoded, MESSAGE_COMMAND.length, shared, 0, shared.length);
+        return shared;
+    }
+
+    private static String first(Map<String, List<String>> nativeHeaders, String name) {
+        List<String> values = nativeHeaders.get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    private static void appendHeader(StringBuilder sb, String name, String value) {
+        if(value == null) {
+            return;
+        }
+        sb.append(name).append(':');
+        // STOMP header 값 escape (StompEncoder와 동일)
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> sb.append("\\\\");
+                case ':' -> sb.append("\\c");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                default -> sb.append(c);
+            }
+        }
+        sb.append('\n');
+    }
+
+    private record SharedFrame(String destination, byte[] bytes) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.chatserver.chat.bus;
+
+import com.example.chatserver.chat.dto.ChatMessageDto;
+
+import java.util.concurrent.CompletableFuture;
+
+// 채팅 메시지를 room 구독자가 있는 노드의 브로커(/topic/{roomId})까지 전달하는 경로
+// chat.bus.type : redis(기본, 노드간 redis pub/sub 또는 stream), in-process(단일 노드, redis 없이 같은 프로세스 안에서 전달)
+public interface ChatMessageBus {
+
+    // 발행 실패는 예외를 던지지 않고 실패한 future로 반환
+    CompletableFuture<Void> publish(Long roomId, ChatMessageDto chatMessageDto);
+
+    // 이 노드의 세션이 room을 구독 => 이후 다른 노드에서 발행된 해당 room 메시지도 받아야 함
+    void acquire(Long roomId);
+
+    // 이 노드의 세션이 room 구독을 해제 (unsubscribe, disconnect)
+    void release(Long roomId);
+}
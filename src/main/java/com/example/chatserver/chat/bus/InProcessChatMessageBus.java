@@ -0,0 +1,138 @@
+package com.example.chatserver.chat.bus;
+
+import com.example.chatserver.chat.dto.ChatMessageDto;
+import com.example.chatserver.chat.service.MessagePathMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// chat.bus.type=in-process : 노드가 하나뿐인 설치용, redis를 거치지 않고 같은 프로세스의 브로커로 전달
+// 요청 스레드는 ring buffer에 ChatMessageDto를 넣기만 하고 (직렬화, 네트워크 없음) dispatcher 스레드 하나가 순서대로 브로커에 전달
+// 다른 노드가 없으므로 room 구독 관리(acquire, release)는 할 일이 없음
+@Component
+@ConditionalOnProperty(name = "chat.bus.type", havingValue = "in-process")
+@Slf4j
+public class InProcessChatMessageBus implements ChatMessageBus {
+
+    // 비어 있을 때 이만큼 spin한 뒤에 다음 메시지가 들어와 깨울 때까지 park
+    private static final int IDLE_SPINS = 100;
+    // 가득 찼을 때 자리가 날때까지 기다리는 간격
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final SimpMessageSendingOperations messageTemplate;
+    private final MessagePathMetrics messagePathMetrics;
+    private final MpscRingBuffer<ChatMessageDto> ringBuffer;
+    private final long offerTimeoutNanos;
+    private final Counter rejectedCounter;
+
+    private volatile boolean running;
+    // dispatcher가 park 하려는 중이면 true => publish가 unpark
+    private volatile boolean sleeping;
+    private Thread dispatcher;
+
+    public InProcessChatMessageBus(SimpMessageSendingOperations messageTemplate,
+                                   MessagePathMetrics messagePathMetrics,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${chat.bus.in-process.capacity:16384}") int capacity,
+                                   @Value("${chat.bus.in-process.offer-timeout-ms:50}") long offerTimeoutMillis) {
+        this.messageTemplate = messageTemplate;
+        this.messagePathMetrics = messagePathMetrics;
+        this.ringBuffer = new MpscRingBuffer<>(capacity);
+        this.offerTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(offerTimeoutMillis);
+
+        Gauge.builder("chat.bus.queue.depth", ringBuffer, MpscRingBuffer::size).register(meterRegistry);
+        this.rejectedCounter = Counter.builder("chat.bus.rejected").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        dispatcher = new Thread(this::dispatchLoop, "chat-bus-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    // 종료시 ring buffer에 남은 메시지를 모두 전달한 뒤 끝냄
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if(dispatcher != null) {
+            LockSupport.unpark(dispatcher);
+            dispatcher.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    // ring buffer에 들어가면 완료, offerTimeout 동안 자리가 나지 않으면 실패
+    @Override
+    public CompletableFuture<Void> publish(Long roomId, ChatMessageDto chatMessageDto) {
+        if(ringBuffer.offer(chatMessageDto)) {
+            wakeDispatcher();
+            return CompletableFuture.completedFuture(null);
+        }
+        long deadline = System.nanoTime() + offerTimeoutNanos;
+        while (System.nanoTime() - deadline < 0) {
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+            if(ringBuffer.offer(chatMessageDto)) {
+                wakeDispatcher();
+                return CompletableFuture.completedFuture(null);
+            }
+        }
+        rejectedCounter.increment();
+        return CompletableFuture.failedFuture(new IllegalStateException("메시지 버스 대기열이 가득 찼습니다."));
+    }
+
+    @Override
+    public void acquire(Long roomId) {
+    }
+
+    @Override
+    public void release(Long roomId) {
+    }
+
+    // offer에서 slot 공개(volatile) 뒤에 sleeping을 읽고, dispatcher는 sleeping을 쓴 뒤에 size를 다시 확인하므로
+    // 둘 중 하나는 반드시 상대를 봄 => 들어온 메시지를 두고 계속 잠들어 있는 경우가 없음
+    private void wakeDispatcher() {
+        if(sleeping) {
+            LockSupport.unpark(dispatcher);
+        }
+    }
+
+    private void dispatchLoop() {
+        int idle = 0;
+        while (running || ringBuffer.size() > 0) {
+            ChatMessageDto chatMessageDto = ringBuffer.poll();
+            if(chatMessageDto == null) {
+                if(++idle < IDLE_SPINS) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                sleeping = true;
+                if(running && ringBuffer.size() == 0) {
+                    LockSupport.park(this);
+                }
+                sleeping = false;
+                continue;
+            }
+            idle = 0;
+            try {
+                Timer.Sample sample = messagePathMetrics.start();
+                messageTemplate.convertAndSend("/topic/" + chatMessageDto.getRoomId(), chatMessageDto.toSubscriberPayload());
+                messagePathMetrics.recordDispatch(sample, chatMessageDto);
+            } catch (RuntimeException e) {
+                log.error("메시지 전달 실패 roomId : {}", chatMessageDto.getRoomId(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.chatserver.chat.bus;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// 여러 스레드가 넣고(offer) 하나의 스레드만 꺼내는(poll) 고정 크기 ring buffer (lock 없음)
+// slot마다 sequence를 두고 producer는 tail을 CAS로 확보한 뒤 값을 쓰고 sequence를 올려서 공개,
+// consumer는 sequence가 올라간 slot만 읽고 다음 바퀴의 producer가 쓸 수 있도록 sequence를 capacity만큼 올림
+// 한 producer가 넣은 순서는 꺼낼 때도 유지됨
+final class MpscRingBuffer<E> {
+
+    private final int mask;
+    private final Object[] slots;
+    // slot에 기대하는 다음 위치 : position이면 비어있음(쓰기 가능), position + 1 이면 값이 들어있음(읽기 가능)
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    // consumer 스레드만 씀 (size() 조회를 위해 volatile)
+    private volatile long head;
+
+    MpscRingBuffer(int capacity) {
+        if(capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity는 2의 거듭제곱이어야 합니다 : " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.slots = new Object[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    // 가득 차 있으면 false
+    boolean offer(E element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if(difference == 0) {
+                if(tail.compareAndSet(position, position + 1)) {
+                    slots[index] = element;
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if(difference < 0) {
+                // consumer가 아직 한 바퀴 전 값을 꺼내지 않음
+                return false;
+            } else {
+                // 다른 producer가 먼저 확보함
+                position = tail.get();
+            }
+        }
+    }
+
+    // 비어 있으면 null (consumer 스레드에서만 호출)
+    @SuppressWarnings("unchecked")
+    E poll() {
+        long position = head;
+        int index = (int) (position & mask);
+        if(sequences.get(index) != position + 1) {
+            return null;
+        }
+        E element = (E) slots[index];
+        slots[index] = null;
+        sequences.set(index, position + mask + 1);
+        head = position + 1;
+        return element;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.chatserver.chat.bus;
+
+import com.example.chatserver.chat.dto.ChatMessageDto;
+import com.example.chatserver.chat.service.RedisPubSubService;
+import com.example.chatserver.chat.service.RoomChannelSubscriptionManager;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+
+// chat.bus.type=redis (기본) : 기존처럼 redis를 거쳐 room 구독자가 있는 모든 노드로 전달
+// 발행은 RedisPubSubService, room별 channel(stream) 구독은 RoomChannelSubscriptionManager가 담당
+@Component
+@ConditionalOnProperty(name = "chat.bus.type", havingValue = "redis", matchIfMissing = true)
+public class RedisChatMessageBus implements ChatMessageBus {
+
+    private final RedisPubSubService redisPubSubService;
+    private final RoomChannelSubscriptionManager roomChannelSubscriptionManager;
+
+    public RedisChatMessageBus(RedisPubSubService redisPubSubService, RoomChannelSubscriptionManager roomChannelSubscriptionManager) {
+        this.redisPubSubService = redisPubSubService;
+        this.roomChannelSubscriptionManager = roomChannelSubscriptionManager;
+    }
+
+    @Override
+    public CompletableFuture<Void> publish(Long roomId, ChatMessageDto chatMessageDto) {
+        return redisPubSubService.publish(roomId, chatMessageDto);
+    }
+
+    @Override
+    public void acquire(Long roomId) {
+        roomChannelSubscriptionManager.acquire(roomId);
+    }
+
+    @Override
+    public void release(Long roomId) {
+        roomChannelSubscriptionManager.release(roomId);
+    }
+}
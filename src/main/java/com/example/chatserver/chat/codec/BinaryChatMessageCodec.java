@@ -0,0 +1,144 @@
+package com.example.chatserver.chat.codec;
+
+import com.example.chatserver.chat.dto.ChatMessageDto;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// [0x02]([tag][length varint][value])*
+// 필드마다 tag와 길이를 붙여서, 새 필드가 추가되어도 이전 버전 노드는 모르는 tag를 건너뛰고 읽을 수 있음
+// long은 8byte big-endian, 문자열은 utf-8
+public class BinaryChatMessageCodec implements ChatMessageCodec {
+
+    public static final byte FORMAT = 0x02;
+
+    private static final byte ROOM_ID = 1;
+    private static final byte MESSAGE_ID = 2;
+    private static final byte MESSAGE = 3;
+    private static final byte SENDER_EMAIL = 4;
+    private static final byte SENDER_ID = 5;
+    private static final byte SENT_AT = 6;
+    private static final byte ORIGIN_NODE_ID = 7;
+    private static final byte ROOM_SEQ = 8;
+
+    @Override
+    public byte format() {
+        return FORMAT;
+    }
+
+    @Override
+    public byte[] encode(ChatMessageDto chatMessageDto) {
+        byte[] message = bytesOf(chatMessageDto.getMessage());
+        byte[] senderEmail = bytesOf(chatMessageDto.getSenderEmail());
+        byte[] originNodeId = bytesOf(chatMessageDto.getOriginNodeId());
+
+        int size = 1
+                + longFieldSize(chatMessageDto.getRoomId())
+                + longFieldSize(chatMessageDto.getMessageId())
+                + bytesFieldSize(message)
+                + bytesFieldSize(senderEmail)
+                + longFieldSize(chatMessageDto.getSenderId())
+                + longFieldSize(chatMessageDto.getSentAt())
+                + bytesFieldSize(originNodeId)
+                + longFieldSize(chatMessageDto.getRoomSeq());
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(FORMAT);
+        putLong(buffer, ROOM_ID, chatMessageDto.getRoomId());
+        putLong(buffer, MESSAGE_ID, chatMessageDto.getMessageId());
+        putBytes(buffer, MESSAGE, message);
+        putBytes(buffer, SENDER_EMAIL, senderEmail);
+        putLong(buffer, SENDER_ID, chatMessageDto.getSenderId());
+        putLong(buffer, SENT_AT, chatMessageDto.getSentAt());
+        putBytes(buffer, ORIGIN_NODE_ID, originNodeId);
+        putLong(buffer, ROOM_SEQ, chatMessageDto.getRoomSeq());
+        return buffer.array();
+    }
+
+    @Override
+    public ChatMessageDto decode(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload, 1, payload.length - 1);
+        ChatMessageDto chatMessageDto = new ChatMessageDto();
+        while (buffer.hasRemaining()) {
+            byte tag = buffer.get();
+            int length = getVarint(buffer);
+            switch (tag) {
+                case ROOM_ID -> chatMessageDto.setRoomId(buffer.getLong());
+                case MESSAGE_ID -> chatMessageDto.setMessageId(buffer.getLong());
+                case MESSAGE -> chatMessageDto.setMessage(getString(buffer, length));
+                case SENDER_EMAIL -> chatMessageDto.setSenderEmail(getString(buffer, length));
+                case SENDER_ID -> chatMessageDto.setSenderId(buffer.getLong());
+                case SENT_AT -> chatMessageDto.setSentAt(buffer.getLong());
+                case ORIGIN_NODE_ID -> chatMessageDto.setOriginNodeId(getString(buffer, length));
+                case ROOM_SEQ -> chatMessageDto.setRoomSeq(buffer.getLong());
+                // 이후 버전에서 추가된 필드
+                default -> buffer.position(buffer.position() + length);
+            }
+        }
+        return chatMessageDto;
+    }
+
+    private static byte[] bytesOf(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int longFieldSize(Long value) {
+        return value == null ? 0 : 1 + 1 + Long.BYTES;
+    }
+
+    private static int bytesFieldSize(byte[] value) {
+        return value == null ? 0 : 1 + varintSize(value.length) + value.length;
+    }
+
+    private static void putLong(ByteBuffer buffer, byte tag, Long value) {
+        if(value == null) {
+            return;
+        }
+        buffer.put(tag);
+        putVarint(buffer, Long.BYTES);
+        buffer.putLong(value);
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte tag, byte[] value) {
+        if(value == null) {
+            return;
+        }
+        buffer.put(tag);
+        putVarint(buffer, value.length);
+        buffer.put(value);
+    }
+
+    private static String getString(ByteBuffer buffer, int length) {
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static int varintSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
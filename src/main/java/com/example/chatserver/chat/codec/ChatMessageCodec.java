@@ -0,0 +1,15 @@
+package com.example.chatserver.chat.codec;
+
+import com.example.chatserver.chat.dto.ChatMessageDto;
+
+// redis pub/sub로 주고받는 채팅 메시지의 직렬화 방식
+// 모든 payload의 첫 byte는 format(version) byte라서 서로 다른 codec을 쓰는 노드끼리도 읽을 수 있음
+public interface ChatMessageCodec {
+
+    byte format();
+
+    byte[] encode(ChatMessageDto chatMessageDto);
+
+    // payload[0]은 format byte
+    ChatMessageDto decode(byte[] payload);
+}
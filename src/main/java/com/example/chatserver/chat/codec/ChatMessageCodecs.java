@@ -0,0 +1,43 @@
+package com.example.chatserver.chat.codec;
+
+import com.example.chatserver.chat.dto.ChatMessageDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// 발행은 설정된 codec(chat.redis.codec : json, binary)으로 하고,
+// 수신은 첫 byte를 보고 해당 codec으로 읽음 => codec 설정이 다른 노드가 섞여 있어도 동작
+@Component
+public class ChatMessageCodecs {
+
+    private final JsonChatMessageCodec jsonCodec;
+    private final BinaryChatMessageCodec binaryCodec;
+    private final ChatMessageCodec publishCodec;
+
+    public ChatMessageCodecs(ObjectMapper objectMapper, @Value("${chat.redis.codec:json}") String codec) {
+        this.jsonCodec = new JsonChatMessageCodec(objectMapper);
+        this.binaryCodec = new BinaryChatMessageCodec();
+        this.publishCodec = switch (codec) {
+            case "json" -> jsonCodec;
+            case "binary" -> binaryCodec;
+            default -> throw new IllegalArgumentException("지원하지 않는 codec입니다 : " + codec);
+        };
+    }
+
+    public byte[] encode(ChatMessageDto chatMessageDto) {
+        return publishCodec.encode(chatMessageDto);
+    }
+
+    public ChatMessageDto decode(byte[] payload) {
+        if(payload.length == 0) {
+            throw new IllegalArgumentException("빈 메시지입니다.");
+        }
+        return switch (payload[0]) {
+            case JsonChatMessageCodec.FORMAT -> jsonCodec.decode(payload);
+            case BinaryChatMessageCodec.FORMAT -> binaryCodec.decode(payload);
+            // format byte 없이 json 문자열을 발행하던 이전 버전 노드
+            case '{' -> jsonCodec.decodeJson(payload, 0);
+            default -> throw new IllegalArgumentException("알 수 없는 메시지 format : " + payload[0]);
+        };
+    }
+}
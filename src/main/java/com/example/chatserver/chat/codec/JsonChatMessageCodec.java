@@ -0,0 +1,56 @@
+package com.example.chatserver.chat.codec;
+
+import com.example.chatserver.chat.dto.ChatMessageDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// [0x01][json]
+// ObjectMapper를 메시지마다 만들지 않고, 타입이 고정된 reader/writer를 재사용 (thread-safe)
+public class JsonChatMessageCodec implements ChatMessageCodec {
+
+    public static final byte FORMAT = 0x01;
+
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+
+    public JsonChatMessageCodec(ObjectMapper objectMapper) {
+        this.writer = objectMapper.writerFor(ChatMessageDto.class);
+        this.reader = objectMapper.readerFor(ChatMessageDto.class);
+    }
+
+    @Override
+    public byte format() {
+        return FORMAT;
+    }
+
+    @Override
+    public byte[] encode(ChatMessageDto chatMessageDto) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+            out.write(FORMAT);
+            writer.writeValue(out, chatMessageDto);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public ChatMessageDto decode(byte[] payload) {
+        return decodeJson(payload, 1);
+    }
+
+    // format byte 없이 json만 있는 경우(offset 0)도 처리
+    ChatMessageDto decodeJson(byte[] payload, int offset) {
+        try {
+            return reader.readValue(payload, offset, payload.length - offset);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.chatserver.chat.config;
+
+import com.example.chatserver.chat.broker.FanoutBrokerMessageHandler;
+import com.example.chatserver.chat.broker.SharedFrameStompEncoder;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.web.socket.messaging.StompSubProtocolHandler;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+// chat.broker.type=fanout : StompWebSocketConfig의 enableSimpleBroker 설정은 그대로 두고
+// 만들어진 SimpleBrokerMessageHandler를 같은 설정의 FanoutBrokerMessageHandler로 교체
+// (기본값 simple : 기존 SimpleBroker 그대로)
+@Configuration
+@ConditionalOnProperty(name = "chat.broker.type", havingValue = "fanout")
+public class FanoutBrokerConfig {
+
+    // BeanPostProcessor는 다른 bean보다 먼저 만들어지므로 static, 설정값은 Environment에서 직접 읽음
+    @Bean
+    public static BeanPostProcessor fanoutBrokerPostProcessor(Environment environment) {
+        int workers = environment.getProperty("chat.broker.fanout-workers", Integer.class, Runtime.getRuntime().availableProcessors());
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if(bean instanceof SimpleBrokerMessageHandler simpleBroker && !(bean instanceof FanoutBrokerMessageHandler)) {
+                    return FanoutBrokerMessageHandler.from(simpleBroker, workers);
+                }
+                return bean;
+            }
+        };
+    }
+
+    // STOMP 프레임 인코더 교체 (protocol handler는 endpoint 등록시 만들어지므로 모든 singleton 생성 후에 설정)
+    @Bean
+    public SmartInitializingSingleton sharedFrameStompEncoderInstaller(ApplicationContext applicationContext) {
+        return () -> applicationContext.getBeansOfType(SubProtocolWebSocketHandler.class).values().forEach(handler ->
+                handler.getProtocolHandlers().forEach(protocolHandler -> {
+                    if(protocolHandler instanceof StompSubProtocolHandler stompSubProtocolHandler) {
+                        stompSubProtocolHandler.setEncoder(new SharedFrameStompEncoder());
+                    }
+                }));
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.chatserver.chat.config;
+
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+
+import java.util.List;
+
+// /ws (SockJS 없는 websocket) handshake
+// permessage-deflate는 tomcat이 지원하는 extension이라 클라이언트가 요청하면 그대로 협상됨
+// chat.websocket.native.compression=false 면 협상 목록에서 제외 (압축 CPU 비용이 대역폭보다 비쌀 때)
+public class NativeWebSocketHandshakeHandler extends DefaultHandshakeHandler {
+
+    static final String PERMESSAGE_DEFLATE = "permessage-deflate";
+
+    private final boolean compression;
+
+    public NativeWebSocketHandshakeHandler(boolean compression) {
+        this.compression = compression;
+    }
+
+    @Override
+    protected List<WebSocketExtension> filterRequestedExtensions(ServerHttpRequest request, List<WebSocketExtension> requestedExtensions,
+                                                                 List<WebSocketExtension> supportedExtensions) {
+        List<WebSocketExtension> extensions = super.filterRequestedExtensions(request, requestedExtensions, supportedExtensions);
+        if(compression) {
+            return extensions;
+        }
+        return extensions.stream()
+                .filter(extension -> !PERMESSAGE_DEFLATE.equalsIgnoreCase(extension.getName()))
+                .toList();
+    }
+}
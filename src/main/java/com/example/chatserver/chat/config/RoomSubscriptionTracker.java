@@ -0,0 +1,165 @@
+package com.example.chatserver.chat.config;
+
+import com.example.chatserver.chat.bus.ChatMessageBus;
+import com.example.chatserver.chat.service.PresenceService;
+import com.example.chatserver.common.auth.MemberPrincipal;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 세션별 /topic/{roomId} 구독을 기록해서 room별 메시지 수신(ChatMessageBus, redis 모드에서는 room별 redis channel 구독)과 presence(채팅방 접속)를 관리
+// StompHandler 다음에 등록되므로 권한 검증을 통과한 SUBSCRIBE만 기록됨
+// 연결이 끊긴 경우에도 spring이 DISCONNECT 메시지를 inbound channel로 보내주므로 여기서 정리됨
+@Component
+public class RoomSubscriptionTracker implements ChannelInterceptor {
+
+    private static final String TOPIC_PREFIX = "/topic/";
+
+    private final ChatMessageBus chatMessageBus;
+    private final PresenceService presenceService;
+    // session id -> 세션의 구독
+    private final Map<String, SessionSubscriptions> sessions = new ConcurrentHashMap<>();
+
+    // ChatMessageBus -> RedisPubSubService(InProcessChatMessageBus) -> brokerMessagingTemplate -> StompWebSocketConfig 순환참조를 피하기 위해 @Lazy
+    public RoomSubscriptionTracker(@Lazy ChatMessageBus chatMessageBus,
+                                   @Lazy PresenceService presenceService) {
+        this.chatMessageBus = chatMessageBus;
+        this.presenceService = presenceService;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+        StompCommand command = accessor.getCommand();
+        if(command == null) {
+            return message;
+        }
+
+        switch (command) {
+            case SUBSCRIBE -> subscribe(accessor.getSessionId(), accessor.getSubscriptionId(), accessor.getDestination(), accessor.getUser());
+            case UNSUBSCRIBE -> unsubscribe(accessor.getSessionId(), accessor.getSubscriptionId());
+            case DISCONNECT -> disconnect(accessor.getSessionId());
+            default -> {
+            }
+        }
+        return message;
+    }
+
+    private void subscribe(String sessionId, String subscriptionId, String destination, Principal user) {
+        Long roomId = roomIdOf(destination);
+        if(roomId == null) {
+            return;
+        }
+        Long memberId = user instanceof MemberPrincipal principal ? principal.getMemberId() : null;
+        SessionSubscriptions session = sessions.computeIfAbsent(sessionId, id -> new SessionSubscriptions(memberId));
+        Long previous;
+        boolean entered;
+        synchronized (session) {
+            previous = session.subscriptions.put(subscriptionId, roomId);
+            // 이 세션의 해당 room 첫 구독
+            entered = !roomId.equals(previous) && countOf(session, roomId) == 1;
+        }
+        chatMessageBus.acquire(roomId);
+        if(entered) {
+            enterRoom(session, roomId);
+        }
+        if(previous != null) {
+            // 같은 subscription id로 다시 구독한 경우
+            chatMessageBus.release(previous);
+            if(!previous.equals(roomId)) {
+                leaveRoomIfUnsubscribed(session, previous);
+            }
+        }
+    }
+
+    private void unsubscribe(String sessionId, String subscriptionId) {
+        SessionSubscriptions session = sessions.get(sessionId);
+        if(session == null || subscriptionId == null) {
+            return;
+        }
+        Long roomId;
+        synchronized (session) {
+            roomId = session.subscriptions.remove(subscriptionId);
+        }
+        if(roomId != null) {
+            chatMessageBus.release(roomId);
+            leaveRoomIfUnsubscribed(session, roomId);
+        }
+    }
+
+    private void disconnect(String sessionId) {
+        // 클라이언트 DISCONNECT 프레임 + 세션 종료로 두번 올 수 있음
+        SessionSubscriptions session = sessions.remove(sessionId);
+        if(session == null) {
+            return;
+        }
+        Set<Long> rooms;
+        synchronized (session) {
+            for (Long roomId : session.subscriptions.values()) {
+                chatMessageBus.release(roomId);
+            }
+            rooms = new HashSet<>(session.subscriptions.values());
+            session.subscriptions.clear();
+        }
+        if(session.memberId != null) {
+            for (Long roomId : rooms) {
+                presenceService.leaveRoom(roomId, session.memberId);
+            }
+        }
+    }
+
+    // 한 세션이 같은 room을 여러번 구독해도(/topic/1, /topic/1/read ...) presence는 한번만
+    private void enterRoom(SessionSubscriptions session, Long roomId) {
+        if(session.memberId != null) {
+            presenceService.enterRoom(roomId, session.memberId);
+        }
+    }
+
+    private void leaveRoomIfUnsubscribed(SessionSubscriptions session, Long roomId) {
+        boolean stillSubscribed;
+        synchronized (session) {
+            stillSubscribed = session.subscriptions.containsValue(roomId);
+        }
+        if(!stillSubscribed && session.memberId != null) {
+            presenceService.leaveRoom(roomId, session.memberId);
+        }
+    }
+
+    private static long countOf(SessionSubscriptions session, Long roomId) {
+        return session.subscriptions.values().stream().filter(roomId::equals).count();
+    }
+
+    // /topic/{roomId} 또는 /topic/{roomId}/... 형태에서 room id 추출
+    static Long roomIdOf(String destination) {
+        if(destination == null || !destination.startsWith(TOPIC_PREFIX)) {
+            return null;
+        }
+        String[] paths = destination.split("/");
+        try {
+            return Long.parseLong(paths[2]);
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    private static class SessionSubscriptions {
+        private final Long memberId;
+        // subscription id -> room id
+        private final Map<String, Long> subscriptions = new HashMap<>();
+
+        private SessionSubscriptions(Long memberId) {
+            this.memberId = memberId;
+        }
+    }
+}
@@ -1,35 +1,42 @@
 package com.example.chatserver.chat.config;
 
+import com.example.chatserver.chat.service.PresenceService;
+import com.example.chatserver.common.auth.MemberPrincipal;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.context.event.EventListener;
-import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.stereotype.Component;
-import org.springframework.web.socket.messaging.SessionConnectEvent;
-
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 
 // 스프링과 stomp는 기본적으로 세션관리를 자동(내부적)으로 처리
-// 연결/해제 이벤트를 기록, 연결된 세션수를 실시간으로 확인할 목적으로 이벤트 리스너를 생성 => 로그, 디버깅 목적
+// 연결/해제 이벤트를 기록하고 presence의 세션 registry에 반영
+// CONNECT 처리(StompHandler에서 인증)가 끝난 뒤의 SessionConnectedEvent에서만 사용자 정보가 있음
 @Component
 @Slf4j
 public class StompEventListener {
 
-    private final Set<String> sessions = ConcurrentHashMap.newKeySet();
+    private final PresenceService presenceService;
+
+    public StompEventListener(@Lazy PresenceService presenceService) {
+        this.presenceService = presenceService;
+    }
 
     @EventListener
-    public void connectHandle(SessionConnectEvent event) {
-        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
-        sessions.add(accessor.getSessionId());
-        log.info("connect session Id : {}", accessor.getSessionId());
-        log.info("total session : {}", sessions.size());
+    public void connectHandle(SessionConnectedEvent event) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        if(event.getUser() instanceof MemberPrincipal principal) {
+            presenceService.connected(sessionId, principal.getMemberId());
+        }
+        log.info("connect session Id : {}", sessionId);
+        log.info("total session : {}", presenceService.sessionCount());
     }
 
     @EventListener
-    public void disconnectHandle(SessionConnectEvent event) {
-        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
-        sessions.remove(accessor.getSessionId());
-        log.info("disconnect session Id : {}", accessor.getSessionId());
-        log.info("total session : {}", sessions.size());
+    public void disconnectHandle(SessionDisconnectEvent event) {
+        presenceService.disconnected(event.getSessionId());
+        log.info("disconnect session Id : {}", event.getSessionId());
+        log.info("total session : {}", presenceService.sessionCount());
     }
 }
@@ -1,69 +1,103 @@
 package com.example.chatserver.chat.config;
 
 import com.example.chatserver.chat.service.ChatService;
+import com.example.chatserver.chat.service.MessagePathMetrics;
+import com.example.chatserver.common.auth.JwtTokenProvider;
+import com.example.chatserver.common.auth.MemberPrincipal;
+import com.example.chatserver.common.concurrency.DatabaseCallLimiter;
+import com.example.chatserver.member.service.MemberService;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import org.springframework.beans.factory.annotation.Value;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.security.authentication.AuthenticationServiceException;
 import org.springframework.stereotype.Component;
 
+import java.security.Principal;
+
 @Component
 public class StompHandler implements ChannelInterceptor {
 
-    @Value("${jwt.secretKey}")
-    private String secretKey;
+    private final JwtTokenProvider jwtTokenProvider;
     private final ChatService chatService;
+    private final MemberService memberService;
+    private final DatabaseCallLimiter databaseCallLimiter;
+    private final MessagePathMetrics messagePathMetrics;
 
-    public StompHandler(ChatService chatService) {
+    public StompHandler(JwtTokenProvider jwtTokenProvider, ChatService chatService, MemberService memberService, DatabaseCallLimiter databaseCallLimiter, MessagePathMetrics messagePathMetrics) {
+        this.jwtTokenProvider = jwtTokenProvider;
         this.chatService = chatService;
+        this.memberService = memberService;
+        this.databaseCallLimiter = databaseCallLimiter;
+        this.messagePathMetrics = messagePathMetrics;
     }
 
 
     @Override
     public Message<?> preSend(Message<?> message, MessageChannel channel) {
-        final StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+        // setUser가 세션에 반영되도록 wrap(복사본)이 아닌 메시지의 accessor를 그대로 사용
+        final StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if(accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+
+        Timer.Sample sample = messagePathMetrics.start();
+        try {
+            authorize(accessor);
+        } finally {
+            messagePathMetrics.recordInbound(sample, accessor.getCommand().name());
+        }
+        return message;
+    }
 
+    private void authorize(StompHeaderAccessor accessor) {
 
+        // connect요청시에만 토큰 유효성 검증 후 Principal을 세션에 저장
+        // 이후 프레임에는 spring이 같은 세션의 Principal을 넣어줌
         if(StompCommand.CONNECT == accessor.getCommand()) {
-            System.out.println("connect요청시 토큰 유효성 검증");
             String bearerToken = accessor.getFirstNativeHeader("Authorization");
-            String token = bearerToken.substring(7);
+            if(bearerToken == null || !bearerToken.startsWith("Bearer ")) {
+                throw new AuthenticationServiceException("Bearer 형식이 아닙니다");
+            }
 
             //토큰 검증
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(secretKey)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-
-            System.out.println("토큰 검증 완료");
+            Claims claims = jwtTokenProvider.parseClaims(bearerToken.substring(7));
+            // memberId claim이 없는 이전 토큰은 connect시 한번만 조회
+            Object memberIdClaim = claims.get("memberId");
+            Long memberId = memberIdClaim != null ? ((Number) memberIdClaim).longValue() : databaseCallLimiter.call(() -> memberService.findIdByEmail(claims.getSubject()));
+            accessor.setUser(MemberPrincipal.of(claims, memberId));
         }
 
-        if(StompCommand.SUBSCRIBE == accessor.getCommand()) {
-            System.out.println("subscribe 검증");
-            String bearerToken = accessor.getFirstNativeHeader("Authorization");
-            String token = bearerToken.substring(7);
-
-            //토큰 검증
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(secretKey)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+        // /user/queue/errors 처럼 자기 자신에게 오는 destination은 인증된 세션이면 구독 가능
+        if(StompCommand.SUBSCRIBE == accessor.getCommand() && accessor.getDestination() != null && accessor.getDestination().startsWith("/user/")) {
+            authenticatedPrincipal(accessor.getUser());
+            return;
+        }
 
-            String email = claims.getSubject();
+        // subscribe(/topic/{roomId}), send(/publish/{roomId})는 해당 room의 참여자만 가능
+        if(StompCommand.SUBSCRIBE == accessor.getCommand() || StompCommand.SEND == accessor.getCommand()) {
+            MemberPrincipal principal = authenticatedPrincipal(accessor.getUser());
             String roomId = accessor.getDestination().split("/")[2];
 
-            if(!chatService.isRoomParticipant(email, Long.parseLong(roomId))) {
+            // 캐시에 없는 room이면 DB 조회가 발생
+            boolean participant = databaseCallLimiter.call(() -> chatService.isRoomParticipant(principal.getMemberId(), Long.parseLong(roomId)));
+            if(!participant) {
                 throw  new AuthenticationServiceException("해당 room에 대한 권한이 없습니다.");
             }
         }
+    }
 
-        return message;
+    private MemberPrincipal authenticatedPrincipal(Principal user) {
+        if(!(user instanceof MemberPrincipal principal)) {
+            throw new AuthenticationServiceException("인증되지 않은 세션입니다.");
+        }
+        if(principal.isExpired()) {
+            throw new AuthenticationServiceException("토큰이 만료되었습니다.");
+        }
+        return principal;
     }
 }
@@ -1,20 +1,50 @@
 package com.example.chatserver.chat.config;
 
+import com.example.chatserver.chat.transport.OutboundBackpressure;
+import com.example.chatserver.chat.transport.OutboundCoalescing;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class StompWebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     private final StompHandler stompHandler;
+    private final RoomSubscriptionTracker roomSubscriptionTracker;
+    private final StreamReplayInterceptor streamReplayInterceptor;
+    private final OutboundCoalescing outboundCoalescing;
+    private final OutboundBackpressure outboundBackpressure;
+    private final int sendTimeLimitMillis;
+    private final int sendBufferSizeLimit;
+    private final int messageSizeLimit;
+    private final boolean nativeCompression;
+    // platform : 기본 thread pool, virtual : inbound/outbound channel 작업을 virtual thread에서 실행
+    private final boolean virtualThreads;
 
-    public StompWebSocketConfig(StompHandler stompHandler) {
+    public StompWebSocketConfig(StompHandler stompHandler, RoomSubscriptionTracker roomSubscriptionTracker, StreamReplayInterceptor streamReplayInterceptor,
+                                OutboundCoalescing outboundCoalescing, OutboundBackpressure outboundBackpressure,
+                                @Value("${chat.execution.mode:platform}") String executionMode,
+                                @Value("${chat.websocket.send-time-limit-ms:10000}") int sendTimeLimitMillis,
+                                @Value("${chat.websocket.send-buffer-size-limit:524288}") int sendBufferSizeLimit,
+                                @Value("${chat.websocket.message-size-limit:65536}") int messageSizeLimit,
+                                @Value("${chat.websocket.native.compression:true}") boolean nativeCompression) {
         this.stompHandler = stompHandler;
+        this.roomSubscriptionTracker = roomSubscriptionTracker;
+        this.streamReplayInterceptor = streamReplayInterceptor;
+        this.outboundCoalescing = outboundCoalescing;
+        this.outboundBackpressure = outboundBackpressure;
+        this.sendTimeLimitMillis = sendTimeLimitMillis;
+        this.sendBufferSizeLimit = sendBufferSizeLimit;
+        this.messageSizeLimit = messageSizeLimit;
+        this.nativeCompression = nativeCompression;
+        this.virtualThreads = "virtual".equals(executionMode);
     }
 
     @Override
@@ -23,6 +53,17 @@ public class StompWebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOrigins("http://localhost:3000")
                 //ws://가 아닌 http:// 앤드포인트를 사용할 수 있게 해주는 sockJs 라이브러리를 통한 요청을 허용하는 설정
                 .withSockJS();
+
+        // SockJS 없이 바로 websocket으로 연결하는 endpoint (SockJS 프레임/배열 감싸기 없음, permessage-deflate 협상)
+        // 클라이언트는 ws://{host}/ws 로 연결, 인증(CONNECT의 Authorization header)은 /connect와 같음
+        registry.addEndpoint("/ws")
+                .setHandshakeHandler(new NativeWebSocketHandshakeHandler(nativeCompression))
+                .setAllowedOrigins("http://localhost:3000");
+
+        // virtual thread는 작업마다 새 스레드라서 같은 세션의 프레임 처리 순서를 보장하기 위해 세션별로 순서대로 처리
+        if(virtualThreads) {
+            registry.setPreserveReceiveOrder(true);
+        }
     }
 
     @Override
@@ -32,7 +73,13 @@ public class StompWebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.setApplicationDestinationPrefixes("/publish");
 
         // /topic/1 형태로 메시지를 수신(subscribe) 해야 함을 설정
-        registry.enableSimpleBroker("/topic");  //브로커
+        registry.enableSimpleBroker("/topic", "/queue");  //브로커
+        // /queue : 보낸 사람에게만 가는 알림 (convertAndSendToUser -> /user/queue/errors)
+        // chat.broker.type=fanout 이면 FanoutBrokerConfig에서 같은 설정의 FanoutBrokerMessageHandler로 교체
+
+        if(virtualThreads) {
+            registry.setPreservePublishOrder(true);
+        }
     }
 
 
@@ -40,6 +87,42 @@ public class StompWebSocketConfig implements WebSocketMessageBrokerConfigurer {
     // 이를 interceptor를 통해 가로채 토큰등을 검증할 수 있음
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
-        registration.interceptors(stompHandler);
+        // 권한 검증(stompHandler)을 통과한 구독만 room별 redis channel 구독에 반영
+        // streamReplayInterceptor : 브로커가 구독을 등록한 뒤 놓친 메시지를 다시 보냄 (streams 모드)
+        registration.interceptors(stompHandler, roomSubscriptionTracker, streamReplayInterceptor);
+        if(virtualThreads) {
+            registration.executor(virtualThreadExecutor("stomp-inbound-"));
+        }
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        if(virtualThreads) {
+            registration.executor(virtualThreadExecutor("stomp-outbound-"));
+        }
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // session 하나에 전송이 이 시간 이상 걸리거나 대기 버퍼가 이 크기를 넘으면 연결 종료 (기본값은 spring 기본값과 같음)
+        registration.setSendTimeLimit(sendTimeLimitMillis);
+        registration.setSendBufferSizeLimit(sendBufferSizeLimit);
+        // 클라이언트가 보내는 STOMP 메시지 최대 크기 (기본값은 spring 기본값과 같음)
+        registration.setMessageSizeLimit(messageSizeLimit);
+        // 같은 session으로 몰려 나가는 MESSAGE 프레임을 묶어서 전송 (chat.outbound.coalesce.*)
+        if(outboundCoalescing.isEnabled()) {
+            registration.addDecoratorFactory(outboundCoalescing::decorate);
+        }
+        // 느린 session의 전송 버퍼 제한 (chat.outbound.slow-consumer.*)
+        // 나중에 추가한 decorator가 실제 session에 가장 가까움 => 묶인 프레임을 버퍼에 넣고 느린 전송은 여기서 흡수
+        if(outboundBackpressure.isEnabled()) {
+            registration.addDecoratorFactory(outboundBackpressure::decorate);
+        }
+    }
+
+    private static SimpleAsyncTaskExecutor virtualThreadExecutor(String threadNamePrefix) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        return executor;
     }
 }
@@ -0,0 +1,98 @@
+package com.example.chatserver.chat.config;
+
+import com.example.chatserver.chat.dto.ChatMessageDto;
+import com.example.chatserver.chat.service.RedisStreamService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// streams 모드에서 SUBSCRIBE에 last-seen-id 헤더가 있으면 그 이후 메시지를 room stream에서 해당 세션에만 다시 보내줌
+// 브로커가 구독을 등록한 뒤(afterMessageHandled)에 보내므로 사이에 빠지는 메시지가 없음
+// (대신 중복이 있을 수 있으므로 클라이언트는 streamId로 중복 제거)
+// max-replay개보다 많이 놓쳤거나 last-seen-id 이후가 MAXLEN으로 잘려나갔으면 메시지 대신 chat-gap:reset 프레임을 보냄
+// => 클라이언트는 빈 구간을 그대로 보여주지 않고 이력 API로 다시 조회
+@Component
+public class StreamReplayInterceptor implements ExecutorChannelInterceptor {
+
+    public static final String LAST_SEEN_ID_HEADER = "last-seen-id";
+    public static final String GAP_HEADER = "chat-gap";
+
+    private final ObjectProvider<RedisStreamService> redisStreamService;
+    private final MessageChannel clientOutboundChannel;
+    private final MessageConverter brokerMessageConverter;
+    private final int maxReplay;
+
+    // broker 관련 빈은 StompWebSocketConfig 생성 이후에 만들어지므로 @Lazy
+    // RedisStreamService는 chat.bus.type=in-process면 없음
+    public StreamReplayInterceptor(ObjectProvider<RedisStreamService> redisStreamService,
+                                   @Lazy @Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel,
+                                   @Lazy @Qualifier("brokerMessageConverter") MessageConverter brokerMessageConverter,
+                                   @Value("${chat.redis.stream.max-replay:1000}") int maxReplay) {
+        this.redisStreamService = redisStreamService;
+        this.clientOutboundChannel = clientOutboundChannel;
+        this.brokerMessageConverter = brokerMessageConverter;
+        this.maxReplay = maxReplay;
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        if(ex != null || !(handler instanceof AbstractBrokerMessageHandler)) {
+            return;
+        }
+        RedisStreamService redisStreamService = this.redisStreamService.getIfAvailable();
+        if(redisStreamService == null || !redisStreamService.isEnabled()) {
+            return;
+        }
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+        if(StompCommand.SUBSCRIBE != accessor.getCommand()) {
+            return;
+        }
+        String lastSeenId = accessor.getFirstNativeHeader(LAST_SEEN_ID_HEADER);
+        Long roomId = RoomSubscriptionTracker.roomIdOf(accessor.getDestination());
+        if(lastSeenId == null || roomId == null) {
+            return;
+        }
+
+        RedisStreamService.Replay replay = redisStreamService.readAfter(roomId, lastSeenId, maxReplay);
+        if(replay.gap()) {
+            SimpMessageHeaderAccessor headers = replyHeaders(accessor);
+            headers.setNativeHeader(GAP_HEADER, "reset");
+            send(Map.of("gap", true, "reset", true), headers);
+            return;
+        }
+        for (ChatMessageDto chatMessageDto : replay.messages()) {
+            send(chatMessageDto.toSubscriberPayload(), replyHeaders(accessor));
+        }
+    }
+
+    // SUBSCRIBE한 session/구독에만 보내는 MESSAGE header
+    private static SimpMessageHeaderAccessor replyHeaders(StompHeaderAccessor subscribe) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(subscribe.getSessionId());
+        headers.setSubscriptionId(subscribe.getSubscriptionId());
+        headers.setDestination(subscribe.getDestination());
+        headers.setLeaveMutable(true);
+        return headers;
+    }
+
+    private void send(Object payload, SimpMessageHeaderAccessor headers) {
+        Message<?> message = brokerMessageConverter.toMessage(payload, headers.getMessageHeaders());
+        if(message != null) {
+            clientOutboundChannel.send(message);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.chatserver.chat.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatContextCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// tomcat websocket container 설정 (SockJS websocket transport, /ws 공통)
+// ServletServerContainerFactoryBean은 실제 container가 없는 테스트(mock servlet) 환경에서 실패하므로 tomcat context 초기화 파라미터로 설정
+@Configuration
+public class WebSocketContainerConfig {
+
+    @Bean
+    public TomcatContextCustomizer webSocketBufferSizeCustomizer(@Value("${chat.websocket.text-buffer-size:8192}") int textBufferSize,
+                                                                 @Value("${chat.websocket.binary-buffer-size:8192}") int binaryBufferSize) {
+        // 한 websocket 메시지를 받을 수 있는 최대 크기 (tomcat 기본값 8KB)
+        return context -> {
+            context.addParameter("org.apache.tomcat.websocket.textBufferSize", String.valueOf(textBufferSize));
+            context.addParameter("org.apache.tomcat.websocket.binaryBufferSize", String.valueOf(binaryBufferSize));
+        };
+    }
+}
@@ -1,8 +1,10 @@
 package com.example.chatserver.chat.controller;
 
 import com.example.chatserver.chat.domain.ChatRoom;
+import com.example.chatserver.chat.dto.ChatHistoryPageResDto;
 import com.example.chatserver.chat.dto.ChatMessageDto;
 import com.example.chatserver.chat.dto.ChatRoomListResDto;
+import com.example.chatserver.chat.dto.InboxResDto;
 import com.example.chatserver.chat.dto.MyChatListResDto;
 import com.example.chatserver.chat.service.ChatService;
 import lombok.RequiredArgsConstructor;
@@ -48,11 +50,22 @@ public class ChatController {
         return new ResponseEntity<>(chatMessageDtos, HttpStatus.OK);
     }
 
+    // 이전 메시지 페이지 조회 (message id 기준 cursor)
+    @GetMapping("/history/{roomId}/page")
+    public ResponseEntity<?> getChatHistoryPage(@PathVariable Long roomId,
+                                                @RequestParam(required = false) Long before,
+                                                @RequestParam(required = false) Long after,
+                                                @RequestParam(defaultValue = "50") int size) {
+        ChatHistoryPageResDto chatHistoryPageResDto = chatService.getChatHistoryPage(roomId, before, after, size);
+        return new ResponseEntity<>(chatHistoryPageResDto, HttpStatus.OK);
+    }
+
     // 채팅메시지 읽음처리
     // 프론트가 더 중요함. (나갈 때 읽음처리)
     @PostMapping("/room/{roomId}/read")
-    public ResponseEntity<?> messageRead(@PathVariable Long roomId) {
-        chatService.messageRead(roomId);
+    // upTo : 해당 message id까지만 읽음처리 (없으면 마지막 메시지까지)
+    public ResponseEntity<?> messageRead(@PathVariable Long roomId, @RequestParam(required = false) Long upTo) {
+        chatService.messageRead(roomId, upTo);
         return ResponseEntity.ok().build();
     }
 
@@ -63,6 +76,21 @@ public class ChatController {
         return new ResponseEntity<>(myChatListResDtos,HttpStatus.OK);
     }
 
+    // 최근 활동 순 내 채팅방 목록 (마지막 메시지 미리보기, cursor 페이지)
+    @GetMapping("/my/inbox")
+    public ResponseEntity<?> getInbox(@RequestParam(required = false) String cursor,
+                                      @RequestParam(defaultValue = "20") int size) {
+        InboxResDto inboxResDto = chatService.getInbox(cursor, size);
+        return new ResponseEntity<>(inboxResDto, HttpStatus.OK);
+    }
+
+    // 채팅방 접속자 수
+    @GetMapping("/room/{roomId}/online")
+    public ResponseEntity<?> getOnlineCount(@PathVariable Long roomId) {
+        long onlineCount = chatService.getOnlineCount(roomId);
+        return new ResponseEntity<>(onlineCount, HttpStatus.OK);
+    }
+
     // 채팅창 나가기
     @DeleteMapping("/room/group/{roomId}/leave")
     public ResponseEntity<?> leaveGroupChatRoom(@PathVariable Long roomId) {
@@ -1,26 +1,33 @@
 package com.example.chatserver.chat.controller;
 
+import com.example.chatserver.chat.bus.ChatMessageBus;
 import com.example.chatserver.chat.dto.ChatMessageDto;
-import com.example.chatserver.chat.service.ChatService;
-import com.example.chatserver.chat.service.RedisPubSubService;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.chatserver.chat.dto.ChatMessageErrorDto;
+import com.example.chatserver.chat.service.ChatMessageWriter;
+import com.example.chatserver.chat.service.RoomMessageActors;
+import com.example.chatserver.common.auth.MemberPrincipal;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.simp.SimpMessageSendingOperations;
 import org.springframework.stereotype.Controller;
 
+import java.security.Principal;
+
 @Controller
+@Slf4j
 public class StompController {
 
     private final SimpMessageSendingOperations messageTemplate;
-    private final ChatService chatService;
-    private final RedisPubSubService redisPubSubService;
+    private final ChatMessageWriter chatMessageWriter;
+    private final ChatMessageBus chatMessageBus;
+    private final RoomMessageActors roomMessageActors;
 
-    public StompController(SimpMessageSendingOperations messageTemplate, ChatService chatService, RedisPubSubService redisPubSubService) {
+    public StompController(SimpMessageSendingOperations messageTemplate, ChatMessageWriter chatMessageWriter, ChatMessageBus chatMessageBus, RoomMessageActors roomMessageActors) {
         this.messageTemplate = messageTemplate;
-        this.chatService = chatService;
-        this.redisPubSubService = redisPubSubService;
+        this.chatMessageWriter = chatMessageWriter;
+        this.chatMessageBus = chatMessageBus;
+        this.roomMessageActors = roomMessageActors;
     }
     //방법1 : MessageMapping(수신)과 SendTo(topic에 메시지 전달) 한꺼번에 처리
 
@@ -34,18 +41,47 @@ public class StompController {
 
     // 방법2 : MessageMapping어노테이션만 활용.
     @MessageMapping("/{roomId}")
-    public void sendMessage(@DestinationVariable Long roomId, ChatMessageDto chatMessageDto) throws JsonProcessingException {
-        System.out.println(chatMessageDto.getMessage());
-        chatService.saveMessage(roomId, chatMessageDto);
+    // principal : connect시 StompHandler에서 검증하고 세션에 저장한 사용자
+    public void sendMessage(@DestinationVariable Long roomId, ChatMessageDto chatMessageDto, Principal principal) {
+        // 보낸 사람은 클라이언트가 보낸 senderEmail이 아니라 인증된 세션 기준
+        MemberPrincipal sender = (MemberPrincipal) principal;
+        chatMessageDto.setSentAt(System.currentTimeMillis());
+        chatMessageDto.setSenderId(sender.getMemberId());
+        chatMessageDto.setSenderEmail(sender.getEmail());
+        chatMessageDto.setRoomId(roomId);
+        // chat.message.execution=room-actor : room을 맡은 worker가 순번 부여 -> 저장 -> 발행을 room별로 순서대로 처리
+        if(roomMessageActors.isEnabled()) {
+            roomMessageActors.submit(chatMessageDto).whenComplete((ignored, e) -> {
+                if(e != null) {
+                    publishFailed(sender, chatMessageDto, e);
+                }
+            });
+            return;
+        }
+
+        // chat.message.durability 설정에 따라 바로 저장하거나 write-behind 큐에 넣음
+        chatMessageWriter.write(chatMessageDto);
 //        messageTemplate.convertAndSend("/topic/"+roomId, chatMessageDto);  //@SendTo와 같다 //redis 사용으로 인한 주석처리
 
         //-------------
-        //redis pub&sub 이용을 위한 코드 추가
-        chatMessageDto.setRoomId(roomId);
-        ObjectMapper objectMapper = new ObjectMapper();
-        String message = objectMapper.writeValueAsString(chatMessageDto);
+        //redis pub&sub 이용을 위한 코드 추가 (직렬화는 ChatMessageCodecs)
+        // chat.bus.type 설정에 따라 redis를 거치거나(기본) 같은 프로세스 안에서 전달
+        // 발행이 실패하면 (pipelined 모드에서는 redis 응답 이후) 보낸 사람에게만 /user/queue/errors로 알림
+        chatMessageBus.publish(roomId, chatMessageDto).whenComplete((ignored, e) -> {
+            if(e != null) {
+                publishFailed(sender, chatMessageDto, e);
+            }
+        });
+    }
 
-        redisPubSubService.publish("chat",message);
+    private void publishFailed(MemberPrincipal sender, ChatMessageDto chatMessageDto, Throwable e) {
+        log.warn("메시지 전달 실패 roomId : {}, sender : {}", chatMessageDto.getRoomId(), sender.getMemberId(), e);
+        ChatMessageErrorDto chatMessageErrorDto = ChatMessageErrorDto.builder()
+                .roomId(chatMessageDto.getRoomId())
+                .sentAt(chatMessageDto.getSentAt())
+                .reason("메시지를 전달하지 못했습니다.")
+                .build();
+        messageTemplate.convertAndSendToUser(sender.getName(), "/queue/errors", chatMessageErrorDto);
     }
 
 }
@@ -12,13 +12,24 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+// 방별 메시지 조회/안읽은 메시지 count를 id 기준으로 하기 위한 인덱스
+// room 순번은 room 안에서 겹치지 않도록 unique (마지막 순번 조회도 이 인덱스를 씀, 순번이 없는(null) 메시지는 제약 없음)
+@Table(indexes = @Index(name = "idx_chat_message_room_id", columnList = "chat_room_id, id"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_chat_message_room_seq", columnNames = {"chat_room_id", "room_seq"}))
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 @Getter
 public class ChatMessage extends BaseTimeEntity {
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // IDENTITY는 insert 시점에 id를 받아와야 해서 hibernate가 jdbc batch insert를 하지 못함
+    // table generator로 id를 미리 할당(allocationSize 단위)받아 batch insert가 가능하도록 함
+    // 노드마다 블록을 따로 받고 커밋 순서도 제각각이므로 id는 식별자일 뿐 보낸 순서가 아님 (room 안의 순서는 roomSeq)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "chat_message_id")
+    @TableGenerator(name = "chat_message_id", table = "chat_message_seq", pkColumnName = "seq_name",
+            valueColumnName = "next_val", pkColumnValue = "chat_message", allocationSize = ChatMessage.ID_ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -32,6 +43,9 @@ public class ChatMessage extends BaseTimeEntity {
     @Column(nullable = false, length = 500)
     private String content;
 
+    // room 안에서의 순번 (chat.message.execution=room-actor 일 때 RoomSeqAllocator에서 예약해서 부여, 그 외 메시지는 null)
+    private Long roomSeq;
+
     @OneToMany(mappedBy = "chatMessage", cascade = CascadeType.REMOVE, orphanRemoval = true)
     private List<ReadStatus> readStatuses = new ArrayList<>();
 }
@@ -25,4 +25,16 @@ public class ChatParticipant extends BaseTimeEntity {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "member_id", nullable = false)
     private Member member;
+
+    // 마지막으로 읽은 메시지 id (read cursor). 이 id보다 큰 메시지가 안읽은 메시지
+    @Column(nullable = false)
+    @Builder.Default
+    private Long lastReadMessageId = 0L;
+
+    // cursor는 앞으로만 이동
+    public void updateLastReadMessageId(Long messageId) {
+        if(messageId != null && messageId > this.lastReadMessageId) {
+            this.lastReadMessageId = messageId;
+        }
+    }
 }
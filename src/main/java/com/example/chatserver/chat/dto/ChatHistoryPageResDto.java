@@ -0,0 +1,22 @@
+package com.example.chatserver.chat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChatHistoryPageResDto {
+    // 오래된 메시지 -> 최신 메시지 순
+    private List<ChatMessageDto> messages;
+    // 더 이전 메시지 조회시 before로 사용
+    private Long oldestMessageId;
+    // 이후 메시지 조회시 after로 사용
+    private Long newestMessageId;
+    private boolean hasMore;
+}
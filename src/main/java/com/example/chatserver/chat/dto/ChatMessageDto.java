@@ -1,5 +1,6 @@
 package com.example.chatserver.chat.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -8,10 +9,30 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class ChatMessageDto {
 
     private Long roomId;
+    private Long messageId;
     private String message;
     private String senderEmail;
+    private Long senderId;
+    // STOMP SEND를 처음 받은 노드의 수신 시각(epoch millis). 수신 노드에서 전달 지연 측정에 사용
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long sentAt;
+    // redis streams 모드에서 room stream의 entry id. 재접속시 last-seen-id로 보내면 그 이후 메시지를 다시 받음
+    private String streamId;
+    // 메시지를 처음 받은 노드의 NodeId. 그 노드는 로컬 구독자에게 바로 전달했으므로 redis에서 돌아온 자기 메시지는 버림
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String originNodeId;
+    // room 안에서 1씩 증가하는 순번 (room-actor 모드), 클라이언트는 이 값으로 정렬/누락 확인
+    private Long roomSeq;
+
+    // 구독자(/topic)에게 보내는 payload. 노드간 전달에만 쓰는 sentAt, originNodeId는 빼고 보냄
+    public ChatMessageDto toSubscriberPayload() {
+        return toBuilder()
+                .sentAt(null)
+                .originNodeId(null)
+                .build();
+    }
 }
@@ -0,0 +1,18 @@
+package com.example.chatserver.chat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// /user/queue/errors 로 보낸 사람에게만 전달되는 메시지 전송 실패
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatMessageErrorDto {
+    private Long roomId;
+    // 실패한 메시지의 보낸 시각 (클라이언트가 어떤 메시지인지 구분)
+    private Long sentAt;
+    private String reason;
+}
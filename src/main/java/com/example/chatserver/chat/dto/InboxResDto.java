@@ -0,0 +1,20 @@
+package com.example.chatserver.chat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InboxResDto {
+    // 최근 활동 순
+    private List<InboxRoomResDto> rooms;
+    // 다음 페이지 조회시 cursor로 사용
+    private String nextCursor;
+    private boolean hasMore;
+}
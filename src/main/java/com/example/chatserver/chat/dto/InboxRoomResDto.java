@@ -0,0 +1,23 @@
+package com.example.chatserver.chat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InboxRoomResDto {
+    private Long roomId;
+    private String roomName;
+    private String isGroupChat;
+    private Long lastMessageId;
+    // 마지막 메시지 미리보기 (chat.inbox.preview-length 까지만)
+    private String lastMessage;
+    private String lastSenderEmail;
+    // 마지막 활동 시각 (epoch millis)
+    private Long lastActivityAt;
+    private Long unReadCount;
+}
@@ -0,0 +1,19 @@
+package com.example.chatserver.chat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// /topic/{roomId}/presence 로 전달되는 접속 상태 변경
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresenceEventDto {
+    private Long roomId;
+    private Long memberId;
+    private boolean online;
+    // 변경 이후 room의 접속자 수 (클러스터 전체)
+    private Long onlineCount;
+}
@@ -0,0 +1,19 @@
+package com.example.chatserver.chat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// /topic/{roomId}/read 로 전달되는 읽음 알림
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReadReceiptDto {
+    private Long roomId;
+    private Long memberId;
+    private String email;
+    // 이 id까지 읽음
+    private Long lastReadMessageId;
+}
@@ -1,13 +1,57 @@
 package com.example.chatserver.chat.repository;
 
 import com.example.chatserver.chat.domain.ChatMessage;
-import com.example.chatserver.chat.domain.ChatRoom;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ChatMessageRepository extends JpaRepository<ChatMessage,Long> {
-    List<ChatMessage> findByChatRoomOrderByCreatedTimeAsc(ChatRoom chatRoom);
+
+    @Query("SELECT MAX(m.id) FROM ChatMessage m WHERE m.chatRoom.id = :roomId")
+    Optional<Long> findLastMessageId(@Param("roomId") Long roomId);
+
+    @Query("SELECT MAX(m.roomSeq) FROM ChatMessage m WHERE m.chatRoom.id = :roomId")
+    Optional<Long> findLastRoomSeq(@Param("roomId") Long roomId);
+
+    // cursor 이후에 다른 사람이 보낸 메시지 수
+    @Query("SELECT COUNT(m) FROM ChatMessage m WHERE m.chatRoom.id = :roomId AND m.id > :lastReadMessageId AND m.member.id <> :memberId")
+    long countUnread(@Param("roomId") Long roomId, @Param("memberId") Long memberId, @Param("lastReadMessageId") Long lastReadMessageId);
+
+    // 이전 메시지 조회 : (chat_room_id, id) 인덱스를 타는 keyset 조회, 보낸사람 email은 join으로 같이 가져옴
+    @Query("SELECT m.id AS id, m.content AS content, s.email AS senderEmail FROM ChatMessage m JOIN m.member s " +
+            "WHERE m.chatRoom.id = :roomId ORDER BY m.id DESC")
+    List<ChatMessageView> findLatest(@Param("roomId") Long roomId, Pageable pageable);
+
+    @Query("SELECT m.id AS id, m.content AS content, s.email AS senderEmail FROM ChatMessage m JOIN m.member s " +
+            "WHERE m.chatRoom.id = :roomId AND m.id < :beforeId ORDER BY m.id DESC")
+    List<ChatMessageView> findBefore(@Param("roomId") Long roomId, @Param("beforeId") Long beforeId, Pageable pageable);
+
+    @Query("SELECT m.id AS id, m.content AS content, s.email AS senderEmail FROM ChatMessage m JOIN m.member s " +
+            "WHERE m.chatRoom.id = :roomId AND m.id > :afterId ORDER BY m.id ASC")
+    List<ChatMessageView> findAfter(@Param("roomId") Long roomId, @Param("afterId") Long afterId, Pageable pageable);
+
+    // inbox 마지막 메시지 미리보기
+    @Query("SELECT m.id AS id, m.content AS content, s.email AS senderEmail, m.createdTime AS createdTime FROM ChatMessage m JOIN m.member s WHERE m.id IN :ids")
+    List<ChatMessagePreview> findPreviews(@Param("ids") Collection<Long> ids);
+
+    interface ChatMessageView {
+        Long getId();
+        String getContent();
+        String getSenderEmail();
+    }
+
+    interface ChatMessagePreview {
+        Long getId();
+        String getContent();
+        String getSenderEmail();
+        LocalDateTime getCreatedTime();
+    }
 }
@@ -5,9 +5,11 @@ import com.example.chatserver.chat.domain.ChatRoom;
 import com.example.chatserver.member.domain.Member;
 import io.lettuce.core.dynamic.annotation.Param;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,8 +19,71 @@ public interface ChatParticipantRepository extends JpaRepository<ChatParticipant
 
     Optional<ChatParticipant> findByChatRoomAndMember(ChatRoom chatRoom, Member member);
 
-    List<ChatParticipant> findAllByMember(Member member);
+    boolean existsByChatRoomIdAndMemberEmail(Long roomId, String email);
+
+    @Query("SELECT cp.member.id FROM ChatParticipant cp WHERE cp.chatRoom.id = :roomId")
+    List<Long> findMemberIdsByRoomId(@Param("roomId") Long roomId);
 
     @Query("SELECT cp1.chatRoom FROM ChatParticipant cp1 JOIN ChatParticipant cp2 ON cp1.chatRoom.id = cp2.chatRoom.id WHERE cp1.member.id = :myId AND cp2.member.id = :otherMemberId AND cp1.chatRoom.isGroupChat = 'N'")
     Optional<ChatRoom> findExistingPrivateRoom(@Param("myId") Long myId, @Param("otherMemberId") Long otherMemberId);
+
+    // 내 채팅방 목록 : 참여자와 채팅방을 한번에 조회
+    @Query("SELECT r.id AS roomId, r.name AS roomName, r.isGroupChat AS isGroupChat FROM ChatParticipant cp JOIN cp.chatRoom r WHERE cp.member.id = :memberId")
+    List<MyChatRoomView> findMyChatRooms(@Param("memberId") Long memberId);
+
+    // 안읽은 메시지 수 (read cursor 이후에 다른 사람이 보낸 메시지 수) : 캐시가 없을 때와 정합성 맞추기(reconcile)에 사용
+    @Query("SELECT cp.member.id AS memberId, cp.chatRoom.id AS roomId, COUNT(m.id) AS unreadCount FROM ChatParticipant cp " +
+            "LEFT JOIN ChatMessage m ON m.chatRoom.id = cp.chatRoom.id AND m.id > cp.lastReadMessageId AND m.member.id <> cp.member.id " +
+            "WHERE cp.member.id = :memberId GROUP BY cp.id, cp.member.id, cp.chatRoom.id")
+    List<UnreadCountView> countUnreadByMemberId(@Param("memberId") Long memberId);
+
+    @Query("SELECT cp.member.id AS memberId, cp.chatRoom.id AS roomId, COUNT(m.id) AS unreadCount FROM ChatParticipant cp " +
+            "LEFT JOIN ChatMessage m ON m.chatRoom.id = cp.chatRoom.id AND m.id > cp.lastReadMessageId AND m.member.id <> cp.member.id " +
+            "WHERE cp.id > :fromId AND cp.id <= :toId GROUP BY cp.id, cp.member.id, cp.chatRoom.id")
+    List<UnreadCountView> countUnreadInIdRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    // reconcile 대상 member : DB 계산 전에 redis 값을 먼저 읽어두기 위해 사용
+    @Query("SELECT DISTINCT cp.member.id FROM ChatParticipant cp WHERE cp.id > :fromId AND cp.id <= :toId")
+    List<Long> findMemberIdsInIdRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    // inbox가 redis에 없을 때 다시 채우기 위한 조회 : 채팅방별 마지막 메시지 id
+    @Query("SELECT r.id AS roomId, r.name AS roomName, r.isGroupChat AS isGroupChat, r.createdTime AS createdTime, MAX(m.id) AS lastMessageId " +
+            "FROM ChatParticipant cp JOIN cp.chatRoom r LEFT JOIN ChatMessage m ON m.chatRoom.id = r.id " +
+            "WHERE cp.member.id = :memberId GROUP BY r.id, r.name, r.isGroupChat, r.createdTime")
+    List<InboxRoomView> findInboxRooms(@Param("memberId") Long memberId);
+
+    @Query("SELECT COALESCE(MAX(cp.id), 0) FROM ChatParticipant cp")
+    Long findMaxId();
+
+    // read cursor는 앞으로만 이동
+    @Modifying
+    @Query("UPDATE ChatParticipant cp SET cp.lastReadMessageId = :lastReadMessageId WHERE cp.chatRoom.id = :roomId AND cp.member.id = :memberId AND cp.lastReadMessageId < :lastReadMessageId")
+    int advanceReadCursor(@Param("roomId") Long roomId, @Param("memberId") Long memberId, @Param("lastReadMessageId") Long lastReadMessageId);
+
+    // read status migration : ReadStatus가 하나도 없는 참여자(메시지가 모두 참여 전에 보내진 경우)는 room의 마지막 메시지까지 읽은 것으로 봄
+    @Modifying
+    @Query("UPDATE ChatParticipant cp SET cp.lastReadMessageId = (SELECT COALESCE(MAX(m.id), 0) FROM ChatMessage m WHERE m.chatRoom.id = cp.chatRoom.id) " +
+            "WHERE cp.chatRoom.id > :fromRoomId AND cp.chatRoom.id <= :toRoomId AND cp.lastReadMessageId = 0 " +
+            "AND NOT EXISTS (SELECT rs.id FROM ReadStatus rs WHERE rs.chatRoom.id = cp.chatRoom.id AND rs.member.id = cp.member.id)")
+    int moveCursorToLastMessageWithoutReadStatus(@Param("fromRoomId") Long fromRoomId, @Param("toRoomId") Long toRoomId);
+
+    interface MyChatRoomView {
+        Long getRoomId();
+        String getRoomName();
+        String getIsGroupChat();
+    }
+
+    interface InboxRoomView {
+        Long getRoomId();
+        String getRoomName();
+        String getIsGroupChat();
+        LocalDateTime getCreatedTime();
+        Long getLastMessageId();
+    }
+
+    interface UnreadCountView {
+        Long getMemberId();
+        Long getRoomId();
+        Long getUnreadCount();
+    }
 }
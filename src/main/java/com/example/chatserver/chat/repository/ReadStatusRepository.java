@@ -1,16 +1,35 @@
 package com.example.chatserver.chat.repository;
 
-import com.example.chatserver.chat.domain.ChatRoom;
 import com.example.chatserver.chat.domain.ReadStatus;
-import com.example.chatserver.member.domain.Member;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
+// 메시지별 읽음여부(ReadStatus)는 read cursor(ChatParticipant.lastReadMessageId)로 대체됨
+// 기존 데이터를 cursor로 옮기는 migration에서만 사용
 @Repository
 public interface ReadStatusRepository extends JpaRepository<ReadStatus,Long> {
-    List<ReadStatus> findByChatRoomAndMember(ChatRoom chatRoom, Member member);
 
-    Long countByChatRoomAndMemberAndIsReadFalse(ChatRoom chatRoom, Member member);
+    // 참여자별로 처음 안읽은 메시지 바로 앞의 id, 모두 읽었다면 마지막 메시지 id를 cursor로 계산
+    @Query("SELECT rs.chatRoom.id AS roomId, rs.member.id AS memberId, " +
+            "COALESCE(MIN(CASE WHEN rs.isRead = false THEN rs.chatMessage.id END) - 1, MAX(rs.chatMessage.id)) AS lastReadMessageId " +
+            "FROM ReadStatus rs WHERE rs.chatRoom.id > :fromRoomId AND rs.chatRoom.id <= :toRoomId GROUP BY rs.chatRoom.id, rs.member.id")
+    List<ReadCursor> findReadCursors(@Param("fromRoomId") Long fromRoomId, @Param("toRoomId") Long toRoomId);
+
+    @Query("SELECT COALESCE(MAX(rs.chatRoom.id), 0) FROM ReadStatus rs")
+    Long findMaxRoomId();
+
+    @Modifying
+    @Query("DELETE FROM ReadStatus rs WHERE rs.chatRoom.id > :fromRoomId AND rs.chatRoom.id <= :toRoomId")
+    int deleteByRoomIdRange(@Param("fromRoomId") Long fromRoomId, @Param("toRoomId") Long toRoomId);
+
+    interface ReadCursor {
+        Long getRoomId();
+        Long getMemberId();
+        Long getLastReadMessageId();
+    }
 }
@@ -0,0 +1,44 @@
+package com.example.chatserver.chat.service;
+
+import com.example.chatserver.chat.domain.ChatMessage;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// ChatMessage id 전략을 IDENTITY -> TABLE로 바꾸면서, 이미 저장된 메시지 id와 겹치지 않도록 id 테이블의 시작값을 맞춰줌
+// 웹서버가 요청을 받기 전(빈 초기화 시점)에 실행
+@Component
+@Slf4j
+@DependsOn("entityManagerFactory")
+public class ChatMessageIdInitializer {
+
+    private static final String SEQ_NAME = "chat_message";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ChatMessageIdInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM chat_message", Long.class);
+            // pooled optimizer는 저장된 값 기준으로 allocationSize만큼 앞뒤로 id를 할당하므로 그만큼 여유를 둠
+            long nextVal = maxId + ChatMessage.ID_ALLOCATION_SIZE + 1;
+
+            Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM chat_message_seq WHERE seq_name = ?", Integer.class, SEQ_NAME);
+            if(rows == null || rows == 0) {
+                jdbcTemplate.update("INSERT INTO chat_message_seq (seq_name, next_val) VALUES (?, ?)", SEQ_NAME, nextVal);
+            } else {
+                jdbcTemplate.update("UPDATE chat_message_seq SET next_val = ? WHERE seq_name = ? AND next_val < ?", nextVal, SEQ_NAME, nextVal);
+            }
+        } catch (DataAccessException e) {
+            // ddl-auto를 사용하지 않는 환경에서 테이블이 아직 없는 경우
+            log.warn("chat_message_seq 초기화 실패 : {}", e.getMessage());
+        }
+    }
+}
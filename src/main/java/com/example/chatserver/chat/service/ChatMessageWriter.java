@@ -0,0 +1,208 @@
+package com.example.chatserver.chat.service;
+
+import com.example.chatserver.chat.dto.ChatMessageDto;
+import com.example.chatserver.common.concurrency.DatabaseCallLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// 채팅 메시지 write-behind 저장
+// 메시지를 bounded 큐에 모아두었다가 batchSize개가 차거나 flushInterval이 지나면 한 트랜잭션에서 batch insert
+@Component
+@Slf4j
+public class ChatMessageWriter {
+
+    private final ChatService chatService;
+    private final DatabaseCallLimiter databaseCallLimiter;
+    private final MessageDurability durability;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final long offerTimeoutMillis;
+    private final BlockingQueue<PendingMessage> queue;
+
+    private final Timer flushTimer;
+    private final DistributionSummary batchSizeSummary;
+    private final Counter failedCounter;
+    private final Counter blockedCounter;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public ChatMessageWriter(ChatService chatService,
+                             DatabaseCallLimiter databaseCallLimiter,
+                             MeterRegistry meterRegistry,
+                             @Value("${chat.message.durability:sync}") String durability,
+                             @Value("${chat.message.write-behind.capacity:10000}") int capacity,
+                             @Value("${chat.message.write-behind.batch-size:100}") int batchSize,
+                             @Value("${chat.message.write-behind.flush-interval-ms:20}") long flushIntervalMillis,
+                             @Value("${chat.message.write-behind.offer-timeout-ms:50}") long offerTimeoutMillis) {
+        this.chatService = chatService;
+        this.databaseCallLimiter = databaseCallLimiter;
+        this.durability = MessageDurability.from(durability);
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+
+        Gauge.builder("chat.message.write.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        this.flushTimer = Timer.builder("chat.message.write.flush").publishPercentileHistogram().register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("chat.message.write.batch.size").register(meterRegistry);
+        this.failedCounter = Counter.builder("chat.message.write.failed").register(meterRegistry);
+        this.blockedCounter = Counter.builder("chat.message.write.blocked").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if(durability == MessageDurability.SYNC) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::flushLoop, "chat-message-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    // 종료시 큐에 남은 메시지를 모두 저장한 뒤 끝냄
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if(flusher != null) {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        // 시간 안에 저장하지 못한 메시지는 기다리는 요청(ASYNC_ACKED)이 끝날 수 있도록 실패로 완료
+        failQueued(new IllegalStateException("서버 종료로 메시지를 저장하지 못했습니다."));
+    }
+
+    // durability 설정에 따라 저장. 반환되는 시점에 SYNC, ASYNC_ACKED는 저장이 끝난 상태
+    public void write(ChatMessageDto chatMessageDto) {
+        if(durability == MessageDurability.SYNC) {
+            databaseCallLimiter.run(() -> chatService.saveMessage(chatMessageDto.getRoomId(), chatMessageDto));
+            return;
+        }
+
+        PendingMessage pendingMessage = new PendingMessage(chatMessageDto, new CompletableFuture<>());
+        // 큐가 가득 찬 경우 자리가 날 때까지 요청 스레드를 막음 (backpressure)
+        // 요청 스레드에서 직접 저장하면 이미 큐에 있는 같은 room 메시지보다 먼저 저장되어 순서가 바뀜
+        try {
+            while (!queue.offer(pendingMessage, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                blockedCounter.increment();
+                if(!running) {
+                    throw new IllegalStateException("메시지 저장이 종료되었습니다.");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("메시지 저장 대기 중 중단되었습니다.", e);
+        }
+        // 넣는 사이 stop()이 끝났으면 flusher도 failQueued도 이 메시지를 보지 못할 수 있음
+        // 큐에서 직접 빼냈다면 아무도 처리하지 않으므로 실패, 빼내지 못했다면 flusher나 failQueued가 완료시킴
+        if(!running && queue.remove(pendingMessage)) {
+            throw new IllegalStateException("메시지 저장이 종료되었습니다.");
+        }
+
+        if(durability == MessageDurability.ASYNC_ACKED) {
+            pendingMessage.persisted().join();
+        }
+    }
+
+    private void flushLoop() {
+        List<PendingMessage> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingMessage first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if(first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // batchSize가 차거나 첫 메시지 이후 flushInterval이 지날때까지 모음
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if(batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingMessage next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if(next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+                // 모으던 batch와 큐에 남은 메시지는 저장하지 못하므로 기다리는 요청이 끝날 수 있도록 실패로 완료
+                IllegalStateException failure = new IllegalStateException("메시지 저장이 중단되었습니다.", e);
+                fail(batch, failure);
+                failQueued(failure);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingMessage> batch) {
+        batchSizeSummary.record(batch.size());
+        List<ChatMessageDto> chatMessageDtos = new ArrayList<>(batch.size());
+        for (PendingMessage pendingMessage : batch) {
+            chatMessageDtos.add(pendingMessage.chatMessageDto());
+        }
+
+        long start = System.nanoTime();
+        try {
+            chatService.saveMessages(chatMessageDtos);
+            for (PendingMessage pendingMessage : batch) {
+                pendingMessage.persisted().complete(null);
+            }
+        } catch (Exception e) {
+            // batch 중 하나라도 실패하면(ex. 없는 room) 전체가 rollback 되므로 한건씩 다시 저장해서 실패한 메시지만 골라냄
+            log.warn("batch insert 실패, 개별 저장으로 재시도 : {}", e.getMessage());
+            for (PendingMessage pendingMessage : batch) {
+                try {
+                    ChatMessageDto chatMessageDto = pendingMessage.chatMessageDto();
+                    chatService.saveMessage(chatMessageDto.getRoomId(), chatMessageDto);
+                    pendingMessage.persisted().complete(null);
+                } catch (Exception ex) {
+                    failedCounter.increment();
+                    log.error("메시지 저장 실패 roomId : {}", pendingMessage.chatMessageDto().getRoomId(), ex);
+                    pendingMessage.persisted().completeExceptionally(ex);
+                }
+            }
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void failQueued(Exception e) {
+        List<PendingMessage> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        fail(remaining, e);
+    }
+
+    private void fail(List<PendingMessage> pendingMessages, Exception e) {
+        for (PendingMessage pendingMessage : pendingMessages) {
+            if(pendingMessage.persisted().completeExceptionally(e)) {
+                failedCounter.increment();
+            }
+        }
+    }
+
+    private record PendingMessage(ChatMessageDto chatMessageDto, CompletableFuture<Void> persisted) {
+    }
+}
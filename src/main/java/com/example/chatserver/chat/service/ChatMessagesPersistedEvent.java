@@ -0,0 +1,9 @@
+package com.example.chatserver.chat.service;
+
+import com.example.chatserver.chat.dto.ChatMessageDto;
+
+import java.util.List;
+
+// 메시지 저장 트랜잭션에서 발행. messageId가 채워진 상태
+public record ChatMessagesPersistedEvent(List<ChatMessageDto> messages) {
+}
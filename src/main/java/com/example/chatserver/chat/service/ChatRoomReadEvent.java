@@ -0,0 +1,6 @@
+package com.example.chatserver.chat.service;
+
+// member가 채팅방 메시지를 읽음처리 해서 read cursor가 이동했을 때 발행
+// fullyRead : 방의 마지막 메시지까지 읽음
+public record ChatRoomReadEvent(Long roomId, Long memberId, String email, Long lastReadMessageId, boolean fullyRead) {
+}
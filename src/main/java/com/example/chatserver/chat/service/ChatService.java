@@ -3,24 +3,32 @@ package com.example.chatserver.chat.service;
 import com.example.chatserver.chat.domain.ChatMessage;
 import com.example.chatserver.chat.domain.ChatParticipant;
 import com.example.chatserver.chat.domain.ChatRoom;
-import com.example.chatserver.chat.domain.ReadStatus;
+import com.example.chatserver.chat.dto.ChatHistoryPageResDto;
 import com.example.chatserver.chat.dto.ChatMessageDto;
 import com.example.chatserver.chat.dto.ChatRoomListResDto;
+import com.example.chatserver.chat.dto.InboxResDto;
 import com.example.chatserver.chat.dto.MyChatListResDto;
 import com.example.chatserver.chat.repository.ChatMessageRepository;
 import com.example.chatserver.chat.repository.ChatParticipantRepository;
 import com.example.chatserver.chat.repository.ChatRoomRepository;
-import com.example.chatserver.chat.repository.ReadStatusRepository;
+import com.example.chatserver.common.auth.MemberPrincipal;
 import com.example.chatserver.member.domain.Member;
 import com.example.chatserver.member.repository.MemberRepository;
+import io.micrometer.core.instrument.Timer;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -30,36 +38,71 @@ public class ChatService {
     private final ChatMessageRepository chatMessageRepository;
     private final ChatParticipantRepository chatParticipantRepository;
     private final ChatRoomRepository chatRoomRepository;
-    private final ReadStatusRepository readStatusRepository;
     private final MemberRepository memberRepository;
+    private final RoomMembershipIndex roomMembershipIndex;
+    private final RecentMessageCache recentMessageCache;
+    private final UnreadCounterService unreadCounterService;
+    private final InboxService inboxService;
+    private final PresenceService presenceService;
+    private final MessagePathMetrics messagePathMetrics;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // 이전 메시지 페이지 조회시 한번에 가져올 수 있는 최대 개수
+    @Value("${chat.history.max-page-size:100}")
+    private int historyMaxPageSize;
+    // 페이지 없는 이전 메시지 조회(/chat/history/{roomId})의 최대 개수
+    @Value("${chat.history.hard-limit:1000}")
+    private int historyHardLimit;
 
     public void saveMessage(Long roomId, ChatMessageDto chatMessageDto) {
-        //채팅방 조회
-        ChatRoom chatRoom = chatRoomRepository.findById(roomId).orElseThrow(()-> new EntityNotFoundException("Room not found"));
-
-        //보낸 사람 조회
-        Member sender = memberRepository.findByEmail(chatMessageDto.getSenderEmail()).orElseThrow(()-> new EntityNotFoundException("Member not found"));
+        // 보낸 사람은 인증된 세션의 member id, 참여 여부도 StompHandler에서 확인했으므로 조회 없이 참조만 사용
+        Timer.Sample lookup = messagePathMetrics.start();
+        ChatRoom chatRoom = chatRoomRepository.getReferenceById(roomId);
+        Member sender = memberRepository.getReferenceById(chatMessageDto.getSenderId());
+        messagePathMetrics.recordSave(lookup, "lookup");
 
 
-        // 메시지 저장
+        // 메시지 저장 (insert는 커밋할 때 나가므로 여기서는 persist까지만 측정)
+        Timer.Sample insert = messagePathMetrics.start();
         ChatMessage chatMessage = ChatMessage.builder()
                 .chatRoom(chatRoom)
                 .member(sender)
                 .content(chatMessageDto.getMessage())
+                .roomSeq(chatMessageDto.getRoomSeq())
                 .build();
         chatMessageRepository.save(chatMessage);
+        messagePathMetrics.recordSave(insert, "insert");
+        chatMessageDto.setMessageId(chatMessage.getId());
+        eventPublisher.publishEvent(new ChatMessagesPersistedEvent(List.of(chatMessageDto)));
+        // 읽음여부는 참여자별 read cursor(lastReadMessageId)로 관리하므로 참여자 수만큼 저장하지 않음
+    }
 
-        // 사용자별로 읽음여부 저장
-        List<ChatParticipant> chatParticipants = chatParticipantRepository.findByChatRoom(chatRoom);
-        for (ChatParticipant chatParticipant : chatParticipants) {
-            ReadStatus readStatus = ReadStatus.builder()
+    // write-behind 큐에서 모인 메시지를 한 트랜잭션에서 batch insert
+    public void saveMessages(List<ChatMessageDto> chatMessageDtos) {
+        List<ChatMessage> chatMessages = new ArrayList<>(chatMessageDtos.size());
+        for (ChatMessageDto chatMessageDto : chatMessageDtos) {
+            ChatRoom chatRoom = chatRoomRepository.getReferenceById(chatMessageDto.getRoomId());
+            Member sender = memberRepository.getReferenceById(chatMessageDto.getSenderId());
+
+            chatMessages.add(ChatMessage.builder()
                     .chatRoom(chatRoom)
-                    .member(chatParticipant.getMember())
-                    .chatMessage(chatMessage)
-                    .isRead(chatParticipant.getMember().equals(sender))
-                    .build();
-            readStatusRepository.save(readStatus);
+                    .member(sender)
+                    .content(chatMessageDto.getMessage())
+                    .roomSeq(chatMessageDto.getRoomSeq())
+                    .build());
+        }
+        chatMessageRepository.saveAll(chatMessages);
+        // id는 insert 전에 할당되어 있음. ASYNC 모드에서는 이미 발행된 뒤일 수 있어 발행 메시지에 id가 없을 수도 있음
+        for (int i = 0; i < chatMessages.size(); i++) {
+            chatMessageDtos.get(i).setMessageId(chatMessages.get(i).getId());
         }
+        eventPublisher.publishEvent(new ChatMessagesPersistedEvent(chatMessageDtos));
+    }
+
+    // room에 저장된 마지막 순번 (순번이 있는 메시지가 없으면 0)
+    @Transactional(readOnly = true)
+    public long getLastRoomSeq(Long roomId) {
+        return chatMessageRepository.findLastRoomSeq(roomId).orElse(0L);
     }
 
     public void createGroupRoom(String roomName) {
@@ -74,12 +117,7 @@ public class ChatService {
         chatRoomRepository.save(chatRoom);
 
         //채팅참여자로 개설자를 추가
-        ChatParticipant chatParticipant = ChatParticipant.builder()
-                .chatRoom(chatRoom)
-                .member(member)
-                .build();
-
-        chatParticipantRepository.save(chatParticipant);
+        addParticipantToRoom(chatRoom, member);
     }
 
     public List<ChatRoomListResDto> getGroupChatRooms() {
@@ -116,84 +154,169 @@ public class ChatService {
     }
 
     //ChatParticipant객체생성 후 저장
+    // 참여 이전 메시지는 안읽은 메시지로 세지 않도록 read cursor를 현재 마지막 메시지로 시작
     public void addParticipantToRoom(ChatRoom chatRoom, Member member) {
         ChatParticipant chatParticipant = ChatParticipant.builder()
                 .chatRoom(chatRoom)
                 .member(member)
+                .lastReadMessageId(chatMessageRepository.findLastMessageId(chatRoom.getId()).orElse(0L))
                 .build();
         chatParticipantRepository.save(chatParticipant);
+        eventPublisher.publishEvent(new RoomMembershipChangedEvent(chatRoom.getId(), member.getId(), true));
     }
 
+    // 호환용 : 전체 이력 대신 최근 historyHardLimit개까지만 내려줌. 이전 메시지는 getChatHistoryPage로 조회
     public List<ChatMessageDto> getChatHistory(Long roomId) {
         // 내가 해당 채팅방의 참여자가 아닐 경우에 에러 발생
-        ChatRoom chatRoom = chatRoomRepository.findById(roomId).orElseThrow(() -> new EntityNotFoundException("Room not found"));
-        Member member = memberRepository.findByEmail(SecurityContextHolder.getContext().getAuthentication().getName()).orElseThrow(()-> new EntityNotFoundException("Member not found"));
-        List<ChatParticipant> chatParticipants = chatParticipantRepository.findByChatRoom(chatRoom);
-        boolean check = false;
-        for (ChatParticipant chatParticipant : chatParticipants) {
-            if(chatParticipant.getMember().equals(member)) {
-                check = true;
-            }
+        checkRoomParticipant(roomId);
+
+        // 최신 메시지는 redis 최근 메시지 캐시에서 조회 (없으면 DB)
+        int cachedLimit = Math.min(historyHardLimit, recentMessageCache.getCapacity());
+        List<ChatMessageDto> chatMessages = recentMessageCache.findLatest(roomId, cachedLimit);
+        // 캐시 크기만큼 다 찼으면 그 이전 메시지가 더 있을 수 있으므로 나머지는 DB에서 이어서 조회
+        if(!chatMessages.isEmpty() && chatMessages.size() == cachedLimit && cachedLimit < historyHardLimit) {
+            Long oldestMessageId = chatMessages.get(chatMessages.size() - 1).getMessageId();
+            List<ChatMessageDto> olderMessages = toChatMessageDtos(roomId,
+                    chatMessageRepository.findBefore(roomId, oldestMessageId, PageRequest.of(0, historyHardLimit - cachedLimit)));
+            chatMessages = new ArrayList<>(chatMessages);
+            chatMessages.addAll(olderMessages);
         }
-        if(!check) {
+        return reversed(chatMessages);
+    }
+
+    // message id 기준 keyset 페이지 조회
+    // before : 해당 id 이전(오래된) 메시지, after : 해당 id 이후 메시지, 둘다 없으면 최신 메시지
+    public ChatHistoryPageResDto getChatHistoryPage(Long roomId, Long beforeId, Long afterId, int size) {
+        if(beforeId != null && afterId != null) {
+            throw new IllegalArgumentException("before와 after는 함께 사용할 수 없습니다.");
+        }
+        checkRoomParticipant(roomId);
+
+        int pageSize = Math.max(1, Math.min(size, historyMaxPageSize));
+        // 다음 페이지가 있는지 확인하기 위해 1개 더 조회
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        List<ChatMessageDto> chatMessages;
+        if(afterId != null) {
+            chatMessages = toChatMessageDtos(roomId, chatMessageRepository.findAfter(roomId, afterId, pageable));
+        } else if(beforeId != null) {
+            chatMessages = toChatMessageDtos(roomId, chatMessageRepository.findBefore(roomId, beforeId, pageable));
+        } else {
+            // 첫 페이지는 redis 최근 메시지 캐시에서 조회
+            chatMessages = recentMessageCache.findLatest(roomId, pageSize + 1);
+        }
+
+        boolean hasMore = chatMessages.size() > pageSize;
+        if(hasMore) {
+            chatMessages = chatMessages.subList(0, pageSize);
+        }
+
+        // 항상 오래된 메시지 -> 최신 메시지 순으로 응답 (after는 이미 오름차순)
+        List<ChatMessageDto> chatMessageDtos = afterId != null ? chatMessages : reversed(chatMessages);
+
+        return ChatHistoryPageResDto.builder()
+                .messages(chatMessageDtos)
+                .oldestMessageId(chatMessageDtos.isEmpty() ? null : chatMessageDtos.get(0).getMessageId())
+                .newestMessageId(chatMessageDtos.isEmpty() ? null : chatMessageDtos.get(chatMessageDtos.size() - 1).getMessageId())
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private void checkRoomParticipant(Long roomId) {
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        if(!chatParticipantRepository.existsByChatRoomIdAndMemberEmail(roomId, email)) {
             throw new IllegalArgumentException("본인이 속하지 않은 채팅방입니다.");
         }
+    }
 
-        // 특정 room에 대한 message조회
-        List<ChatMessage> chatMessages = chatMessageRepository.findByChatRoomOrderByCreatedTimeAsc(chatRoom);
-        List<ChatMessageDto> chatMessageDtos = new ArrayList<>();
-        for (ChatMessage chatMessage : chatMessages) {
-            ChatMessageDto chatMessageDto = ChatMessageDto.builder()
+    private List<ChatMessageDto> toChatMessageDtos(Long roomId, List<ChatMessageRepository.ChatMessageView> chatMessages) {
+        List<ChatMessageDto> chatMessageDtos = new ArrayList<>(chatMessages.size());
+        for (ChatMessageRepository.ChatMessageView chatMessage : chatMessages) {
+            chatMessageDtos.add(ChatMessageDto.builder()
+                    .roomId(roomId)
+                    .messageId(chatMessage.getId())
                     .message(chatMessage.getContent())
-                    .senderEmail(chatMessage.getMember().getEmail())
-                    .build();
-            chatMessageDtos.add(chatMessageDto);
+                    .senderEmail(chatMessage.getSenderEmail())
+                    .build());
         }
-
         return chatMessageDtos;
     }
 
+    private static List<ChatMessageDto> reversed(List<ChatMessageDto> chatMessages) {
+        List<ChatMessageDto> result = new ArrayList<>(chatMessages.size());
+        for (int i = chatMessages.size() - 1; i >= 0; i--) {
+            result.add(chatMessages.get(i));
+        }
+        return result;
+    }
+
     public boolean isRoomParticipant(String email, Long roomId) {
-        ChatRoom chatRoom = chatRoomRepository.findById(roomId).orElseThrow(() -> new EntityNotFoundException("Room not found"));
-        Member member = memberRepository.findByEmail(email).orElseThrow(()-> new EntityNotFoundException("Member not found"));
+        Long memberId = memberRepository.findIdByEmail(email).orElseThrow(()-> new EntityNotFoundException("Member not found"));
+        return isRoomParticipant(memberId, roomId);
+    }
 
-        List<ChatParticipant> chatParticipants = chatParticipantRepository.findByChatRoom(chatRoom);
-        for (ChatParticipant chatParticipant : chatParticipants) {
-            if(chatParticipant.getMember().equals(member)) {
-                return true;
-            }
-        }
-        return false;
+    // 참여자 목록은 노드별 캐시에서 확인
+    public boolean isRoomParticipant(Long memberId, Long roomId) {
+        return roomMembershipIndex.isMember(roomId, memberId);
     }
 
-    public void messageRead(Long roomId) {
-        ChatRoom chatRoom = chatRoomRepository.findById(roomId).orElseThrow(() -> new EntityNotFoundException("Room not found"));
-        Member member = memberRepository.findByEmail(SecurityContextHolder.getContext().getAuthentication().getName()).orElseThrow(()-> new EntityNotFoundException("Member not found"));
-        List<ReadStatus> readStatuses = readStatusRepository.findByChatRoomAndMember(chatRoom,member);
-        for(ReadStatus readStatus : readStatuses) {
-            //@Transactional 있으면 dirty check로 update됨
-            readStatus.updateIsRead(true);
+    // upToMessageId까지 읽음처리 (없으면 방의 마지막 메시지까지)
+    // 엔티티를 읽지 않고 참여자 row의 cursor만 update 문 하나로 이동. 안읽은 메시지가 아무리 많아도 row 하나
+    public void messageRead(Long roomId, Long upToMessageId) {
+        checkRoomParticipant(roomId);
+        Long memberId = currentMemberId();
+
+        Optional<Long> lastMessageId = chatMessageRepository.findLastMessageId(roomId);
+        if(lastMessageId.isEmpty()) {
+            return;
+        }
+        long readUpTo = upToMessageId == null ? lastMessageId.get() : Math.min(upToMessageId, lastMessageId.get());
+
+        // 이미 더 뒤까지 읽은 경우는 update되지 않음 => 알림도 보내지 않음
+        if(chatParticipantRepository.advanceReadCursor(roomId, memberId, readUpTo) > 0) {
+            String email = SecurityContextHolder.getContext().getAuthentication().getName();
+            eventPublisher.publishEvent(new ChatRoomReadEvent(roomId, memberId, email, readUpTo, readUpTo == lastMessageId.get()));
         }
     }
 
+    // 채팅방 목록 쿼리 1번 + 안읽은 메시지 수는 redis hash 1번 조회
     public List<MyChatListResDto> getMyChatRooms() {
-        Member member = memberRepository.findByEmail(SecurityContextHolder.getContext().getAuthentication().getName()).orElseThrow(()-> new EntityNotFoundException("Member not found"));
-        List<ChatParticipant> chatParticipants = chatParticipantRepository.findAllByMember(member);
+        Long memberId = currentMemberId();
+        List<ChatParticipantRepository.MyChatRoomView> chatRooms = chatParticipantRepository.findMyChatRooms(memberId);
+        Map<Long, Long> unreadCounts = unreadCounterService.getUnreadCounts(memberId);
 
-        List<MyChatListResDto> chatListResDtos = new ArrayList<>();
-        for (ChatParticipant c : chatParticipants) {
-            Long count = readStatusRepository.countByChatRoomAndMemberAndIsReadFalse(c.getChatRoom(), member);
+        List<MyChatListResDto> chatListResDtos = new ArrayList<>(chatRooms.size());
+        for (ChatParticipantRepository.MyChatRoomView c : chatRooms) {
             MyChatListResDto dto = MyChatListResDto.builder()
-                    .roomId(c.getChatRoom().getId())
-                    .roomName(c.getChatRoom().getName())
-                    .isGroupChat(c.getChatRoom().getIsGroupChat())
-                    .unReadCount(count)
+                    .roomId(c.getRoomId())
+                    .roomName(c.getRoomName())
+                    .isGroupChat(c.getIsGroupChat())
+                    .unReadCount(unreadCounts.getOrDefault(c.getRoomId(), 0L))
                     .build();
             chatListResDtos.add(dto);
         }
         return chatListResDtos;
     }
 
+    // 클러스터 전체에서 채팅방에 접속중인 인원 수
+    public long getOnlineCount(Long roomId) {
+        checkRoomParticipant(roomId);
+        return presenceService.onlineCount(roomId);
+    }
+
+    // 최근 활동 순 채팅방 목록 (cursor 페이지). redis inbox에서 조회
+    public InboxResDto getInbox(String cursor, int size) {
+        return inboxService.getInbox(currentMemberId(), cursor, size);
+    }
+
+    // 토큰에 memberId가 있으면 그대로 사용 (JwtAuthFilter에서 details로 저장), 없으면 email로 조회
+    private Long currentMemberId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if(authentication.getDetails() instanceof MemberPrincipal principal) {
+            return principal.getMemberId();
+        }
+        return memberRepository.findIdByEmail(authentication.getName()).orElseThrow(()-> new EntityNotFoundException("Member not found"));
+    }
+
     // 참여자 객체만 삭제
     // 모두가 나간 경우는 모든 엔티티 삭제
     public void leaveGroupChatRoom(Long roomId) {
@@ -206,6 +329,7 @@ public class ChatService {
 
         ChatParticipant chatParticipant = chatParticipantRepository.findByChatRoomAndMember(chatRoom, member).orElseThrow(() -> new EntityNotFoundException("Member not found"));
         chatParticipantRepository.delete(chatParticipant);
+        eventPublisher.publishEvent(new RoomMembershipChangedEvent(chatRoom.getId(), member.getId(), false));
 
         List<ChatParticipant> chatParticipants = chatParticipantRepository.findByChatRoom(chatRoom);
         if(chatParticipants.isEmpty()) {
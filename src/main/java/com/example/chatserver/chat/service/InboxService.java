@@ -0,0 +1,479 @@
+package com.example.chatserver.chat.service;
+
+import com.example.chatserver.chat.domain.ChatRoom;
+import com.example.chatserver.chat.dto.ChatMessageDto;
+import com.example.chatserver.chat.dto.InboxResDto;
+import com.example.chatserver.chat.dto.InboxRoomResDto;
+import com.example.chatserver.chat.repository.ChatMessageRepository;
+import com.example.chatserver.chat.repository.ChatParticipantRepository;
+import com.example.chatserver.chat.repository.ChatRoomRepository;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisZSetCommands.ZAddArgs;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// member별 최근 활동 순 채팅방 목록
+// - chat:inbox:{memberId} : sorted set (member = room id, score = 마지막 활동 시각 epoch millis)
+// - chat:inbox:room:{roomId} : hash (채팅방 이름, 그룹여부, 마지막 메시지 미리보기)
+// 메시지 저장이 커밋되면 room 참여자들의 inbox score를 갱신하므로 목록 첫 페이지는 chat_participant, chat_message 조회 없이 응답
+// 갱신은 메시지 전달 경로(SEND 스레드)에서 하지 않고 inbox 전용 스레드에서 이벤트의 room들을 한 pipeline으로 처리
+// (대기열이 가득 차면 보낸 스레드에서 직접 처리 => 갱신을 버리지 않음)
+// inbox가 없는 member(처음 조회, redis 초기화)만 DB에서 다시 채움
+// score는 더 큰 값으로만 바뀌도록 ZADD GT 사용 (redis 6.2 이상)
+// chat.bus.type=in-process(redis 없음)면 조회할 때마다 DB에서 목록을 만들어 같은 순서, 같은 cursor로 응답
+@Service
+@Slf4j
+public class InboxService {
+
+    private static final String INBOX_KEY_PREFIX = "chat:inbox:";
+    private static final String ROOM_KEY_PREFIX = "chat:inbox:room:";
+    private static final String NAME = "name";
+    private static final String GROUP = "group";
+    private static final String LAST_MESSAGE_ID = "lastMessageId";
+    private static final String LAST_MESSAGE = "lastMessage";
+    private static final String LAST_SENDER = "lastSender";
+    private static final String LAST_ACTIVITY_AT = "lastActivityAt";
+
+    // ARGV : message id, 미리보기, 보낸사람, 시각. 여러 노드에서 동시에 갱신해도 id가 가장 큰 메시지가 남음
+    private static final RedisScript<Long> UPDATE_PREVIEW = new DefaultRedisScript<>(
+            "local current = tonumber(redis.call('HGET', KEYS[1], 'lastMessageId') or '0') " +
+            "if current >= tonumber(ARGV[1]) then return 0 end " +
+            "redis.call('HSET', KEYS[1], 'lastMessageId', ARGV[1], 'lastMessage', ARGV[2], 'lastSender', ARGV[3], 'lastActivityAt', ARGV[4]) " +
+            "return 1", Long.class);
+
+    // KEYS : 참여자 inbox, ARGV : score, room id
+    // inbox가 없는 member는 조회할 때 DB에서 채우므로 여기서 만들지 않음 (일부만 들어있는 inbox가 생기지 않도록)
+    private static final RedisScript<Long> TOUCH_INBOXES = new DefaultRedisScript<>(
+            "local touched = 0 " +
+            "for _, key in ipairs(KEYS) do " +
+            "  if redis.call('EXISTS', key) == 1 then redis.call('ZADD', key, 'GT', ARGV[1], ARGV[2]) touched = touched + 1 end " +
+            "end " +
+            "return touched", Long.class);
+
+    // chat.bus.type=in-process면 redis 연결이 없으므로 null
+    private final RedisTemplate<String, byte[]> chatPubSubTemplate;
+    private final ChatParticipantRepository chatParticipantRepository;
+    private final ChatMessageRepository chatMessageRepository;
+    private final ChatRoomRepository chatRoomRepository;
+    private final RoomMembershipIndex roomMembershipIndex;
+    private final UnreadCounterService unreadCounterService;
+    private final MessagePathMetrics messagePathMetrics;
+    private final int previewLength;
+    private final int maxPageSize;
+    private final ExecutorService updater;
+
+    public InboxService(@Qualifier("chatPubSub") ObjectProvider<RedisTemplate<String, byte[]>> chatPubSubTemplate,
+                        ChatParticipantRepository chatParticipantRepository,
+                        ChatMessageRepository chatMessageRepository,
+                        ChatRoomRepository chatRoomRepository,
+                        RoomMembershipIndex roomMembershipIndex,
+                        UnreadCounterService unreadCounterService,
+                        MessagePathMetrics messagePathMetrics,
+                        @Value("${chat.inbox.preview-length:100}") int previewLength,
+                        @Value("${chat.inbox.max-page-size:100}") int maxPageSize,
+                        @Value("${chat.inbox.update-queue-capacity:10000}") int updateQueueCapacity) {
+        this.chatPubSubTemplate = chatPubSubTemplate.getIfAvailable();
+        this.chatParticipantRepository = chatParticipantRepository;
+        this.chatMessageRepository = chatMessageRepository;
+        this.chatRoomRepository = chatRoomRepository;
+        this.roomMembershipIndex = roomMembershipIndex;
+        this.unreadCounterService = unreadCounterService;
+        this.messagePathMetrics = messagePathMetrics;
+        this.previewLength = previewLength;
+        this.maxPageSize = maxPageSize;
+        this.updater = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(updateQueueCapacity), r -> {
+            Thread thread = new Thread(r, "chat-inbox-updater");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        updater.shutdown();
+        updater.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    // cursor : 이전 페이지 마지막 채팅방의 "{score}:{roomId}", 없으면 첫 페이지
+    public InboxResDto getInbox(Long memberId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        if(chatPubSubTemplate == null) {
+            return getInboxFromDatabase(memberId, cursor, pageSize);
+        }
+        String key = INBOX_KEY_PREFIX + memberId;
+        if(!Boolean.TRUE.equals(chatPubSubTemplate.hasKey(key))) {
+            rebuild(memberId);
+        }
+
+        List<TypedTuple<byte[]>> entries = readPage(key, cursor, pageSize + 1);
+        boolean hasMore = entries.size() > pageSize;
+        if(hasMore) {
+            entries = entries.subList(0, pageSize);
+        }
+
+        List<Long> roomIds = new ArrayList<>(entries.size());
+        for (TypedTuple<byte[]> entry : entries) {
+            roomIds.add(Long.parseLong(new String(entry.getValue(), StandardCharsets.US_ASCII)));
+        }
+        Map<Long, Map<String, byte[]>> rooms = readRooms(roomIds);
+        Map<Long, Long> unreadCounts = unreadCounterService.getUnreadCounts(memberId);
+
+        List<InboxRoomResDto> inboxRooms = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            Long roomId = roomIds.get(i);
+            Map<String, byte[]> room = rooms.get(roomId);
+            inboxRooms.add(InboxRoomResDto.builder()
+                    .roomId(roomId)
+                    .roomName(text(room.get(NAME)))
+                    .isGroupChat(text(room.get(GROUP)))
+                    .lastMessageId(number(room.get(LAST_MESSAGE_ID)))
+                    .lastMessage(text(room.get(LAST_MESSAGE)))
+                    .lastSenderEmail(text(room.get(LAST_SENDER)))
+                    .lastActivityAt(entries.get(i).getScore().longValue())
+                    .unReadCount(unreadCounts.getOrDefault(roomId, 0L))
+                    .build());
+        }
+
+        String nextCursor = null;
+        if(hasMore) {
+            TypedTuple<byte[]> last = entries.get(entries.size() - 1);
+            nextCursor = last.getScore().longValue() + ":" + roomIds.get(roomIds.size() - 1);
+        }
+        return InboxResDto.builder()
+                .rooms(inboxRooms)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    // redis의 inbox와 같은 순서 : 마지막 활동 시각 역순, 같으면 room id 문자열 역순
+    private InboxResDto getInboxFromDatabase(Long memberId, String cursor, int pageSize) {
+        InboxCursor inboxCursor = InboxCursor.parse(cursor);
+        List<InboxRoomResDto> inboxRooms = new ArrayList<>();
+        for (InboxRoomResDto inboxRoom : loadInboxRooms(memberId)) {
+            if(inboxCursor.isAfter(inboxRoom.getLastActivityAt(), String.valueOf(inboxRoom.getRoomId()))) {
+                inboxRooms.add(inboxRoom);
+            }
+        }
+        inboxRooms.sort(Comparator.comparing(InboxRoomResDto::getLastActivityAt)
+                .thenComparing(inboxRoom -> String.valueOf(inboxRoom.getRoomId()))
+                .reversed());
+
+        boolean hasMore = inboxRooms.size() > pageSize;
+        if(hasMore) {
+            inboxRooms = new ArrayList<>(inboxRooms.subList(0, pageSize));
+        }
+        Map<Long, Long> unreadCounts = unreadCounterService.getUnreadCounts(memberId);
+        for (InboxRoomResDto inboxRoom : inboxRooms) {
+            inboxRoom.setUnReadCount(unreadCounts.getOrDefault(inboxRoom.getRoomId(), 0L));
+        }
+
+        String nextCursor = null;
+        if(hasMore) {
+            InboxRoomResDto last = inboxRooms.get(inboxRooms.size() - 1);
+            nextCursor = last.getLastActivityAt() + ":" + last.getRoomId();
+        }
+        return InboxResDto.builder()
+                .rooms(inboxRooms)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private List<InboxRoomResDto> loadInboxRooms(Long memberId) {
+        List<ChatParticipantRepository.InboxRoomView> inboxRooms = chatParticipantRepository.findInboxRooms(memberId);
+        Map<Long, ChatMessageRepository.ChatMessagePreview> previews = findPreviews(inboxRooms);
+        List<InboxRoomResDto> inboxRoomResDtos = new ArrayList<>(inboxRooms.size());
+        for (ChatParticipantRepository.InboxRoomView inboxRoom : inboxRooms) {
+            ChatMessageRepository.ChatMessagePreview preview = inboxRoom.getLastMessageId() == null ? null : previews.get(inboxRoom.getLastMessageId());
+            String content = preview == null ? null : preview.getContent();
+            inboxRoomResDtos.add(InboxRoomResDto.builder()
+                    .roomId(inboxRoom.getRoomId())
+                    .roomName(inboxRoom.getRoomName())
+                    .isGroupChat(inboxRoom.getIsGroupChat())
+                    .lastMessageId(preview == null ? null : preview.getId())
+                    .lastMessage(content == null || content.length() <= previewLength ? content : content.substring(0, previewLength))
+                    .lastSenderEmail(preview == null ? null : preview.getSenderEmail())
+                    .lastActivityAt(toEpochMillis(preview == null ? inboxRoom.getCreatedTime() : preview.getCreatedTime()))
+                    .build());
+        }
+        return inboxRoomResDtos;
+    }
+
+    // 같은 score 안에서는 member(room id 문자열) 역순으로 정렬되어 있으므로 cursor의 room id까지는 건너뜀
+    private List<TypedTuple<byte[]>> readPage(String key, String cursor, int limit) {
+        InboxCursor inboxCursor = InboxCursor.parse(cursor);
+        double maxScore = inboxCursor.maxScore();
+        String cursorRoomId = inboxCursor.roomId();
+
+        List<TypedTuple<byte[]>> page = new ArrayList<>(limit);
+        long offset = 0;
+        while(page.size() < limit) {
+            Set<TypedTuple<byte[]>> tuples = chatPubSubTemplate.opsForZSet()
+                    .reverseRangeByScoreWithScores(key, Double.NEGATIVE_INFINITY, maxScore, offset, limit);
+            if(tuples == null || tuples.isEmpty()) {
+                break;
+            }
+            for (TypedTuple<byte[]> tuple : tuples) {
+                if(cursorRoomId != null && tuple.getScore() == maxScore
+                        && new String(tuple.getValue(), StandardCharsets.US_ASCII).compareTo(cursorRoomId) >= 0) {
+                    continue;
+                }
+                page.add(tuple);
+                if(page.size() == limit) {
+                    break;
+                }
+            }
+            if(tuples.size() < limit) {
+                break;
+            }
+            offset += tuples.size();
+        }
+        return page;
+    }
+
+    // 채팅방 정보가 redis에 없으면(초기화 등) chat_room에서 이름, 그룹여부만 다시 채움
+    @SuppressWarnings("unchecked")
+    private Map<Long, Map<String, byte[]>> readRooms(List<Long> roomIds) {
+        List<Object> results = chatPubSubTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Long roomId : roomIds) {
+                connection.hashCommands().hGetAll(bytes(ROOM_KEY_PREFIX + roomId));
+            }
+            return null;
+        });
+
+        Map<Long, Map<String, byte[]>> rooms = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (int i = 0; i < roomIds.size(); i++) {
+            Map<String, byte[]> room = (Map<String, byte[]>) results.get(i);
+            if(room == null || !room.containsKey(NAME)) {
+                missing.add(roomIds.get(i));
+            }
+            rooms.put(roomIds.get(i), room == null ? new HashMap<>() : new HashMap<>(room));
+        }
+        for (ChatRoom chatRoom : chatRoomRepository.findAllById(missing)) {
+            putRoomInfo(chatRoom.getId(), chatRoom.getName(), chatRoom.getIsGroupChat());
+            rooms.get(chatRoom.getId()).put(NAME, bytes(chatRoom.getName()));
+            rooms.get(chatRoom.getId()).put(GROUP, bytes(chatRoom.getIsGroupChat()));
+        }
+        return rooms;
+    }
+
+    private void rebuild(Long memberId) {
+        List<ChatParticipantRepository.InboxRoomView> inboxRooms = chatParticipantRepository.findInboxRooms(memberId);
+        if(inboxRooms.isEmpty()) {
+            return;
+        }
+        Map<Long, ChatMessageRepository.ChatMessagePreview> previews = findPreviews(inboxRooms);
+
+        // 채팅방 수만큼 왕복하지 않도록 pipeline으로 한번에
+        byte[] key = bytes(INBOX_KEY_PREFIX + memberId);
+        chatPubSubTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (ChatParticipantRepository.InboxRoomView inboxRoom : inboxRooms) {
+                Map<byte[], byte[]> info = new HashMap<>();
+                info.put(bytes(NAME), bytes(inboxRoom.getRoomName()));
+                info.put(bytes(GROUP), bytes(inboxRoom.getIsGroupChat()));
+                connection.hashCommands().hMSet(bytes(ROOM_KEY_PREFIX + inboxRoom.getRoomId()), info);
+
+                long activityAt = toEpochMillis(inboxRoom.getCreatedTime());
+                ChatMessageRepository.ChatMessagePreview preview = inboxRoom.getLastMessageId() == null ? null : previews.get(inboxRoom.getLastMessageId());
+                if(preview != null) {
+                    activityAt = toEpochMillis(preview.getCreatedTime());
+                    connection.scriptingCommands().eval(bytes(UPDATE_PREVIEW.getScriptAsString()), ReturnType.INTEGER, 1,
+                            previewArgs(inboxRoom.getRoomId(), preview.getId(), preview.getContent(), preview.getSenderEmail(), activityAt));
+                }
+                connection.zSetCommands().zAdd(key, activityAt, bytes(String.valueOf(inboxRoom.getRoomId())), ZAddArgs.empty().gt());
+            }
+            return null;
+        });
+    }
+
+    // message id -> 마지막 메시지 미리보기
+    private Map<Long, ChatMessageRepository.ChatMessagePreview> findPreviews(List<ChatParticipantRepository.InboxRoomView> inboxRooms) {
+        List<Long> lastMessageIds = new ArrayList<>();
+        for (ChatParticipantRepository.InboxRoomView inboxRoom : inboxRooms) {
+            if(inboxRoom.getLastMessageId() != null) {
+                lastMessageIds.add(inboxRoom.getLastMessageId());
+            }
+        }
+        Map<Long, ChatMessageRepository.ChatMessagePreview> previews = new HashMap<>();
+        if(lastMessageIds.isEmpty()) {
+            return previews;
+        }
+        for (ChatMessageRepository.ChatMessagePreview preview : chatMessageRepository.findPreviews(lastMessageIds)) {
+            previews.put(preview.getId(), preview);
+        }
+        return previews;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessagesPersisted(ChatMessagesPersistedEvent event) {
+        if(chatPubSubTemplate == null) {
+            return;
+        }
+        // room별 마지막 메시지만 반영
+        Map<Long, ChatMessageDto> lastMessages = new LinkedHashMap<>();
+        for (ChatMessageDto message : event.messages()) {
+            ChatMessageDto last = lastMessages.get(message.getRoomId());
+            if(last == null || last.getMessageId() < message.getMessageId()) {
+                lastMessages.put(message.getRoomId(), message);
+            }
+        }
+        long now = System.currentTimeMillis();
+        updater.execute(() -> updateInboxes(lastMessages, now));
+    }
+
+    // 이벤트의 모든 room에 대해 미리보기 갱신과 참여자 inbox score 갱신을 한 pipeline으로 보냄
+    private void updateInboxes(Map<Long, ChatMessageDto> lastMessages, long activityAt) {
+        Timer.Sample sample = messagePathMetrics.start();
+        try {
+            // 참여자 목록은 DB에서 읽을 수도 있으므로 pipeline(연결 점유)을 열기 전에 모두 구함
+            Map<Long, Set<Long>> membersByRoom = new HashMap<>();
+            for (Long roomId : lastMessages.keySet()) {
+                membersByRoom.put(roomId, roomMembershipIndex.memberIds(roomId));
+            }
+            byte[] previewScript = bytes(UPDATE_PREVIEW.getScriptAsString());
+            byte[] touchScript = bytes(TOUCH_INBOXES.getScriptAsString());
+            chatPubSubTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                lastMessages.forEach((roomId, message) -> {
+                    connection.scriptingCommands().eval(previewScript, ReturnType.INTEGER, 1,
+                            previewArgs(roomId, message.getMessageId(), message.getMessage(), message.getSenderEmail(), activityAt));
+                    Set<Long> memberIds = membersByRoom.get(roomId);
+                    if(!memberIds.isEmpty()) {
+                        connection.scriptingCommands().eval(touchScript, ReturnType.INTEGER, memberIds.size(), touchArgs(roomId, memberIds, activityAt));
+                    }
+                });
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.warn("inbox update failed, rooms={}", lastMessages.keySet(), e);
+        }
+        messagePathMetrics.recordFanout(sample, "inbox");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMembershipChanged(RoomMembershipChangedEvent event) {
+        if(chatPubSubTemplate == null) {
+            return;
+        }
+        String key = INBOX_KEY_PREFIX + event.memberId();
+        try {
+            if(!event.joined()) {
+                chatPubSubTemplate.opsForZSet().remove(key, bytes(String.valueOf(event.roomId())));
+                return;
+            }
+            if(!Boolean.TRUE.equals(chatPubSubTemplate.opsForHash().hasKey(ROOM_KEY_PREFIX + event.roomId(), NAME))) {
+                chatRoomRepository.findById(event.roomId())
+                        .ifPresent(chatRoom -> putRoomInfo(chatRoom.getId(), chatRoom.getName(), chatRoom.getIsGroupChat()));
+            }
+            // 새로 참여한 채팅방은 목록 맨 위로
+            touchInboxes(event.roomId(), Set.of(event.memberId()), System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            log.warn("inbox membership update failed, roomId={}, memberId={}", event.roomId(), event.memberId(), e);
+        }
+    }
+
+    private void putRoomInfo(Long roomId, String name, String isGroupChat) {
+        Map<String, byte[]> info = new HashMap<>();
+        info.put(NAME, bytes(name));
+        info.put(GROUP, bytes(isGroupChat));
+        chatPubSubTemplate.<String, byte[]>opsForHash().putAll(ROOM_KEY_PREFIX + roomId, info);
+    }
+
+    // KEYS[1], ARGV[1..4]
+    private byte[][] previewArgs(Long roomId, Long messageId, String content, String senderEmail, long activityAt) {
+        String snippet = content == null ? "" : content.length() > previewLength ? content.substring(0, previewLength) : content;
+        return new byte[][] {
+                bytes(ROOM_KEY_PREFIX + roomId),
+                bytes(String.valueOf(messageId)),
+                bytes(snippet),
+                bytes(senderEmail == null ? "" : senderEmail),
+                bytes(String.valueOf(activityAt))
+        };
+    }
+
+    // KEYS : 참여자 inbox, ARGV[1..2]
+    private byte[][] touchArgs(Long roomId, Set<Long> memberIds, long activityAt) {
+        byte[][] keysAndArgs = new byte[memberIds.size() + 2][];
+        int i = 0;
+        for (Long memberId : memberIds) {
+            keysAndArgs[i++] = bytes(INBOX_KEY_PREFIX + memberId);
+        }
+        keysAndArgs[i++] = bytes(String.valueOf(activityAt));
+        keysAndArgs[i] = bytes(String.valueOf(roomId));
+        return keysAndArgs;
+    }
+
+    private void touchInboxes(Long roomId, Set<Long> memberIds, long activityAt) {
+        List<String> keys = new ArrayList<>(memberIds.size());
+        for (Long memberId : memberIds) {
+            keys.add(INBOX_KEY_PREFIX + memberId);
+        }
+        chatPubSubTemplate.execute(TOUCH_INBOXES, keys, bytes(String.valueOf(activityAt)), bytes(String.valueOf(roomId)));
+    }
+
+    // "{score}:{roomId}" => 이 score, room id 보다 뒤(작은 값)에 있는 채팅방부터
+    private record InboxCursor(double maxScore, String roomId) {
+
+        private static InboxCursor parse(String cursor) {
+            if(cursor == null) {
+                return new InboxCursor(Double.POSITIVE_INFINITY, null);
+            }
+            String[] parts = cursor.split(":");
+            if(parts.length != 2) {
+                throw new IllegalArgumentException("잘못된 cursor입니다.");
+            }
+            try {
+                return new InboxCursor(Long.parseLong(parts[0]), String.valueOf(Long.parseLong(parts[1])));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("잘못된 cursor입니다.");
+            }
+        }
+
+        private boolean isAfter(long score, String roomId) {
+            return score < maxScore || (score == maxScore && (this.roomId == null || roomId.compareTo(this.roomId) < 0));
+        }
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time == null ? 0L : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static String text(byte[] value) {
+        return value == null ? null : new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static Long number(byte[] value) {
+        return value == null ? null : Long.parseLong(new String(value, StandardCharsets.US_ASCII));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.chatserver.chat.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// chat.bus.type=in-process (단일 노드) : room별 마지막 순번을 메모리에 캐싱, 없으면 DB에 저장된 마지막 순번부터 이어감
+// 캐시는 크기 제한이 있어 오래 안쓰인 room은 빠짐
+// 같은 room은 한 worker(RoomMessageActors)가 저장까지 끝낸 뒤 다음 순번을 예약하므로 다시 DB에서 읽어도 값이 맞음
+@Component
+@ConditionalOnProperty(name = "chat.bus.type", havingValue = "in-process")
+public class LocalRoomSeqAllocator implements RoomSeqAllocator {
+
+    private final ChatService chatService;
+    private final Cache<Long, AtomicLong> lastSeqs;
+
+    public LocalRoomSeqAllocator(ChatService chatService,
+                                 @Value("${chat.room-actor.seq-cache-size:100000}") long cacheSize) {
+        this.chatService = chatService;
+        this.lastSeqs = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .build();
+    }
+
+    @Override
+    public long allocate(Long roomId, int count) {
+        return lastSeqs.get(roomId, id -> new AtomicLong(chatService.getLastRoomSeq(id))).addAndGet(count);
+    }
+
+    @Override
+    public void release(Long roomId, long reservedLast, long usedLast) {
+        AtomicLong lastSeq = lastSeqs.getIfPresent(roomId);
+        if(lastSeq != null) {
+            lastSeq.compareAndSet(reservedLast, usedLast);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.chatserver.chat.service;
+
+// 채팅 메시지 저장 방식
+public enum MessageDurability {
+    // 요청 스레드에서 바로 저장 후 발행 (기존 방식)
+    SYNC,
+    // write-behind 큐에 넣고, batch insert가 끝난 뒤 발행
+    ASYNC_ACKED,
+    // write-behind 큐에 넣고 바로 발행 (서버가 죽으면 큐에 남은 메시지는 유실될 수 있음)
+    ASYNC;
+
+    // application.yml에는 sync, async-acked, async 형태로 설정
+    public static MessageDurability from(String value) {
+        return MessageDurability.valueOf(value.trim().toUpperCase().replace('-', '_'));
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.chatserver.chat.service;
+
+import com.example.chatserver.chat.dto.ChatMessageDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// 메시지 경로(SEND 수신 -> 저장 -> redis 발행 -> 수신 노드 -> 브로커 전달) 구간별 metric
+// room id를 tag로 쓰면 시계열이 room 수만큼 늘어나므로 참여자 수 구간(room.size)으로 묶음
+@Component
+public class MessagePathMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final RoomMembershipIndex roomMembershipIndex;
+
+    public MessagePathMetrics(MeterRegistry meterRegistry, RoomMembershipIndex roomMembershipIndex) {
+        this.meterRegistry = meterRegistry;
+        this.roomMembershipIndex = roomMembershipIndex;
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    // STOMP inbound 인증/권한 검증 (command별)
+    public void recordInbound(Timer.Sample sample, String command) {
+        sample.stop(Timer.builder("chat.stomp.inbound")
+                .tag("command", command)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    // 메시지 저장 구간 (phase : lookup, insert)
+    public void recordSave(Timer.Sample sample, String phase) {
+        sample.stop(Timer.builder("chat.message.save")
+                .tag("phase", phase)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    // 저장 커밋 이후 부가 데이터 갱신 (target : recent-cache, unread, inbox)
+    public void recordFanout(Timer.Sample sample, String target) {
+        sample.stop(Timer.builder("chat.message.fanout")
+                .tag("target", target)
+                .register(meterRegistry));
+    }
+
+    public void recordPublish(Timer.Sample sample, Long roomId, String transport) {
+        sample.stop(Timer.builder("chat.redis.publish")
+                .tag("transport", transport)
+                .tag("room.size", roomSizeBucket(roomId))
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    // 수신 노드에서 브로커로 전달하는 구간 + 최초 수신 노드(sentAt)부터 전달까지의 지연
+    public void recordDispatch(Timer.Sample sample, ChatMessageDto chatMessageDto) {
+        String roomSize = roomSizeBucket(chatMessageDto.getRoomId());
+        sample.stop(Timer.builder("chat.broker.dispatch")
+                .tag("room.size", roomSize)
+                .register(meterRegistry));
+        if(chatMessageDto.getSentAt() != null) {
+            // 노드간 시계 차이로 음수가 나올 수 있음
+            long latencyMillis = Math.max(0, System.currentTimeMillis() - chatMessageDto.getSentAt());
+            Timer.builder("chat.message.delivery.latency")
+                    .description("STOMP SEND를 받은 노드에서 구독자 노드의 브로커 전달까지")
+                    .tag("room.size", roomSize)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(latencyMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // metric tag를 위해 DB를 조회하지 않도록 membership 캐시에 없는 room은 unknown
+    String roomSizeBucket(Long roomId) {
+        Set<Long> memberIds = roomId == null ? null : roomMembershipIndex.cachedMemberIds(roomId);
+        if(memberIds == null) {
+            return "unknown";
+        }
+        int size = memberIds.size();
+        if(size <= 2) {
+            return "1-2";
+        } else if(size <= 10) {
+            return "3-10";
+        } else if(size <= 100) {
+            return "11-100";
+        } else if(size <= 1000) {
+            return "101-1000";
+        }
+        return "1000+";
+    }
+}
@@ -0,0 +1,386 @@
+package com.example.chatserver.chat.service;
+
+import com.example.chatserver.chat.dto.PresenceEventDto;
+import com.example.chatserver.common.cluster.NodeId;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// 클러스터 전체 채팅방 접속(presence) 관리
+// - 노드 로컬 : session -> member, room -> (member -> 구독중인 세션 수)
+// - redis : chat:presence:room:{roomId} sorted set (member = "{memberId}@{nodeId}", score = 만료 시각)
+//   노드가 heartbeat로 만료 시각을 계속 늘리고, 노드가 죽으면 heartbeat가 끊겨 ttl 이후 자동으로 빠짐
+// - 같은 member가 여러 노드에 접속해 있을 수 있으므로 접속자 수는 member id 기준으로 중복 제거해서 셈
+// - 접속 상태 변경은 room 단위 channel(RoomChannels.presenceChannelOf)로 발행 => room 구독자가 있는 노드만 받음
+//   chat.bus.type=in-process(단일 노드, redis 없음)면 노드 로컬 정보만으로 접속자 수를 세고 바로 전달
+// - 나갔다가 debounce 시간 안에 다시 들어오면(새로고침, 네트워크 끊김) online/offline 이벤트를 보내지 않음
+@Service
+@Slf4j
+public class PresenceService implements MessageListener {
+
+    private static final String ROOM_KEY_PREFIX = "chat:presence:room:";
+
+    // 만료되지 않은 entry의 member id 중복 제거 : 반환 {같은 member의 다른 노드 entry 수, room 접속자 수}
+    private static final String COUNT_ONLINE =
+            "local others = 0 local seen = {} local online = 0 " +
+            "for _, entry in ipairs(redis.call('ZRANGEBYSCORE', KEYS[1], ARGV[1], '+inf')) do " +
+            "  local memberId = string.match(entry, '^(%d+)@') " +
+            "  if memberId == ARGV[2] and entry ~= ARGV[3] then others = others + 1 end " +
+            "  if memberId and not seen[memberId] then seen[memberId] = true online = online + 1 end " +
+            "end " +
+            "return {others, online}";
+
+    // ARGV : now, member id, entry, 만료 시각, key ttl
+    private static final RedisScript<List> ENTER = new DefaultRedisScript<>(
+            "redis.call('ZADD', KEYS[1], ARGV[4], ARGV[3]) " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[5]) " +
+            COUNT_ONLINE, List.class);
+
+    // ARGV : now, member id, entry
+    private static final RedisScript<List> LEAVE = new DefaultRedisScript<>(
+            "redis.call('ZREM', KEYS[1], ARGV[3]) " +
+            COUNT_ONLINE, List.class);
+
+    // ARGV : now, member id(없음), entry(없음)
+    private static final RedisScript<List> COUNT = new DefaultRedisScript<>(COUNT_ONLINE, List.class);
+
+    // 만료된 entry 제거 : 반환 {room 접속자 수, 남은 entry가 없어 offline이 된 member id...}
+    // ARGV : now
+    private static final byte[] PRUNE = (
+            "local expired = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', '(' .. ARGV[1]) " +
+            "if #expired == 0 then return {} end " +
+            "redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', '(' .. ARGV[1]) " +
+            "local live = {} local online = 0 " +
+            "for _, entry in ipairs(redis.call('ZRANGEBYSCORE', KEYS[1], ARGV[1], '+inf')) do " +
+            "  local memberId = string.match(entry, '^(%d+)@') " +
+            "  if memberId and not live[memberId] then live[memberId] = true online = online + 1 end " +
+            "end " +
+            "local result = {online} " +
+            "for _, entry in ipairs(expired) do " +
+            "  local memberId = string.match(entry, '^(%d+)@') " +
+            "  if memberId and not live[memberId] then live[memberId] = true table.insert(result, tonumber(memberId)) end " +
+            "end " +
+            "return result").getBytes(StandardCharsets.UTF_8);
+
+    // chat.bus.type=in-process면 redis 연결이 없으므로 null
+    private final RedisTemplate<String, byte[]> chatPubSubTemplate;
+    private final SimpMessageSendingOperations messageTemplate;
+    private final ObjectMapper objectMapper;
+    private final RoomChannels roomChannels;
+    private final String nodeId;
+    private final long ttlMillis;
+    private final long debounceMillis;
+
+    // session id -> member id
+    private final Map<String, Long> sessionMembers = new ConcurrentHashMap<>();
+    // member id -> 이 노드의 세션 수
+    private final Map<Long, Integer> memberSessions = new ConcurrentHashMap<>();
+    // room id -> (member id -> 이 노드에서 room을 구독중인 세션 수)
+    private final Map<Long, Map<Long, Integer>> roomMembers = new HashMap<>();
+    // "{roomId}:{memberId}" -> 대기중인 offline 처리
+    private final Map<String, ScheduledFuture<?>> pendingLeaves = new HashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "presence-debouncer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public PresenceService(@Qualifier("chatPubSub") ObjectProvider<RedisTemplate<String, byte[]>> chatPubSubTemplate,
+                           SimpMessageSendingOperations messageTemplate,
+                           ObjectMapper objectMapper,
+                           RoomChannels roomChannels,
+                           NodeId nodeId,
+                           MeterRegistry meterRegistry,
+                           @Value("${chat.presence.ttl-ms:30000}") long ttlMillis,
+                           @Value("${chat.presence.debounce-ms:3000}") long debounceMillis) {
+        this.chatPubSubTemplate = chatPubSubTemplate.getIfAvailable();
+        this.messageTemplate = messageTemplate;
+        this.objectMapper = objectMapper;
+        this.roomChannels = roomChannels;
+        this.nodeId = nodeId.get();
+        this.ttlMillis = ttlMillis;
+        this.debounceMillis = debounceMillis;
+        Gauge.builder("chat.presence.sessions", sessionMembers, Map::size).register(meterRegistry);
+        Gauge.builder("chat.presence.members", memberSessions, Map::size).register(meterRegistry);
+    }
+
+    public void connected(String sessionId, Long memberId) {
+        if(sessionMembers.putIfAbsent(sessionId, memberId) == null) {
+            memberSessions.merge(memberId, 1, Integer::sum);
+        }
+    }
+
+    // 세션 종료 이벤트는 두번 올 수 있음
+    public void disconnected(String sessionId) {
+        Long memberId = sessionMembers.remove(sessionId);
+        if(memberId != null) {
+            memberSessions.computeIfPresent(memberId, (id, count) -> count == 1 ? null : count - 1);
+        }
+    }
+
+    public int sessionCount() {
+        return sessionMembers.size();
+    }
+
+    public boolean isConnectedLocally(Long memberId) {
+        return memberSessions.containsKey(memberId);
+    }
+
+    // 세션이 room을 구독 (같은 세션의 같은 room 구독은 한번만 호출됨)
+    public void enterRoom(Long roomId, Long memberId) {
+        boolean first;
+        synchronized (this) {
+            int count = roomMembers.computeIfAbsent(roomId, id -> new HashMap<>()).merge(memberId, 1, Integer::sum);
+            ScheduledFuture<?> pendingLeave = pendingLeaves.remove(roomId + ":" + memberId);
+            if(pendingLeave != null) {
+                // debounce 시간 안에 다시 들어옴 => redis entry가 그대로 있으므로 이벤트 없음
+                pendingLeave.cancel(false);
+                return;
+            }
+            first = count == 1;
+        }
+        if(!first) {
+            return;
+        }
+        if(chatPubSubTemplate == null) {
+            publish(roomId, memberId, true, localOnlineCount(roomId));
+            return;
+        }
+
+        try {
+            List<Long> result = execute(ENTER, roomId, memberId,
+                    String.valueOf(System.currentTimeMillis() + ttlMillis), String.valueOf(ttlMillis * 2));
+            if(result.get(0) == 0) {
+                publish(roomId, memberId, true, result.get(1));
+            }
+        } catch (RuntimeException e) {
+            log.warn("presence enter failed, roomId={}, memberId={}", roomId, memberId, e);
+        }
+    }
+
+    // 세션이 room 구독을 해제 (unsubscribe, disconnect)
+    public synchronized void leaveRoom(Long roomId, Long memberId) {
+        Map<Long, Integer> members = roomMembers.get(roomId);
+        if(members == null || !members.containsKey(memberId)) {
+            return;
+        }
+        int count = members.merge(memberId, -1, Integer::sum);
+        if(count > 0) {
+            return;
+        }
+        members.remove(memberId);
+        if(members.isEmpty()) {
+            roomMembers.remove(roomId);
+        }
+        String pendingKey = roomId + ":" + memberId;
+        pendingLeaves.put(pendingKey, scheduler.schedule(() -> leaveIfAbsent(roomId, memberId, pendingKey), debounceMillis, TimeUnit.MILLISECONDS));
+    }
+
+    private void leaveIfAbsent(Long roomId, Long memberId, String pendingKey) {
+        synchronized (this) {
+            if(pendingLeaves.remove(pendingKey) == null) {
+                return;
+            }
+        }
+        if(chatPubSubTemplate == null) {
+            publish(roomId, memberId, false, localOnlineCount(roomId));
+            return;
+        }
+        try {
+            List<Long> result = execute(LEAVE, roomId, memberId);
+            if(result.get(0) == 0) {
+                publish(roomId, memberId, false, result.get(1));
+            }
+        } catch (RuntimeException e) {
+            // ttl이 지나면 빠짐
+            log.warn("presence leave failed, roomId={}, memberId={}", roomId, memberId, e);
+        }
+    }
+
+    // 클러스터 전체에서 room에 접속중인 member 수
+    public long onlineCount(Long roomId) {
+        if(chatPubSubTemplate == null) {
+            return localOnlineCount(roomId);
+        }
+        return execute(COUNT, roomId, 0L).get(1);
+    }
+
+    // 단일 노드 : room을 구독중인 member + debounce 대기중인 member
+    private synchronized long localOnlineCount(Long roomId) {
+        long count = roomMembers.getOrDefault(roomId, Map.of()).size();
+        String prefix = roomId + ":";
+        for (String pendingKey : pendingLeaves.keySet()) {
+            if(pendingKey.startsWith(prefix)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // 이 노드의 room 접속 정보 만료 시각 갱신 + 죽은 노드가 남긴 만료된 entry 정리
+    // debounce 대기중인 member도 아직 접속중으로 유지
+    // 정리된 entry의 member가 다른 노드에도 남아있지 않으면 offline 이벤트 발행 (죽은 노드는 leave를 보내지 못하므로)
+    @Scheduled(fixedDelayString = "${chat.presence.heartbeat-interval-ms:10000}")
+    public void heartbeat() {
+        if(chatPubSubTemplate == null) {
+            return;
+        }
+        Map<Long, List<Long>> snapshot = new HashMap<>();
+        synchronized (this) {
+            roomMembers.forEach((roomId, members) -> snapshot.put(roomId, new ArrayList<>(members.keySet())));
+            for (String pendingKey : pendingLeaves.keySet()) {
+                String[] ids = pendingKey.split(":");
+                snapshot.computeIfAbsent(Long.parseLong(ids[0]), id -> new ArrayList<>()).add(Long.parseLong(ids[1]));
+            }
+        }
+        if(snapshot.isEmpty()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        List<Long> roomIds = new ArrayList<>(snapshot.keySet());
+        List<Object> pruned;
+        try {
+            chatPubSubTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                snapshot.forEach((roomId, memberIds) -> {
+                    byte[] key = ascii(ROOM_KEY_PREFIX + roomId);
+                    for (Long memberId : memberIds) {
+                        connection.zSetCommands().zAdd(key, now + ttlMillis, ascii(entry(memberId)));
+                    }
+                    connection.keyCommands().pExpire(key, ttlMillis * 2);
+                });
+                return null;
+            });
+            // roomIds 순서대로 결과가 옴
+            pruned = chatPubSubTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                byte[] nowArg = ascii(String.valueOf(now));
+                for (Long roomId : roomIds) {
+                    connection.scriptingCommands().eval(PRUNE, ReturnType.MULTI, 1, ascii(ROOM_KEY_PREFIX + roomId), nowArg);
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.warn("presence heartbeat failed", e);
+            return;
+        }
+
+        for (int i = 0; i < roomIds.size(); i++) {
+            if(!(pruned.get(i) instanceof List<?> result) || result.isEmpty()) {
+                continue;
+            }
+            long onlineCount = (Long) result.get(0);
+            for (int j = 1; j < result.size(); j++) {
+                publish(roomIds.get(i), (Long) result.get(j), false, onlineCount);
+            }
+        }
+    }
+
+    private List<Long> execute(RedisScript<List> script, Long roomId, Long memberId, String... extraArgs) {
+        List<Object> args = new ArrayList<>();
+        args.add(ascii(String.valueOf(System.currentTimeMillis())));
+        args.add(ascii(String.valueOf(memberId)));
+        args.add(ascii(entry(memberId)));
+        for (String extraArg : extraArgs) {
+            args.add(ascii(extraArg));
+        }
+        @SuppressWarnings("unchecked")
+        List<Long> result = chatPubSubTemplate.execute(script, List.of(ROOM_KEY_PREFIX + roomId), args.toArray());
+        return result;
+    }
+
+    private void publish(Long roomId, Long memberId, boolean online, long onlineCount) {
+        PresenceEventDto presenceEventDto = PresenceEventDto.builder()
+                .roomId(roomId)
+                .memberId(memberId)
+                .online(online)
+                .onlineCount(onlineCount)
+                .build();
+        if(chatPubSubTemplate == null) {
+            send(presenceEventDto);
+            return;
+        }
+        try {
+            chatPubSubTemplate.convertAndSend(roomChannels.presenceChannelOf(roomId), objectMapper.writeValueAsBytes(presenceEventDto));
+        } catch (JsonProcessingException e) {
+            log.warn("presence event encode failed", e);
+        }
+    }
+
+    // 이 room을 구독중인 노드(자기 자신 포함)에서 보낸 접속 상태 변경 => 이 노드의 구독자에게 전달
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        PresenceEventDto presenceEventDto;
+        try {
+            presenceEventDto = objectMapper.readValue(message.getBody(), PresenceEventDto.class);
+        } catch (IOException e) {
+            log.error("presence event decode 실패", e);
+            return;
+        }
+        send(presenceEventDto);
+    }
+
+    private void send(PresenceEventDto presenceEventDto) {
+        messageTemplate.convertAndSend("/topic/" + presenceEventDto.getRoomId() + "/presence", presenceEventDto);
+    }
+
+    private String entry(Long memberId) {
+        return memberId + "@" + nodeId;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // 정상 종료시에는 ttl을 기다리지 않고 이 노드의 entry를 바로 제거
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        if(chatPubSubTemplate == null) {
+            return;
+        }
+        Map<Long, List<Long>> snapshot = new HashMap<>();
+        synchronized (this) {
+            roomMembers.forEach((roomId, members) -> snapshot.put(roomId, new ArrayList<>(members.keySet())));
+        }
+        try {
+            chatPubSubTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                snapshot.forEach((roomId, memberIds) -> {
+                    for (Long memberId : memberIds) {
+                        connection.zSetCommands().zRem(ascii(ROOM_KEY_PREFIX + roomId), ascii(entry(memberId)));
+                    }
+                });
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.warn("presence cleanup failed", e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.chatserver.chat.service;
+
+import com.example.chatserver.chat.repository.ChatParticipantRepository;
+import com.example.chatserver.chat.repository.ReadStatusRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+// 메시지별 ReadStatus -> 참여자별 read cursor 1회성 migration
+// ReadStatus가 남아있지 않으면 아무것도 하지 않으므로 매 기동시 실행해도 무방
+// ReadStatus가 매우 많을 수 있으므로 room id 구간별로 나눠서 구간마다 별도 트랜잭션으로 처리 (중간에 실패해도 끝난 구간은 유지)
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "chat.read-cursor.migrate-on-startup", havingValue = "true", matchIfMissing = true)
+public class ReadCursorMigrationRunner implements ApplicationRunner {
+
+    private final ReadStatusRepository readStatusRepository;
+    private final ChatParticipantRepository chatParticipantRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long chunkRooms;
+
+    public ReadCursorMigrationRunner(ReadStatusRepository readStatusRepository,
+                                     ChatParticipantRepository chatParticipantRepository,
+                                     TransactionTemplate transactionTemplate,
+                                     @Value("${chat.read-cursor.migration-chunk-rooms:100}") long chunkRooms) {
+        this.readStatusRepository = readStatusRepository;
+        this.chatParticipantRepository = chatParticipantRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkRooms = chunkRooms;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long maxRoomId = readStatusRepository.findMaxRoomId();
+        if(maxRoomId == 0) {
+            return;
+        }
+
+        int participants = 0;
+        for (long from = 0; from < maxRoomId; from += chunkRooms) {
+            long fromRoomId = from;
+            long toRoomId = from + chunkRooms;
+            participants += transactionTemplate.execute(status -> migrate(fromRoomId, toRoomId));
+        }
+        log.info("read status -> read cursor migration 완료 : {} participants", participants);
+    }
+
+    private int migrate(long fromRoomId, long toRoomId) {
+        List<ReadStatusRepository.ReadCursor> readCursors = readStatusRepository.findReadCursors(fromRoomId, toRoomId);
+        for (ReadStatusRepository.ReadCursor readCursor : readCursors) {
+            chatParticipantRepository.advanceReadCursor(readCursor.getRoomId(), readCursor.getMemberId(), readCursor.getLastReadMessageId());
+        }
+        // ReadStatus가 없는 참여자는 cursor 0으로 남으면 모든 메시지가 안읽음이 되므로 room의 마지막 메시지로 맞춤 (ReadStatus를 지우기 전에 해야 구분 가능)
+        int withoutReadStatus = chatParticipantRepository.moveCursorToLastMessageWithoutReadStatus(fromRoomId, toRoomId);
+        // cursor로 옮긴 뒤에는 ReadStatus가 필요 없음
+        readStatusRepository.deleteByRoomIdRange(fromRoomId, toRoomId);
+        return readCursors.size() + withoutReadStatus;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.chatserver.chat.service;
+
+import com.example.chatserver.chat.dto.ReadReceiptDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+
+// 읽음처리 결과를 같은 방 참여자들에게 알림 (/topic/{roomId}/read)
+// 구독자는 여러 노드에 있으므로 room 단위 redis channel(RoomChannels.readReceiptChannelOf)로 보내고,
+// 그 room 구독자가 있어 channel을 구독중인 노드(RoomChannelSubscriptionManager)가 자기 구독자에게 전달
+// chat.bus.type=in-process(단일 노드, redis 없음)면 redis를 거치지 않고 바로 전달
+@Service
+@Slf4j
+public class ReadReceiptService implements MessageListener {
+
+    // chat.bus.type=in-process면 redis 연결이 없으므로 null
+    private final RedisTemplate<String, byte[]> chatPubSubTemplate;
+    private final SimpMessageSendingOperations messageTemplate;
+    private final ObjectMapper objectMapper;
+    private final RoomChannels roomChannels;
+
+    public ReadReceiptService(@Qualifier("chatPubSub") ObjectProvider<RedisTemplate<String, byte[]>> chatPubSubTemplate,
+                              SimpMessageSendingOperations messageTemplate,
+                              ObjectMapper objectMapper,
+                              RoomChannels roomChannels) {
+        this.chatPubSubTemplate = chatPubSubTemplate.getIfAvailable();
+        this.messageTemplate = messageTemplate;
+        this.objectMapper = objectMapper;
+        this.roomChannels = roomChannels;
+    }
+
+    // cursor 이동이 커밋된 뒤에 알림
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoomRead(ChatRoomReadEvent event) {
+        ReadReceiptDto readReceiptDto = ReadReceiptDto.builder()
+                .roomId(event.roomId())
+                .memberId(event.memberId())
+                .email(event.email())
+                .lastReadMessageId(event.lastReadMessageId())
+                .build();
+        if(chatPubSubTemplate == null) {
+            send(readReceiptDto);
+            return;
+        }
+        try {
+            chatPubSubTemplate.convertAndSend(roomChannels.readReceiptChannelOf(event.roomId()), objectMapper.writeValueAsBytes(readReceiptDto));
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("read receipt publish failed, roomId={}", event.roomId(), e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        ReadReceiptDto readReceiptDto;
+        try {
+            readReceiptDto = objectMapper.readValue(message.getBody(), ReadReceiptDto.class);
+        } catch (IOException e) {
+            log.error("read receipt decode 실패", e);
+            return;
+        }
+        send(readReceiptDto);
+    }
+
+    private void send(ReadReceiptDto readReceiptDto) {
+        messageTemplate.convertAndSend("/topic/" + readReceiptDto.getRoomId() + "/read", readReceiptDto);
+    }
+}
@@ -0,0 +1,284 @@
+package com.example.chatserver.chat.service;
+
+import com.example.chatserver.chat.codec.BinaryChatMessageCodec;
+import com.example.chatserver.chat.dto.ChatMessageDto;
+import com.example.chatserver.chat.repository.ChatMessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// room별 최근 메시지 캐시 (redis sorted set chat:recent:{roomId}, score = message id)
+// 방에 들어올 때 보는 최신 메시지 페이지는 DB 대신 여기서 응답하고, 이전 페이지는 DB에서 조회
+// - 메시지 저장이 커밋되면 추가하고 최근 capacity개만 남김 (lua script로 추가 + 자르기를 한번에)
+// - 캐시가 없는 room은 한 요청만 DB에서 다시 채우고(BUILDING 표시), 나머지 요청은 잠깐 기다렸다가 캐시를 읽음
+// - 방의 첫 메시지까지 캐시에 들어있으면 HEAD 표시를 같이 저장 => 메시지가 적은 방도 다음 페이지 여부를 알 수 있음
+// chat.bus.type=in-process(redis 없음)면 캐시 없이 항상 DB에서 조회
+// 저장 노드마다 codec 설정이 달라도 같은 메시지는 같은 값이 되도록 binary codec으로 고정
+@Component
+@Slf4j
+public class RecentMessageCache {
+
+    private static final String KEY_PREFIX = "chat:recent:";
+    // 메시지는 binary codec format byte(0x02)로 시작하므로 1 byte 표시와 겹치지 않음
+    private static final byte[] BUILDING_MARKER = {0x00};
+    private static final byte[] HEAD_MARKER = {0x01};
+    private static final byte[] NO_HEAD = new byte[0];
+
+    // ARGV : capacity, ttl(ms), building marker, (score, message)...
+    // 캐시가 없는 room은 추가하지 않음 (다시 채울 때 DB에서 가져옴)
+    private static final RedisScript<Long> APPEND = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end " +
+            "for i = 4, #ARGV, 2 do redis.call('ZADD', KEYS[1], ARGV[i], ARGV[i + 1]) end " +
+            "redis.call('ZREMRANGEBYRANK', KEYS[1], 0, -(tonumber(ARGV[1]) + 3)) " +
+            "if not redis.call('ZSCORE', KEYS[1], ARGV[3]) then redis.call('PEXPIRE', KEYS[1], ARGV[2]) end " +
+            "return 1", Long.class);
+
+    // ARGV : build timeout(ms), building marker
+    private static final RedisScript<Long> START_BUILD = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then return 0 end " +
+            "redis.call('ZADD', KEYS[1], '+inf', ARGV[2]) " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[1]) " +
+            "return 1", Long.class);
+
+    // ARGV : capacity, ttl(ms), building marker, head marker(없으면 빈값), (score, message)...
+    // 채우는 도중 만료된 경우는 다른 요청이 다시 채우도록 그대로 둠
+    private static final RedisScript<Long> COMPLETE_BUILD = new DefaultRedisScript<>(
+            "if redis.call('ZREM', KEYS[1], ARGV[3]) == 0 then return 0 end " +
+            "for i = 5, #ARGV, 2 do redis.call('ZADD', KEYS[1], ARGV[i], ARGV[i + 1]) end " +
+            "if ARGV[4] ~= '' then redis.call('ZADD', KEYS[1], '-inf', ARGV[4]) end " +
+            "redis.call('ZREMRANGEBYRANK', KEYS[1], 0, -(tonumber(ARGV[1]) + 3)) " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[2]) " +
+            "return 1", Long.class);
+
+    // ARGV : building marker
+    // 채우기에 실패하면 기다리는 요청이 build timeout까지 기다리지 않도록 지움 (그 사이 APPEND로 들어간 일부 메시지도 같이)
+    private static final RedisScript<Long> CANCEL_BUILD = new DefaultRedisScript<>(
+            "if not redis.call('ZSCORE', KEYS[1], ARGV[1]) then return 0 end " +
+            "redis.call('DEL', KEYS[1]) " +
+            "return 1", Long.class);
+
+    // chat.bus.type=in-process면 redis 연결이 없으므로 null
+    private final RedisTemplate<String, byte[]> chatPubSubTemplate;
+    private final ChatMessageRepository chatMessageRepository;
+    private final MessagePathMetrics messagePathMetrics;
+    private final BinaryChatMessageCodec codec = new BinaryChatMessageCodec();
+    private final int capacity;
+    private final long ttlMillis;
+    private final long buildTimeoutMillis;
+    private final long rebuildWaitMillis;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public RecentMessageCache(@Qualifier("chatPubSub") ObjectProvider<RedisTemplate<String, byte[]>> chatPubSubTemplate,
+                              ChatMessageRepository chatMessageRepository,
+                              MessagePathMetrics messagePathMetrics,
+                              MeterRegistry meterRegistry,
+                              @Value("${chat.recent-cache.size:100}") int capacity,
+                              @Value("${chat.recent-cache.ttl:1d}") Duration ttl,
+                              @Value("${chat.recent-cache.build-timeout-ms:5000}") long buildTimeoutMillis,
+                              @Value("${chat.recent-cache.rebuild-wait-ms:200}") long rebuildWaitMillis) {
+        this.chatPubSubTemplate = chatPubSubTemplate.getIfAvailable();
+        this.chatMessageRepository = chatMessageRepository;
+        this.messagePathMetrics = messagePathMetrics;
+        this.capacity = capacity;
+        this.ttlMillis = ttl.toMillis();
+        this.buildTimeoutMillis = buildTimeoutMillis;
+        this.rebuildWaitMillis = rebuildWaitMillis;
+        this.hitCounter = Counter.builder("chat.history.cache").tag("result", "hit").register(meterRegistry);
+        this.missCounter = Counter.builder("chat.history.cache").tag("result", "miss").register(meterRegistry);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // 최신 메시지부터 최대 limit개 (최신 -> 오래된 순)
+    // capacity보다 많이 요청하면 캐시에 다 없으므로 DB에서 조회
+    public List<ChatMessageDto> findLatest(Long roomId, int limit) {
+        if(limit > capacity + 1 || chatPubSubTemplate == null) {
+            return loadFromDatabase(roomId, limit);
+        }
+
+        String key = KEY_PREFIX + roomId;
+        boolean building = false;
+        try {
+            List<ChatMessageDto> cached = readCache(key, limit);
+            if(cached == null) {
+                building = tryStartBuild(key);
+            }
+
+            // 다른 요청이 채우는 중이면 잠깐 기다림 (인기 room의 캐시가 비었을 때 DB로 몰리지 않도록)
+            long deadline = System.currentTimeMillis() + rebuildWaitMillis;
+            while(!building && cached == null && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+                cached = readCache(key, limit);
+            }
+            if(cached != null) {
+                hitCounter.increment();
+                return cached;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("recent message cache read failed, roomId={}", roomId, e);
+        }
+        // miss는 한번만 세고 DB도 한번만 조회 (채우기에 실패해도 다시 조회하지 않음)
+        missCounter.increment();
+        return building ? rebuild(key, roomId, limit) : loadFromDatabase(roomId, limit);
+    }
+
+    // 캐시로 응답할 수 없으면 null (캐시 없음, 채우는 중, 다음 페이지 여부를 알 수 없음)
+    private List<ChatMessageDto> readCache(String key, int limit) {
+        Set<byte[]> values = chatPubSubTemplate.opsForZSet().reverseRange(key, 0, limit + 1);
+        if(values == null || values.isEmpty()) {
+            return null;
+        }
+
+        List<ChatMessageDto> messages = new ArrayList<>(limit);
+        for (byte[] value : values) {
+            if(Arrays.equals(value, BUILDING_MARKER)) {
+                return null;
+            }
+            if(Arrays.equals(value, HEAD_MARKER)) {
+                return messages;
+            }
+            if(messages.size() < limit) {
+                messages.add(codec.decode(value));
+            } else {
+                return messages;
+            }
+        }
+        // HEAD까지 가지 못했는데 limit개도 안됨 => 캐시에 없는 이전 메시지가 있을 수 있음
+        return messages.size() == limit ? messages : null;
+    }
+
+    private boolean tryStartBuild(String key) {
+        Long started = chatPubSubTemplate.execute(START_BUILD, List.of(key),
+                ascii(buildTimeoutMillis), BUILDING_MARKER);
+        return started != null && started == 1L;
+    }
+
+    private List<ChatMessageDto> rebuild(String key, Long roomId, int limit) {
+        // HEAD 여부를 알기 위해 1개 더 조회
+        List<ChatMessageDto> messages;
+        try {
+            messages = loadFromDatabase(roomId, capacity + 1);
+        } catch (RuntimeException e) {
+            cancelBuild(key);
+            throw e;
+        }
+        boolean includesHead = messages.size() <= capacity;
+
+        List<Object> args = new ArrayList<>(4 + messages.size() * 2);
+        args.add(ascii(capacity));
+        args.add(ascii(ttlMillis));
+        args.add(BUILDING_MARKER);
+        args.add(includesHead ? HEAD_MARKER : NO_HEAD);
+        for (ChatMessageDto message : messages) {
+            args.add(ascii(message.getMessageId()));
+            args.add(encode(message));
+        }
+        try {
+            chatPubSubTemplate.execute(COMPLETE_BUILD, List.of(key), args.toArray());
+        } catch (RuntimeException e) {
+            // DB에서 읽은 결과로 응답하고 캐시는 다음 요청이 다시 채움
+            log.warn("recent message cache rebuild failed, roomId={}", roomId, e);
+            cancelBuild(key);
+        }
+
+        return messages.size() > limit ? new ArrayList<>(messages.subList(0, limit)) : messages;
+    }
+
+    private void cancelBuild(String key) {
+        try {
+            chatPubSubTemplate.execute(CANCEL_BUILD, List.of(key), BUILDING_MARKER);
+        } catch (RuntimeException e) {
+            // build timeout이 지나면 만료됨
+            log.warn("recent message cache build cancel failed, key={}", key, e);
+        }
+    }
+
+    private List<ChatMessageDto> loadFromDatabase(Long roomId, int limit) {
+        List<ChatMessageRepository.ChatMessageView> chatMessages = chatMessageRepository.findLatest(roomId, PageRequest.of(0, limit));
+        List<ChatMessageDto> chatMessageDtos = new ArrayList<>(chatMessages.size());
+        for (ChatMessageRepository.ChatMessageView chatMessage : chatMessages) {
+            chatMessageDtos.add(ChatMessageDto.builder()
+                    .roomId(roomId)
+                    .messageId(chatMessage.getId())
+                    .message(chatMessage.getContent())
+                    .senderEmail(chatMessage.getSenderEmail())
+                    .build());
+        }
+        return chatMessageDtos;
+    }
+
+    // 저장이 커밋된 메시지만 추가 (id 순서대로 정렬되므로 커밋 순서가 달라도 됨)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessagesPersisted(ChatMessagesPersistedEvent event) {
+        if(chatPubSubTemplate == null) {
+            return;
+        }
+        Timer.Sample sample = messagePathMetrics.start();
+        Map<Long, List<Object>> argsByRoom = new LinkedHashMap<>();
+        for (ChatMessageDto message : event.messages()) {
+            List<Object> args = argsByRoom.computeIfAbsent(message.getRoomId(), roomId -> {
+                List<Object> head = new ArrayList<>();
+                head.add(ascii(capacity));
+                head.add(ascii(ttlMillis));
+                head.add(BUILDING_MARKER);
+                return head;
+            });
+            args.add(ascii(message.getMessageId()));
+            args.add(encode(message));
+        }
+
+        argsByRoom.forEach((roomId, args) -> {
+            String key = KEY_PREFIX + roomId;
+            try {
+                chatPubSubTemplate.execute(APPEND, List.of(key), args.toArray());
+            } catch (RuntimeException e) {
+                // 추가되지 않은 메시지가 빠진 채로 응답하지 않도록 캐시를 지우고 다음 조회에서 다시 채움
+                log.warn("recent message cache append failed, roomId={}", roomId, e);
+                try {
+                    chatPubSubTemplate.delete(key);
+                } catch (RuntimeException ignored) {
+                    // ttl이 지나면 다시 채워짐
+                }
+            }
+        });
+        messagePathMetrics.recordFanout(sample, "recent-cache");
+    }
+
+    // DB에서 읽은 메시지와 같은 값이 되도록 조회에 필요한 필드만 저장
+    private byte[] encode(ChatMessageDto message) {
+        return codec.encode(ChatMessageDto.builder()
+                .roomId(message.getRoomId())
+                .messageId(message.getMessageId())
+                .message(message.getMessage())
+                .senderEmail(message.getSenderEmail())
+                .build());
+    }
+
+    private static byte[] ascii(long value) {
+        return Long.toString(value).getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.chatserver.chat.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// chat.redis.publish.mode=pipelined 일 때 채팅 메시지 PUBLISH를 요청 스레드에서 바로 보내지 않고 큐에 모아서
+// 발행 전용 연결(chatPublish)에서 pipeline으로 한번에 전송 => 메시지마다 왕복을 기다리지 않음
+// batchSize가 차거나 첫 메시지 이후 flushInterval(us)이 지나면 전송
+// 하나의 스레드가 큐 순서대로 보내므로 같은 room의 메시지 순서는 요청 순서와 같음
+// afterPublished(로컬 전달 등)도 flusher 스레드가 pipeline 응답 후 큐 순서대로 실행
+@Component
+@ConditionalOnProperty(name = "chat.bus.type", havingValue = "redis", matchIfMissing = true)
+@Slf4j
+public class RedisBatchPublisher {
+
+    private final RedisConnectionFactory redisConnectionFactory;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long offerTimeoutMillis;
+    private final BlockingQueue<PendingPublish> queue;
+
+    private final Timer flushTimer;
+    private final DistributionSummary batchSizeSummary;
+    private final Counter failedCounter;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public RedisBatchPublisher(@Qualifier("chatPublish") RedisConnectionFactory redisConnectionFactory,
+                               MeterRegistry meterRegistry,
+                               @Value("${chat.redis.publish.mode:direct}") String mode,
+                               @Value("${chat.redis.publish.capacity:10000}") int capacity,
+                               @Value("${chat.redis.publish.batch-size:64}") int batchSize,
+                               @Value("${chat.redis.publish.flush-interval-us:200}") long flushIntervalMicros,
+                               @Value("${chat.redis.publish.offer-timeout-ms:50}") long offerTimeoutMillis) {
+        this.redisConnectionFactory = redisConnectionFactory;
+        this.enabled = "pipelined".equals(mode);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MICROSECONDS.toNanos(flushIntervalMicros);
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+
+        Gauge.builder("chat.redis.publish.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        this.flushTimer = Timer.builder("chat.redis.publish.flush").publishPercentileHistogram().register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("chat.redis.publish.batch.size").register(meterRegistry);
+        this.failedCounter = Counter.builder("chat.redis.publish.failed").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void start() {
+        if(!enabled) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::flushLoop, "chat-redis-publisher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    // 종료시 큐에 남은 메시지를 모두 보낸 뒤 끝냄
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if(flusher != null) {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        // 시간 안에 보내지 못한 메시지는 기다리는 요청이 끝날 수 있도록 실패로 완료
+        failQueued(new IllegalStateException("서버 종료로 redis에 발행하지 못했습니다."));
+    }
+
+    // 반환된 future는 redis가 PUBLISH에 응답하면 완료, 종료중이거나 큐가 가득 찼거나 전송에 실패하면 예외로 완료
+    public CompletableFuture<Void> publish(String channel, byte[] payload) {
+        return publish(channel, payload, null);
+    }
+
+    // 발행에 성공한 메시지만 future 완료 전에 afterPublished를 실행 (요청 스레드에서 실행되는 일이 없음)
+    public CompletableFuture<Void> publish(String channel, byte[] payload, Runnable afterPublished) {
+        if(!running) {
+            failedCounter.increment();
+            return CompletableFuture.failedFuture(new IllegalStateException("redis 발행이 종료되었습니다."));
+        }
+        PendingPublish pendingPublish = new PendingPublish(channel.getBytes(StandardCharsets.UTF_8), payload, afterPublished, new CompletableFuture<>());
+        boolean offered;
+        try {
+            offered = queue.offer(pendingPublish, offerTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            offered = false;
+        }
+        if(!offered) {
+            failedCounter.increment();
+            pendingPublish.published().completeExceptionally(new IllegalStateException("redis 발행 대기열이 가득 찼습니다."));
+        } else if(!running && queue.remove(pendingPublish)) {
+            // 넣는 사이 flusher가 끝났으면 아무도 보내지 않으므로 직접 빼내서 실패
+            fail(List.of(pendingPublish), new IllegalStateException("redis 발행이 종료되었습니다."));
+        }
+        return pendingPublish.published();
+    }
+
+    private void flushLoop() {
+        List<PendingPublish> batch = new ArrayList<>(batchSize);
+        RedisConnection connection = null;
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingPublish first = queue.poll(10, TimeUnit.MILLISECONDS);
+                if(first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // batchSize가 차거나 첫 메시지 이후 flushInterval이 지날때까지 모음
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if(batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingPublish next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if(next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                if(connection == null) {
+                    connection = redisConnectionFactory.getConnection();
+                }
+                if(!flush(connection, batch)) {
+                    // 연결 문제일 수 있으므로 다음 batch는 새 연결로 보냄
+                    closeQuietly(connection);
+                    connection = null;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+                fail(batch, e);
+            } catch (Exception e) {
+                // 연결을 얻지 못한 경우
+                log.warn("redis 발행 연결 실패 : {}", e.getMessage());
+                fail(batch, e);
+                if(connection != null) {
+                    closeQuietly(connection);
+                    connection = null;
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+        if(connection != null) {
+            closeQuietly(connection);
+        }
+    }
+
+    // batch 전체를 하나의 pipeline으로 보내고 결과를 메시지별 future에 전달, 실패가 있었으면 false
+    private boolean flush(RedisConnection connection, List<PendingPublish> batch) {
+        batchSizeSummary.record(batch.size());
+        long start = System.nanoTime();
+        try {
+            connection.openPipeline();
+            for (PendingPublish pendingPublish : batch) {
+                connection.publish(pendingPublish.channel(), pendingPublish.payload());
+            }
+            connection.closePipeline();
+            for (PendingPublish pendingPublish : batch) {
+                complete(pendingPublish);
+            }
+            return true;
+        } catch (RedisPipelineException e) {
+            // 결과 목록에서 실패한 명령만 예외로 들어있음
+            List<Object> results = e.getResults();
+            for (int i = 0; i < batch.size(); i++) {
+                Object result = i < results.size() ? results.get(i) : e;
+                if(result instanceof Exception exception) {
+                    failedCounter.increment();
+                    batch.get(i).published().completeExceptionally(exception);
+                } else {
+                    complete(batch.get(i));
+                }
+            }
+            log.warn("redis pipeline 발행 중 일부 실패 : {}", e.getMessage());
+            return false;
+        } catch (Exception e) {
+            log.warn("redis pipeline 발행 실패 : {}", e.getMessage());
+            fail(batch, e);
+            return false;
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // 발행은 이미 성공했으므로 afterPublished 실패는 발행 결과에 섞지 않고 로그만 남김
+    private void complete(PendingPublish pendingPublish) {
+        if(pendingPublish.afterPublished() != null) {
+            try {
+                pendingPublish.afterPublished().run();
+            } catch (RuntimeException e) {
+                log.error("redis 발행 후 처리 실패", e);
+            }
+        }
+        pendingPublish.published().complete(null);
+    }
+
+    private void failQueued(Exception e) {
+        List<PendingPublish> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        fail(remaining, e);
+    }
+
+    private void fail(List<PendingPublish> batch, Exception e) {
+        for (PendingPublish pendingPublish : batch) {
+            if(pendingPublish.published().completeExceptionally(e)) {
+                failedCounter.increment();
+            }
+        }
+    }
+
+    private static void closeQuietly(RedisConnection connection) {
+        try {
+            connection.close();
+        } catch (Exception ignored) {
+        }
+    }
+
+    private record PendingPublish(byte[] channel, byte[] payload, Runnable afterPublished, CompletableFuture<Void> published) {
+    }
+}
@@ -1,41 +1,125 @@
 package com.example.chatserver.chat.service;
 
+import com.example.chatserver.chat.codec.ChatMessageCodecs;
 import com.example.chatserver.chat.dto.ChatMessageDto;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.chatserver.common.cluster.NodeId;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.data.redis.connection.Message;
 import org.springframework.data.redis.connection.MessageListener;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.messaging.simp.SimpMessageSendingOperations;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
+@ConditionalOnProperty(name = "chat.bus.type", havingValue = "redis", matchIfMissing = true)
+@Slf4j
 public class RedisPubSubService implements MessageListener {
 
-    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisTemplate<String, byte[]> chatPubSubTemplate;
     private final SimpMessageSendingOperations messageTemplate;
+    private final RoomChannels roomChannels;
+    private final ChatMessageCodecs chatMessageCodecs;
+    private final RedisStreamService redisStreamService;
+    private final MessagePathMetrics messagePathMetrics;
+    private final RedisBatchPublisher redisBatchPublisher;
+    private final NodeId nodeId;
+    private final boolean localFastPath;
 
-    public RedisPubSubService(@Qualifier("chatPubSub") StringRedisTemplate stringRedisTemplate, SimpMessageSendingOperations messageTemplate) {
-        this.stringRedisTemplate = stringRedisTemplate;
+    public RedisPubSubService(@Qualifier("chatPubSub") RedisTemplate<String, byte[]> chatPubSubTemplate, SimpMessageSendingOperations messageTemplate, RoomChannels roomChannels, ChatMessageCodecs chatMessageCodecs, RedisStreamService redisStreamService, MessagePathMetrics messagePathMetrics,
+                              RedisBatchPublisher redisBatchPublisher,
+                              NodeId nodeId,
+                              @Value("${chat.delivery.local-fast-path:true}") boolean localFastPath) {
+        this.chatPubSubTemplate = chatPubSubTemplate;
         this.messageTemplate = messageTemplate;
+        this.roomChannels = roomChannels;
+        this.chatMessageCodecs = chatMessageCodecs;
+        this.redisStreamService = redisStreamService;
+        this.messagePathMetrics = messagePathMetrics;
+        this.redisBatchPublisher = redisBatchPublisher;
+        this.nodeId = nodeId;
+        this.localFastPath = localFastPath;
     }
 
-    public void publish(String channel, String message) {
-        stringRedisTemplate.convertAndSend(channel,message);
+    // room별 channel로 발행 => 해당 room 구독자가 있는 노드만 수신
+    // chat.redis.transport=streams 이면 room stream에 추가
+    // chat.delivery.local-fast-path=true 이면 이 노드의 구독자에게는 redis에서 돌아오기를 기다리지 않고 직접 전달하고,
+    // redis에서 돌아온 자기 메시지는 originNodeId로 구분해서 버림 (다른 노드는 지금처럼 redis로 받음)
+    // 로컬 전달은 redis 발행이 성공한 뒤에 함 => 발행 실패로 보낸 사람이 실패를 받은 메시지를 이 노드 구독자만 받는 일이 없음
+    // chat.redis.publish.mode=pipelined 이면 RedisBatchPublisher가 모아서 보내고, 반환된 future는 redis 응답 후 완료
+    // 발행 실패는 예외를 던지지 않고 실패한 future로 반환
+    public CompletableFuture<Void> publish(Long roomId, ChatMessageDto chatMessageDto) {
+        if(localFastPath) {
+            chatMessageDto.setOriginNodeId(nodeId.get());
+        }
+        Timer.Sample sample = messagePathMetrics.start();
+        try {
+            if(redisStreamService.isEnabled()) {
+                // 재접속 replay를 위해 로컬 전달에도 streamId가 필요하므로 stream에 먼저 추가
+                chatMessageDto.setStreamId(redisStreamService.publish(roomId, chatMessageDto));
+                messagePathMetrics.recordPublish(sample, roomId, "streams");
+                dispatchLocal(chatMessageDto);
+                return CompletableFuture.completedFuture(null);
+            }
+            String channel = roomChannels.channelOf(roomId);
+            byte[] payload = chatMessageCodecs.encode(chatMessageDto);
+            if(redisBatchPublisher.isEnabled()) {
+                // 로컬 전달은 flusher 스레드가 pipeline 응답 후 큐 순서대로 실행 => 발행 순서와 같고 요청 스레드에서 실행되지 않음
+                return redisBatchPublisher.publish(channel, payload, () -> {
+                    messagePathMetrics.recordPublish(sample, roomId, "pipelined");
+                    dispatchLocal(chatMessageDto);
+                });
+            }
+            chatPubSubTemplate.convertAndSend(channel, payload);
+            messagePathMetrics.recordPublish(sample, roomId, "pubsub");
+            dispatchLocal(chatMessageDto);
+            return CompletableFuture.completedFuture(null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
     }
 
     // pattern에는 topic의 이름의 패턴이 담겨있고, 이 패턴을 기반으로 다이나믹한 코딩 (chat.* )
     @Override
     public void onMessage(Message message, byte[] pattern) {
-        String payload = new String(message.getBody());
-        ObjectMapper objectMapper = new ObjectMapper();
-        ChatMessageDto chatMessageDto = null;
+        ChatMessageDto chatMessageDto;
+        try {
+            chatMessageDto = chatMessageCodecs.decode(message.getBody());
+        } catch (RuntimeException e) {
+            log.error("redis 메시지 decode 실패 channel : {}", new String(message.getChannel()), e);
+            return;
+        }
+        // 이 노드에서 보낸 메시지는 발행시 로컬 구독자에게 이미 전달함
+        if(isOwnEcho(chatMessageDto)) {
+            return;
+        }
+        dispatch(chatMessageDto);
+    }
+
+    private boolean isOwnEcho(ChatMessageDto chatMessageDto) {
+        return nodeId.get().equals(chatMessageDto.getOriginNodeId());
+    }
+
+    // redis 발행은 이미 성공했으므로 로컬 전달 실패는 발행 결과에 섞지 않고 로그만 남김
+    private void dispatchLocal(ChatMessageDto chatMessageDto) {
+        if(!localFastPath) {
+            return;
+        }
         try {
-            chatMessageDto = objectMapper.readValue(payload, ChatMessageDto.class);
-            messageTemplate.convertAndSend("/topic/"+chatMessageDto.getRoomId(), chatMessageDto);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
+            dispatch(chatMessageDto);
+        } catch (RuntimeException e) {
+            log.error("로컬 구독자 전달 실패 roomId : {}", chatMessageDto.getRoomId(), e);
         }
     }
+
+    private void dispatch(ChatMessageDto chatMessageDto) {
+        Timer.Sample sample = messagePathMetrics.start();
+        messageTemplate.convertAndSend("/topic/"+chatMessageDto.getRoomId(), chatMessageDto.toSubscriberPayload());
+        messagePathMetrics.recordDispatch(sample, chatMessageDto);
+    }
 }
@@ -0,0 +1,71 @@
+package com.example.chatserver.chat.service;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+// chat.bus.type=redis (기본) : room별 redis counter(chat:seq:{roomId})를 INCRBY로 올려서 예약 => 노드가 여러개여도 순번이 겹치지 않음
+// counter가 없으면(처음, 만료) DB에 저장된 마지막 순번으로 채우고 시작
+// 마지막 예약 이후 ttl 동안 쓰이지 않은 room의 counter는 만료 (그 사이 저장중인 메시지가 없으므로 DB 값과 같음)
+@Component
+@ConditionalOnProperty(name = "chat.bus.type", havingValue = "redis", matchIfMissing = true)
+public class RedisRoomSeqAllocator implements RoomSeqAllocator {
+
+    private static final String KEY_PREFIX = "chat:seq:";
+
+    // ARGV : count, ttl, DB의 마지막 순번(없으면 counter가 없을 때 nil 반환)
+    private static final RedisScript<Long> ALLOCATE = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then " +
+            "  if not ARGV[3] then return false end " +
+            "  redis.call('SET', KEYS[1], ARGV[3]) " +
+            "end " +
+            "local last = redis.call('INCRBY', KEYS[1], ARGV[1]) " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[2]) " +
+            "return last", Long.class);
+
+    // ARGV : 예약한 마지막 순번, 실제로 쓴 마지막 순번, ttl
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) ~= ARGV[1] then return 0 end " +
+            "redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3]) " +
+            "return 1", Long.class);
+
+    private final RedisTemplate<String, byte[]> chatPubSubTemplate;
+    private final ChatService chatService;
+    private final long ttlMillis;
+
+    public RedisRoomSeqAllocator(@Qualifier("chatPubSub") RedisTemplate<String, byte[]> chatPubSubTemplate,
+                                 ChatService chatService,
+                                 @Value("${chat.room-actor.seq-ttl:1d}") Duration ttl) {
+        this.chatPubSubTemplate = chatPubSubTemplate;
+        this.chatService = chatService;
+        this.ttlMillis = ttl.toMillis();
+    }
+
+    @Override
+    public long allocate(Long roomId, int count) {
+        List<String> keys = List.of(KEY_PREFIX + roomId);
+        Long last = chatPubSubTemplate.execute(ALLOCATE, keys, ascii(count), ascii(ttlMillis));
+        if(last == null) {
+            // 다른 노드가 먼저 채웠으면 그 값을 그대로 씀
+            last = chatPubSubTemplate.execute(ALLOCATE, keys, ascii(count), ascii(ttlMillis), ascii(chatService.getLastRoomSeq(roomId)));
+        }
+        return last;
+    }
+
+    @Override
+    public void release(Long roomId, long reservedLast, long usedLast) {
+        chatPubSubTemplate.execute(RELEASE, List.of(KEY_PREFIX + roomId), ascii(reservedLast), ascii(usedLast), ascii(ttlMillis));
+    }
+
+    private static byte[] ascii(long value) {
+        return Long.toString(value).getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,276 @@
+package com.example.chatserver.chat.service;
+
+import com.example.chatserver.chat.codec.ChatMessageCodecs;
+import com.example.chatserver.chat.dto.ChatMessageDto;
+import com.example.chatserver.common.cluster.NodeId;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.stream.ByteRecord;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// chat.redis.transport=streams 일 때 pub/sub 대신 room별 redis stream(chat:stream:{roomId})으로 메시지 전달
+// pub/sub은 redis 재연결 중에 발행된 메시지가 유실되지만, stream은 마지막으로 읽은 id부터 다시 읽으므로 빠지는 메시지가 없음
+// stream은 MAXLEN으로 최근 메시지만 유지하고, 재접속한 클라이언트는 last-seen-id 이후 메시지를 stream에서 다시 받음
+@Service
+@ConditionalOnProperty(name = "chat.bus.type", havingValue = "redis", matchIfMissing = true)
+@Slf4j
+public class RedisStreamService {
+
+    private static final String STREAM_KEY_PREFIX = "chat:stream:";
+    private static final byte[] PAYLOAD_FIELD = "m".getBytes(StandardCharsets.UTF_8);
+
+    private final RedisConnectionFactory redisConnectionFactory;
+    private final RedisTemplate<String, byte[]> chatPubSubTemplate;
+    private final SimpMessageSendingOperations messageTemplate;
+    private final ChatMessageCodecs chatMessageCodecs;
+    private final MessagePathMetrics messagePathMetrics;
+    private final NodeId nodeId;
+    private final boolean enabled;
+    private final long maxLen;
+    private final Duration readBlock;
+    private final int readCount;
+
+    // 이 노드에 구독자가 있는 room -> 마지막으로 읽은 stream id
+    private final Map<Long, String> offsets = new ConcurrentHashMap<>();
+    private volatile boolean running;
+    private Thread reader;
+
+    public RedisStreamService(@Qualifier("chatPubSub") RedisConnectionFactory redisConnectionFactory,
+                              @Qualifier("chatPubSub") RedisTemplate<String, byte[]> chatPubSubTemplate,
+                              SimpMessageSendingOperations messageTemplate,
+                              ChatMessageCodecs chatMessageCodecs,
+                              MessagePathMetrics messagePathMetrics,
+                              NodeId nodeId,
+                              @Value("${chat.redis.transport:pubsub}") String transport,
+                              @Value("${chat.redis.stream.max-len:1000}") long maxLen,
+                              @Value("${chat.redis.stream.read-block-ms:100}") long readBlockMillis,
+                              @Value("${chat.redis.stream.read-count:500}") int readCount) {
+        this.redisConnectionFactory = redisConnectionFactory;
+        this.chatPubSubTemplate = chatPubSubTemplate;
+        this.messageTemplate = messageTemplate;
+        this.chatMessageCodecs = chatMessageCodecs;
+        this.messagePathMetrics = messagePathMetrics;
+        this.nodeId = nodeId;
+        this.enabled = "streams".equals(transport);
+        this.maxLen = maxLen;
+        this.readBlock = Duration.ofMillis(readBlockMillis);
+        this.readCount = readCount;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void start() {
+        if(!enabled) {
+            return;
+        }
+        running = true;
+        reader = new Thread(this::readLoop, "chat-stream-reader");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if(reader != null) {
+            reader.join(readBlock.toMillis() * 10);
+        }
+    }
+
+    // 추가된 entry의 stream id 반환
+    public String publish(Long roomId, ChatMessageDto chatMessageDto) {
+        MapRecord<byte[], byte[], byte[]> record = MapRecord.create(streamKey(roomId), Map.of(PAYLOAD_FIELD, chatMessageCodecs.encode(chatMessageDto)));
+        // ~ MAXLEN : 정확히 자르지 않고 redis가 효율적인 시점에 오래된 entry를 정리
+        RecordId recordId = chatPubSubTemplate.execute((RedisCallback<RecordId>) connection ->
+                connection.streamCommands().xAdd(record, XAddOptions.maxlen(maxLen).approximateTrimming(true)));
+        return recordId == null ? null : recordId.getValue();
+    }
+
+    // 이 노드에서 room을 처음 구독 => 현재 stream의 마지막 id부터 읽기 시작
+    public void startReading(Long roomId) {
+        offsets.computeIfAbsent(roomId, this::lastStreamId);
+    }
+
+    public void stopReading(Long roomId) {
+        offsets.remove(roomId);
+    }
+
+    // last-seen-id 이후의 메시지 (최대 limit개)
+    // stream만으로 다 보내줄 수 없으면 gap : limit개를 넘게 놓쳤거나, last-seen-id 이후 entry가 MAXLEN으로 이미 잘려나감
+    // gap이면 메시지는 보내지 않음 (클라이언트가 이력 API로 다시 조회)
+    public Replay readAfter(Long roomId, String lastSeenId, int limit) {
+        byte[] key = streamKey(roomId);
+        // 놓친 메시지가 limit개보다 많은지 알기 위해 1개 더 읽고, 잘려나갔는지 알기 위해 stream의 첫 entry도 같이 읽음
+        List<Object> results = chatPubSubTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.streamCommands().xRange(key, Range.rightUnbounded(Range.Bound.exclusive(lastSeenId)), Limit.limit().count(limit + 1));
+            connection.streamCommands().xRange(key, Range.unbounded(), Limit.limit().count(1));
+            return null;
+        });
+        List<ByteRecord> records = records(results.get(0));
+        List<ByteRecord> first = records(results.get(1));
+
+        // last-seen-id가 stream의 첫 entry보다 앞이면 last-seen-id는 잘려나간 것이고 그 다음 entry들도 잘렸을 수 있음
+        // (stream이 비어있으면 삭제/만료된 것)
+        boolean trimmed = first.isEmpty() || compareStreamIds(first.get(0).getId().getValue(), lastSeenId) > 0;
+        if(trimmed || records.size() > limit) {
+            return new Replay(List.of(), true);
+        }
+        List<ChatMessageDto> chatMessageDtos = new ArrayList<>(records.size());
+        for (ByteRecord record : records) {
+            chatMessageDtos.add(toChatMessageDto(record));
+        }
+        return new Replay(chatMessageDtos, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<ByteRecord> records(Object result) {
+        return result instanceof List<?> list ? (List<ByteRecord>) list : List.of();
+    }
+
+    // stream id(ms-seq) 비교, 형식이 잘못된 id는 가장 작은 값(0-0)으로 봄
+    static int compareStreamIds(String left, String right) {
+        long[] l = parseStreamId(left);
+        long[] r = parseStreamId(right);
+        int compared = Long.compare(l[0], r[0]);
+        return compared != 0 ? compared : Long.compare(l[1], r[1]);
+    }
+
+    private static long[] parseStreamId(String id) {
+        try {
+            int dash = id.indexOf('-');
+            return dash < 0
+                    ? new long[]{Long.parseLong(id), 0}
+                    : new long[]{Long.parseLong(id.substring(0, dash)), Long.parseLong(id.substring(dash + 1))};
+        } catch (NumberFormatException e) {
+            return new long[]{0, 0};
+        }
+    }
+
+    private String lastStreamId(Long roomId) {
+        List<ByteRecord> records = chatPubSubTemplate.execute((RedisCallback<List<ByteRecord>>) connection ->
+                connection.streamCommands().xRevRange(streamKey(roomId), Range.unbounded(), Limit.limit().count(1)));
+        return records == null || records.isEmpty() ? "0-0" : records.get(0).getId().getValue();
+    }
+
+    // 구독중인 모든 room stream을 한번의 XREAD BLOCK으로 읽음
+    // 연결이 끊겨도 offsets에 마지막으로 읽은 id가 남아있으므로 재연결 후 그 다음부터 이어서 읽음
+    private void readLoop() {
+        RedisConnection connection = null;
+        while (running) {
+            try {
+                if(offsets.isEmpty()) {
+                    Thread.sleep(readBlock.toMillis());
+                    continue;
+                }
+                if(connection == null) {
+                    connection = redisConnectionFactory.getConnection();
+                }
+
+                List<ByteRecord> records = connection.streamCommands().xRead(
+                        StreamReadOptions.empty().block(readBlock).count(readCount), streamOffsets());
+                if(records == null) {
+                    continue;
+                }
+                for (ByteRecord record : records) {
+                    Long roomId = roomIdOf(record.getStream());
+                    String id = record.getId().getValue();
+                    // 읽는 도중 구독이 해제된 room은 건너뜀
+                    if(offsets.computeIfPresent(roomId, (key, previous) -> id) == null) {
+                        continue;
+                    }
+                    ChatMessageDto chatMessageDto = toChatMessageDto(record);
+                    // 이 노드에서 보낸 메시지는 발행시 로컬 구독자에게 이미 전달함
+                    if(nodeId.get().equals(chatMessageDto.getOriginNodeId())) {
+                        continue;
+                    }
+                    Timer.Sample sample = messagePathMetrics.start();
+                    messageTemplate.convertAndSend("/topic/" + roomId, chatMessageDto.toSubscriberPayload());
+                    messagePathMetrics.recordDispatch(sample, chatMessageDto);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (Exception e) {
+                log.warn("redis stream 읽기 실패, 재연결 후 마지막 id부터 다시 읽음 : {}", e.getMessage());
+                if(connection != null) {
+                    closeQuietly(connection);
+                    connection = null;
+                }
+                sleepQuietly(readBlock.toMillis() * 10);
+            }
+        }
+        if(connection != null) {
+            closeQuietly(connection);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private StreamOffset<byte[]>[] streamOffsets() {
+        List<StreamOffset<byte[]>> streamOffsets = new ArrayList<>(offsets.size());
+        offsets.forEach((roomId, id) -> streamOffsets.add(StreamOffset.create(streamKey(roomId), ReadOffset.from(id))));
+        return streamOffsets.toArray(new StreamOffset[0]);
+    }
+
+    private ChatMessageDto toChatMessageDto(ByteRecord record) {
+        // entry에는 payload 필드 하나만 저장
+        byte[] payload = record.getValue().values().iterator().next();
+        ChatMessageDto chatMessageDto = chatMessageCodecs.decode(payload);
+        chatMessageDto.setStreamId(record.getId().getValue());
+        return chatMessageDto;
+    }
+
+    private static byte[] streamKey(Long roomId) {
+        return (STREAM_KEY_PREFIX + roomId).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Long roomIdOf(byte[] streamKey) {
+        return Long.parseLong(new String(streamKey, StandardCharsets.UTF_8).substring(STREAM_KEY_PREFIX.length()));
+    }
+
+    private static void closeQuietly(RedisConnection connection) {
+        try {
+            connection.close();
+        } catch (Exception ignored) {
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // 재접속 replay 결과, gap이면 stream만으로는 놓친 메시지를 다 보내줄 수 없음
+    public record Replay(List<ChatMessageDto> messages, boolean gap) {
+    }
+}
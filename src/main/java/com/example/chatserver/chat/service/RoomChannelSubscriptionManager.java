@@ -0,0 +1,190 @@
+package com.example.chatserver.chat.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.adapter.MessageListenerAdapter;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// 이 노드에 해당 room을 구독중인 STOMP 세션이 있을 때만 redis channel을 구독 (streams 모드에서는 room stream을 읽음)
+// channel별로 로컬 구독 수를 세고(reference count), 0이 되면 바로 끊지 않고 일정시간 뒤에 구독 해제 (재접속/새로고침 대비)
+// 읽음 알림/presence channel(RoomChannels.readReceiptChannelOf, presenceChannelOf)도 room 구독과 같이 구독/해제 (streams 모드에서도 pub/sub)
+@Component
+@ConditionalOnProperty(name = "chat.bus.type", havingValue = "redis", matchIfMissing = true)
+@Slf4j
+public class RoomChannelSubscriptionManager {
+
+    private final RedisMessageListenerContainer container;
+    private final MessageListenerAdapter messageListenerAdapter;
+    private final ReadReceiptService readReceiptService;
+    private final PresenceService presenceService;
+    private final RoomChannels roomChannels;
+    private final RedisStreamService redisStreamService;
+    private final long unsubscribeDelayMillis;
+
+    private final Map<String, ChannelSubscription> subscriptions = new HashMap<>();
+    // room channel -> 이벤트 channel을 구독중인 room 수. streams 모드에서는 room별로 구독하지만 shard를 쓰면 여러 room이 같은 channel을 쓰므로 따로 셈
+    private final Map<String, ChannelSubscription> eventChannels = new HashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "room-channel-unsubscriber");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RoomChannelSubscriptionManager(RedisMessageListenerContainer container,
+                                          MessageListenerAdapter messageListenerAdapter,
+                                          ReadReceiptService readReceiptService,
+                                          PresenceService presenceService,
+                                          RoomChannels roomChannels,
+                                          RedisStreamService redisStreamService,
+                                          @Value("${chat.redis.unsubscribe-delay-ms:30000}") long unsubscribeDelayMillis) {
+        this.container = container;
+        this.messageListenerAdapter = messageListenerAdapter;
+        this.readReceiptService = readReceiptService;
+        this.presenceService = presenceService;
+        this.roomChannels = roomChannels;
+        this.redisStreamService = redisStreamService;
+        this.unsubscribeDelayMillis = unsubscribeDelayMillis;
+    }
+
+    // 로컬 세션이 room을 구독
+    public void acquire(Long roomId) {
+        ChannelSubscription subscription;
+        synchronized (this) {
+            subscription = subscriptions.computeIfAbsent(channelOf(roomId), c -> new ChannelSubscription(c, roomId));
+            subscription.count++;
+            // 구독 해제 대기중에 다시 구독하면 redis 구독은 그대로 유지
+            cancelPendingUnsubscribe(subscription);
+        }
+        syncRoom(subscription);
+    }
+
+    // 로컬 세션이 room 구독을 해제 (unsubscribe, disconnect)
+    public synchronized void release(Long roomId) {
+        String channel = channelOf(roomId);
+        ChannelSubscription subscription = subscriptions.get(channel);
+        if(subscription == null || subscription.count == 0) {
+            return;
+        }
+        subscription.count--;
+        if(subscription.count == 0) {
+            subscription.pendingUnsubscribe = scheduler.schedule(() -> unsubscribeIfUnused(channel), unsubscribeDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void unsubscribeIfUnused(String channel) {
+        ChannelSubscription subscription;
+        synchronized (this) {
+            subscription = subscriptions.get(channel);
+            if(subscription == null || subscription.count > 0) {
+                return;
+            }
+            cancelPendingUnsubscribe(subscription);
+        }
+        syncRoom(subscription);
+    }
+
+    private void cancelPendingUnsubscribe(ChannelSubscription subscription) {
+        if(subscription.pendingUnsubscribe != null) {
+            subscription.pendingUnsubscribe.cancel(false);
+            subscription.pendingUnsubscribe = null;
+        }
+    }
+
+    // reference count는 this로 잠그고 바로 풀고, redis 구독/해제는 channel별 redisLock 안에서 현재 count에 맞춤
+    // => 느린 redis 호출이 다른 room의 acquire/release를 막지 않고, 같은 channel의 구독/해제 순서는 뒤바뀌지 않음
+    private void syncRoom(ChannelSubscription subscription) {
+        synchronized (subscription.redisLock) {
+            boolean wanted;
+            synchronized (this) {
+                wanted = subscription.count > 0 || subscription.pendingUnsubscribe != null;
+            }
+            if(wanted && !subscription.subscribed) {
+                if(redisStreamService.isEnabled()) {
+                    redisStreamService.startReading(subscription.roomId);
+                } else {
+                    container.addMessageListener(messageListenerAdapter, new ChannelTopic(subscription.channel));
+                }
+                subscription.subscribed = true;
+                syncEvents(subscription.roomId, 1);
+            } else if(!wanted && subscription.subscribed) {
+                if(redisStreamService.isEnabled()) {
+                    redisStreamService.stopReading(subscription.roomId);
+                } else {
+                    container.removeMessageListener(messageListenerAdapter, new ChannelTopic(subscription.channel));
+                }
+                subscription.subscribed = false;
+                syncEvents(subscription.roomId, -1);
+                log.debug("redis channel 구독 해제 : {}", subscription.channel);
+            }
+            removeIfUnused(subscriptions, subscription);
+        }
+    }
+
+    // 이벤트 channel은 shard를 쓰면 여러 room이 공유하므로 구독중인 room 수를 count로 셈
+    private void syncEvents(Long roomId, int delta) {
+        ChannelSubscription events;
+        synchronized (this) {
+            events = eventChannels.computeIfAbsent(roomChannels.channelOf(roomId), c -> new ChannelSubscription(c, roomId));
+            events.count += delta;
+        }
+        synchronized (events.redisLock) {
+            boolean wanted;
+            synchronized (this) {
+                wanted = events.count > 0;
+            }
+            if(wanted && !events.subscribed) {
+                container.addMessageListener(readReceiptService, new ChannelTopic(roomChannels.readReceiptChannelOf(events.roomId)));
+                container.addMessageListener(presenceService, new ChannelTopic(roomChannels.presenceChannelOf(events.roomId)));
+                events.subscribed = true;
+            } else if(!wanted && events.subscribed) {
+                container.removeMessageListener(readReceiptService, new ChannelTopic(roomChannels.readReceiptChannelOf(events.roomId)));
+                container.removeMessageListener(presenceService, new ChannelTopic(roomChannels.presenceChannelOf(events.roomId)));
+                events.subscribed = false;
+            }
+            removeIfUnused(eventChannels, events);
+        }
+    }
+
+    // redis 구독까지 해제된 뒤에만 map에서 뺌 (해제중에 다시 acquire하면 같은 객체를 써서 다시 구독)
+    private synchronized void removeIfUnused(Map<String, ChannelSubscription> owner, ChannelSubscription subscription) {
+        if(!subscription.subscribed && subscription.count == 0 && subscription.pendingUnsubscribe == null) {
+            owner.remove(subscription.channel, subscription);
+        }
+    }
+
+    // stream은 room별로 읽으므로 shard channel을 쓰지 않음
+    private String channelOf(Long roomId) {
+        return redisStreamService.isEnabled() ? "stream." + roomId : roomChannels.channelOf(roomId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    // count, pendingUnsubscribe는 manager(this)로, subscribed는 redisLock으로 보호
+    private static class ChannelSubscription {
+        private final String channel;
+        private final Long roomId;
+        private final Object redisLock = new Object();
+        private int count;
+        private ScheduledFuture<?> pendingUnsubscribe;
+        private boolean subscribed;
+
+        private ChannelSubscription(String channel, Long roomId) {
+            this.channel = channel;
+            this.roomId = roomId;
+        }
+    }
+}
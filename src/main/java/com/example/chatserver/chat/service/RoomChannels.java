@@ -0,0 +1,33 @@
+package com.example.chatserver.chat.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// room id -> redis pub/sub channel 이름
+// shards가 0이면 room마다 channel(chat.room.{roomId}), 0보다 크면 room id를 shard로 나눈 channel(chat.shard.{n})
+// 채팅 메시지 외의 room 이벤트는 같은 channel 이름에 종류별 suffix를 붙임 (chat.room.{roomId}.read, chat.room.{roomId}.presence)
+@Component
+public class RoomChannels {
+
+    private final int shards;
+
+    public RoomChannels(@Value("${chat.redis.room-channel-shards:0}") int shards) {
+        this.shards = shards;
+    }
+
+    public String channelOf(Long roomId) {
+        if(shards <= 0) {
+            return "chat.room." + roomId;
+        }
+        return "chat.shard." + Math.floorMod(roomId, shards);
+    }
+
+    // 읽음 알림, presence 이벤트는 채팅 메시지와 같은 room(shard) 단위 channel에 suffix를 붙여 발행 => room 구독자가 있는 노드만 받음
+    public String readReceiptChannelOf(Long roomId) {
+        return channelOf(roomId) + ".read";
+    }
+
+    public String presenceChannelOf(Long roomId) {
+        return channelOf(roomId) + ".presence";
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.chatserver.chat.service;
+
+// 채팅방 참여자가 추가(joined=true)/삭제되었을 때 발행. 커밋 이후 membership 캐시 무효화, inbox 반영
+public record RoomMembershipChangedEvent(Long roomId, Long memberId, boolean joined) {
+}
@@ -0,0 +1,80 @@
+package com.example.chatserver.chat.service;
+
+import com.example.chatserver.chat.repository.ChatParticipantRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+
+// 노드별 채팅방 참여자 캐시 (room id -> member id set)
+// SUBSCRIBE 권한 검증시 DB 대신 메모리에서 확인하기 위함
+// 처음 조회시 DB에서 채우고, 참여자가 바뀌면 redis로 모든 노드에 무효화 메시지를 보냄 (chat.bus.type=in-process면 이 노드만 무효화)
+@Component
+@Slf4j
+public class RoomMembershipIndex implements MessageListener {
+
+    public static final String INVALIDATION_CHANNEL = "chat.membership";
+
+    private final ChatParticipantRepository chatParticipantRepository;
+    // chat.bus.type=in-process면 redis 연결이 없으므로 null
+    private final RedisTemplate<String, byte[]> chatPubSubTemplate;
+    private final LoadingCache<Long, Set<Long>> members;
+
+    public RoomMembershipIndex(ChatParticipantRepository chatParticipantRepository,
+                               @Qualifier("chatPubSub") ObjectProvider<RedisTemplate<String, byte[]>> chatPubSubTemplate,
+                               @Value("${chat.membership-cache.max-members:1000000}") long maxMembers,
+                               @Value("${chat.membership-cache.expire-after-access:30m}") Duration expireAfterAccess) {
+        this.chatParticipantRepository = chatParticipantRepository;
+        this.chatPubSubTemplate = chatPubSubTemplate.getIfAvailable();
+        // 방 개수가 아니라 캐시된 참여자 수 기준으로 메모리 제한
+        this.members = Caffeine.newBuilder()
+                .maximumWeight(maxMembers)
+                .weigher((Long roomId, Set<Long> memberIds) -> memberIds.size() + 1)
+                .expireAfterAccess(expireAfterAccess)
+                .build(roomId -> Set.copyOf(chatParticipantRepository.findMemberIdsByRoomId(roomId)));
+    }
+
+    public boolean isMember(Long roomId, Long memberId) {
+        return members.get(roomId).contains(memberId);
+    }
+
+    public Set<Long> memberIds(Long roomId) {
+        return members.get(roomId);
+    }
+
+    // 캐시에 있을 때만 반환, 없으면 null (DB 조회 없음)
+    public Set<Long> cachedMemberIds(Long roomId) {
+        return members.getIfPresent(roomId);
+    }
+
+    // 참여자 변경 트랜잭션이 커밋된 뒤 무효화해야 다른 요청이 이전 참여자 목록을 다시 캐싱하지 않음
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMembershipChanged(RoomMembershipChangedEvent event) {
+        members.invalidate(event.roomId());
+        if(chatPubSubTemplate == null) {
+            return;
+        }
+        chatPubSubTemplate.convertAndSend(INVALIDATION_CHANNEL, String.valueOf(event.roomId()).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    // 다른 노드(자기 자신 포함)에서 보낸 무효화 메시지
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            members.invalidate(Long.parseLong(new String(message.getBody(), StandardCharsets.US_ASCII)));
+        } catch (NumberFormatException e) {
+            log.warn("잘못된 membership 무효화 메시지 : {}", new String(message.getBody()));
+        }
+    }
+}
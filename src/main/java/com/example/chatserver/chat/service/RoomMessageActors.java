@@ -0,0 +1,285 @@
+package com.example.chatserver.chat.service;
+
+import com.example.chatserver.chat.bus.ChatMessageBus;
+import com.example.chatserver.chat.dto.ChatMessageDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// chat.message.execution=room-actor 일 때 채팅 메시지를 요청 스레드에서 바로 저장/발행하지 않고 room을 맡은 worker에 넘김
+// room id로 worker를 정하므로 같은 room의 메시지는 항상 같은 worker(단일 스레드)가 받은 순서대로 처리
+// => room마다 쓰는 스레드가 하나뿐이라 lock 없이 받은 순서대로 room 순번(roomSeq)을 붙이고, 모인 메시지를 batch insert 한 뒤 같은 순서로 발행
+// 서로 다른 room은 worker 수만큼 병렬로 처리
+// 순번은 RoomSeqAllocator에서 batch의 room별로 한번에 예약 => 여러 노드가 같은 room 메시지를 받아도 겹치지 않음 (DB unique index로도 보장)
+@Component
+@Slf4j
+public class RoomMessageActors {
+
+    private final ChatService chatService;
+    private final ChatMessageBus chatMessageBus;
+    private final RoomSeqAllocator roomSeqAllocator;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long offerTimeoutMillis;
+    private final Worker[] workers;
+
+    private final DistributionSummary batchSizeSummary;
+    private final Counter failedCounter;
+
+    private volatile boolean running;
+    // stop() 이후에는 새 메시지를 받지 않음 (start 전에 넣은 메시지는 start 후 처리)
+    private volatile boolean stopped;
+
+    public RoomMessageActors(ChatService chatService,
+                             ChatMessageBus chatMessageBus,
+                             RoomSeqAllocator roomSeqAllocator,
+                             MeterRegistry meterRegistry,
+                             @Value("${chat.message.execution:direct}") String execution,
+                             @Value("${chat.room-actor.workers:0}") int workers,
+                             @Value("${chat.room-actor.capacity:10000}") int capacity,
+                             @Value("${chat.room-actor.batch-size:100}") int batchSize,
+                             @Value("${chat.room-actor.offer-timeout-ms:50}") long offerTimeoutMillis) {
+        this.chatService = chatService;
+        this.chatMessageBus = chatMessageBus;
+        this.roomSeqAllocator = roomSeqAllocator;
+        this.enabled = "room-actor".equals(execution);
+        this.batchSize = batchSize;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        // 0이면 core 수만큼
+        int workerCount = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        this.workers = new Worker[enabled ? workerCount : 0];
+        for (int i = 0; i < this.workers.length; i++) {
+            this.workers[i] = new Worker(i, capacity);
+        }
+
+        Gauge.builder("chat.room-actor.mailbox.depth", this, RoomMessageActors::mailboxDepth).register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("chat.room-actor.batch.size").register(meterRegistry);
+        this.failedCounter = Counter.builder("chat.room-actor.failed").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void start() {
+        if(!enabled) {
+            return;
+        }
+        running = true;
+        for (Worker worker : workers) {
+            worker.thread.start();
+        }
+    }
+
+    // 종료시 mailbox에 남은 메시지를 모두 처리한 뒤 끝냄
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        stopped = true;
+        running = false;
+        for (Worker worker : workers) {
+            worker.thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        // 시간 안에 처리하지 못한 메시지는 기다리는 요청이 끝날 수 있도록 실패로 완료
+        IllegalStateException failure = new IllegalStateException("서버 종료로 메시지를 처리하지 못했습니다.");
+        for (Worker worker : workers) {
+            List<PendingMessage> remaining = new ArrayList<>();
+            worker.mailbox.drainTo(remaining);
+            for (PendingMessage pendingMessage : remaining) {
+                fail(pendingMessage, failure);
+            }
+        }
+    }
+
+    // 반환된 future는 저장과 발행이 끝나면 완료, 종료중이거나 mailbox가 가득 찼거나 저장/발행에 실패하면 예외로 완료
+    public CompletableFuture<Void> submit(ChatMessageDto chatMessageDto) {
+        if(stopped) {
+            failedCounter.increment();
+            return CompletableFuture.failedFuture(new IllegalStateException("채팅방 메시지 처리가 종료되었습니다."));
+        }
+        Worker worker = workers[Math.floorMod(chatMessageDto.getRoomId().hashCode(), workers.length)];
+        PendingMessage pendingMessage = new PendingMessage(chatMessageDto, new CompletableFuture<>());
+        boolean offered;
+        try {
+            offered = worker.mailbox.offer(pendingMessage, offerTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            offered = false;
+        }
+        if(!offered) {
+            failedCounter.increment();
+            pendingMessage.delivered().completeExceptionally(new IllegalStateException("채팅방 처리 대기열이 가득 찼습니다."));
+        } else if(stopped && worker.mailbox.remove(pendingMessage)) {
+            // 넣는 사이 stop()이 mailbox를 비웠으면 아무도 처리하지 않으므로 직접 빼내서 실패
+            fail(pendingMessage, new IllegalStateException("채팅방 메시지 처리가 종료되었습니다."));
+        }
+        return pendingMessage.delivered();
+    }
+
+    private double mailboxDepth() {
+        long depth = 0;
+        for (Worker worker : workers) {
+            depth += worker.mailbox.size();
+        }
+        return depth;
+    }
+
+    private final class Worker implements Runnable {
+
+        private final BlockingQueue<PendingMessage> mailbox;
+        private final Thread thread;
+
+        private Worker(int index, int capacity) {
+            this.mailbox = new ArrayBlockingQueue<>(capacity);
+            this.thread = Thread.ofPlatform().name("chat-room-actor-" + index).daemon(true).unstarted(this);
+        }
+
+        @Override
+        public void run() {
+            List<PendingMessage> batch = new ArrayList<>(batchSize);
+            while (running || !mailbox.isEmpty()) {
+                try {
+                    PendingMessage first = mailbox.poll(100, TimeUnit.MILLISECONDS);
+                    if(first == null) {
+                        continue;
+                    }
+                    // 기다리지 않고 이미 쌓여있는 만큼만 모음 (몰릴수록 batch가 커짐)
+                    batch.add(first);
+                    mailbox.drainTo(batch, batchSize - 1);
+                    process(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    running = false;
+                } catch (Exception e) {
+                    log.error("채팅방 메시지 처리 실패", e);
+                    for (PendingMessage pendingMessage : batch) {
+                        fail(pendingMessage, e);
+                    }
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+
+        // 순번 예약 -> batch insert -> 받은 순서대로 발행
+        private void process(List<PendingMessage> batch) {
+            batchSizeSummary.record(batch.size());
+            // batch 안의 room별로 필요한 만큼 순번을 한번에 예약
+            Map<Long, SeqRange> ranges = new LinkedHashMap<>();
+            for (PendingMessage pendingMessage : batch) {
+                ranges.computeIfAbsent(pendingMessage.chatMessageDto().getRoomId(), roomId -> new SeqRange()).count++;
+            }
+            try {
+                for (Map.Entry<Long, SeqRange> entry : ranges.entrySet()) {
+                    entry.getValue().reserve(roomSeqAllocator.allocate(entry.getKey(), entry.getValue().count));
+                }
+            } catch (RuntimeException e) {
+                // 순번 예약 실패 => 이번 batch는 저장하지 않으므로 예약한 순번도 돌려줌
+                releaseUnused(ranges);
+                throw e;
+            }
+
+            List<ChatMessageDto> chatMessageDtos = new ArrayList<>(batch.size());
+            for (PendingMessage pendingMessage : batch) {
+                ChatMessageDto chatMessageDto = pendingMessage.chatMessageDto();
+                chatMessageDto.setRoomSeq(ranges.get(chatMessageDto.getRoomId()).next++);
+                chatMessageDtos.add(chatMessageDto);
+            }
+
+            List<PendingMessage> persisted;
+            try {
+                chatService.saveMessages(chatMessageDtos);
+                persisted = batch;
+            } catch (Exception e) {
+                // batch 중 하나라도 실패하면(ex. 없는 room) 전체가 rollback 되므로 한건씩 다시 저장
+                // 실패한 메시지는 순번을 쓰지 않도록 예약한 범위 안에서 저장된 메시지만 이어서 번호를 붙임
+                log.warn("room actor batch insert 실패, 개별 저장으로 재시도 : {}", e.getMessage());
+                ranges.values().forEach(SeqRange::rewind);
+                persisted = new ArrayList<>(batch.size());
+                for (PendingMessage pendingMessage : batch) {
+                    ChatMessageDto chatMessageDto = pendingMessage.chatMessageDto();
+                    SeqRange range = ranges.get(chatMessageDto.getRoomId());
+                    chatMessageDto.setRoomSeq(range.next);
+                    try {
+                        chatService.saveMessage(chatMessageDto.getRoomId(), chatMessageDto);
+                        range.next++;
+                        persisted.add(pendingMessage);
+                    } catch (Exception ex) {
+                        log.error("메시지 저장 실패 roomId : {}", chatMessageDto.getRoomId(), ex);
+                        chatMessageDto.setRoomSeq(null);
+                        fail(pendingMessage, ex);
+                    }
+                }
+            }
+            releaseUnused(ranges);
+
+            for (PendingMessage pendingMessage : persisted) {
+                ChatMessageDto chatMessageDto = pendingMessage.chatMessageDto();
+                chatMessageBus.publish(chatMessageDto.getRoomId(), chatMessageDto).whenComplete((ignored, e) -> {
+                    if(e != null) {
+                        fail(pendingMessage, e);
+                    } else {
+                        pendingMessage.delivered().complete(null);
+                    }
+                });
+            }
+        }
+
+        // 예약했지만 저장에 쓰지 않은 뒤쪽 순번을 돌려줌 (그 사이 다른 노드가 예약했으면 빈 번호로 남음)
+        private void releaseUnused(Map<Long, SeqRange> ranges) {
+            ranges.forEach((roomId, range) -> {
+                if(range.reserved && range.next <= range.last) {
+                    try {
+                        roomSeqAllocator.release(roomId, range.last, range.next - 1);
+                    } catch (RuntimeException e) {
+                        log.warn("room 순번 반환 실패 roomId : {}", roomId, e);
+                    }
+                }
+            });
+        }
+    }
+
+    private void fail(PendingMessage pendingMessage, Throwable e) {
+        if(pendingMessage.delivered().completeExceptionally(e)) {
+            failedCounter.increment();
+        }
+    }
+
+    private record PendingMessage(ChatMessageDto chatMessageDto, CompletableFuture<Void> delivered) {
+    }
+
+    // batch 안에서 한 room에 예약한 순번 범위 [first, last], next = 다음에 붙일 순번
+    private static final class SeqRange {
+        private int count;
+        private boolean reserved;
+        private long first;
+        private long last;
+        private long next;
+
+        private void reserve(long last) {
+            this.reserved = true;
+            this.last = last;
+            this.first = last - count + 1;
+            this.next = first;
+        }
+
+        private void rewind() {
+            next = first;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.chatserver.chat.service;
+
+// room 순번(roomSeq) 발급. 같은 room의 순번은 여러 노드가 동시에 발급해도 겹치지 않아야 함
+// chat.bus.type : redis(기본, 노드간 공유하는 redis counter), in-process(단일 노드, 메모리 counter)
+public interface RoomSeqAllocator {
+
+    // room의 다음 순번 count개를 예약하고 예약한 범위의 마지막 순번을 반환 (첫 순번 = 반환값 - count + 1)
+    long allocate(Long roomId, int count);
+
+    // 예약한 뒤 쓰지 않은 순번을 돌려줌. 그 사이 다른 예약이 없을 때만 마지막 순번을 usedLast로 되돌리고, 아니면 빈 번호로 남음
+    void release(Long roomId, long reservedLast, long usedLast);
+}
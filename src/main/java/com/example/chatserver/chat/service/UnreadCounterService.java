@@ -0,0 +1,258 @@
+package com.example.chatserver.chat.service;
+
+import com.example.chatserver.chat.dto.ChatMessageDto;
+import com.example.chatserver.chat.repository.ChatMessageRepository;
+import com.example.chatserver.chat.repository.ChatParticipantRepository;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// member별 안읽은 메시지 수 (redis hash chat:unread:{memberId}, field = room id)
+// 메시지 저장이 커밋되면 보낸 사람을 뺀 참여자들의 카운트를 증가, 읽음처리 하면 0으로
+// 내 채팅방 목록은 방마다 count 쿼리를 하지 않고 hash 하나만 읽음
+// INIT_FIELD가 없는 hash(처음 조회, redis 초기화 등)는 DB에서 계산해서 채우고, 주기적으로 DB 기준으로 다시 맞춤
+// DB 값으로 채울 때는 계산 전에 읽은 값에서 바뀌지 않은 field만 덮어씀 => 계산하는 동안의 증가/읽음처리를 잃지 않음
+// chat.bus.type=in-process(redis 없음)면 조회할 때마다 DB에서 계산
+@Service
+@Slf4j
+public class UnreadCounterService {
+
+    private static final String KEY_PREFIX = "chat:unread:";
+    private static final String INIT_FIELD = "_init";
+    private static final String RECONCILE_LOCK_KEY = "chat:unread:reconcile-lock";
+    private static final byte[] ABSENT = new byte[0];
+
+    // ARGV : init field, (field, 계산 전 값(없었으면 빈값), DB에서 계산한 값)...
+    // 지금 값이 계산 전 값과 같은 field만 바꿈, 바뀐 field는 다음 reconcile이나 읽음처리 때 맞춰짐
+    private static final RedisScript<Long> REPLACE_UNTOUCHED = new DefaultRedisScript<>(
+            "local replaced = 0 " +
+            "for i = 2, #ARGV, 3 do " +
+            "local current = redis.call('HGET', KEYS[1], ARGV[i]) " +
+            "if (current == false and ARGV[i + 1] == '') or current == ARGV[i + 1] then " +
+            "redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 2]) replaced = replaced + 1 end " +
+            "end " +
+            "redis.call('HSET', KEYS[1], ARGV[1], '1') " +
+            "return replaced", Long.class);
+
+    // chat.bus.type=in-process면 redis 연결이 없으므로 null
+    private final RedisTemplate<String, byte[]> chatPubSubTemplate;
+    private final ChatParticipantRepository chatParticipantRepository;
+    private final ChatMessageRepository chatMessageRepository;
+    private final RoomMembershipIndex roomMembershipIndex;
+    private final MessagePathMetrics messagePathMetrics;
+    private final int reconcileChunkSize;
+    private final Duration reconcileLockTtl;
+
+    public UnreadCounterService(@Qualifier("chatPubSub") ObjectProvider<RedisTemplate<String, byte[]>> chatPubSubTemplate,
+                                ChatParticipantRepository chatParticipantRepository,
+                                ChatMessageRepository chatMessageRepository,
+                                RoomMembershipIndex roomMembershipIndex,
+                                MessagePathMetrics messagePathMetrics,
+                                @Value("${chat.unread.reconcile-chunk-size:1000}") int reconcileChunkSize,
+                                @Value("${chat.unread.reconcile-interval-ms:600000}") long reconcileIntervalMillis) {
+        this.chatPubSubTemplate = chatPubSubTemplate.getIfAvailable();
+        this.chatParticipantRepository = chatParticipantRepository;
+        this.chatMessageRepository = chatMessageRepository;
+        this.roomMembershipIndex = roomMembershipIndex;
+        this.messagePathMetrics = messagePathMetrics;
+        this.reconcileChunkSize = reconcileChunkSize;
+        // 여러 노드 중 한 노드만 reconcile 하도록 주기만큼 lock 유지
+        this.reconcileLockTtl = Duration.ofMillis(reconcileIntervalMillis);
+    }
+
+    // room id -> 안읽은 메시지 수
+    public Map<Long, Long> getUnreadCounts(Long memberId) {
+        if(chatPubSubTemplate == null) {
+            return toCounts(chatParticipantRepository.countUnreadByMemberId(memberId));
+        }
+        String key = KEY_PREFIX + memberId;
+        Map<String, byte[]> entries;
+        try {
+            entries = chatPubSubTemplate.<String, byte[]>opsForHash().entries(key);
+            if(entries.containsKey(INIT_FIELD)) {
+                Map<Long, Long> counts = new HashMap<>();
+                entries.forEach((field, value) -> {
+                    if(!INIT_FIELD.equals(field)) {
+                        counts.put(Long.parseLong(field), Long.parseLong(new String(value, StandardCharsets.US_ASCII)));
+                    }
+                });
+                return counts;
+            }
+        } catch (RuntimeException e) {
+            log.warn("unread counter read failed, memberId={}", memberId, e);
+            return toCounts(chatParticipantRepository.countUnreadByMemberId(memberId));
+        }
+
+        // 위에서 읽은 entries가 계산 전 값
+        List<ChatParticipantRepository.UnreadCountView> unreadCounts = chatParticipantRepository.countUnreadByMemberId(memberId);
+        try {
+            replaceUntouched(memberId, entries, unreadCounts);
+        } catch (RuntimeException e) {
+            log.warn("unread counter init failed, memberId={}", memberId, e);
+        }
+        return toCounts(unreadCounts);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessagesPersisted(ChatMessagesPersistedEvent event) {
+        if(chatPubSubTemplate == null) {
+            return;
+        }
+        Timer.Sample sample = messagePathMetrics.start();
+        try {
+            // 참여자 목록은 DB에서 읽을 수도 있으므로 pipeline(연결 점유)을 열기 전에 room별로 한번씩 모두 구함
+            Map<Long, Set<Long>> membersByRoom = new HashMap<>();
+            for (ChatMessageDto message : event.messages()) {
+                membersByRoom.computeIfAbsent(message.getRoomId(), roomMembershipIndex::memberIds);
+            }
+            chatPubSubTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (ChatMessageDto message : event.messages()) {
+                    byte[] field = ascii(message.getRoomId());
+                    Set<Long> memberIds = membersByRoom.get(message.getRoomId());
+                    for (Long memberId : memberIds) {
+                        if(!memberId.equals(message.getSenderId())) {
+                            connection.hashCommands().hIncrBy(ascii(KEY_PREFIX + memberId), field, 1);
+                        }
+                    }
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            // reconcile에서 맞춰짐
+            log.warn("unread counter increment failed", e);
+        }
+        messagePathMetrics.recordFanout(sample, "unread");
+    }
+
+    // 마지막 메시지까지 읽었으면 0, 일부만 읽었으면 cursor 이후 메시지 수를 다시 계산
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoomRead(ChatRoomReadEvent event) {
+        if(chatPubSubTemplate == null) {
+            return;
+        }
+        try {
+            long unreadCount = event.fullyRead() ? 0 : chatMessageRepository.countUnread(event.roomId(), event.memberId(), event.lastReadMessageId());
+            chatPubSubTemplate.opsForHash().put(KEY_PREFIX + event.memberId(), String.valueOf(event.roomId()), ascii(unreadCount));
+        } catch (RuntimeException e) {
+            log.warn("unread counter reset failed, memberId={}, roomId={}", event.memberId(), event.roomId(), e);
+        }
+    }
+
+    // 새로 참여한 방은 read cursor가 마지막 메시지에서 시작하므로 0부터 셈
+    // 커밋 이후 이미 증가된 값이 있으면 덮어쓰지 않도록 없을때만 설정, 나간 방은 제거
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMembershipChanged(RoomMembershipChangedEvent event) {
+        if(chatPubSubTemplate == null) {
+            return;
+        }
+        String key = KEY_PREFIX + event.memberId();
+        String field = String.valueOf(event.roomId());
+        try {
+            if(event.joined()) {
+                chatPubSubTemplate.opsForHash().putIfAbsent(key, field, ascii(0));
+            } else {
+                chatPubSubTemplate.opsForHash().delete(key, field);
+            }
+        } catch (RuntimeException e) {
+            log.warn("unread counter membership update failed, memberId={}, roomId={}", event.memberId(), event.roomId(), e);
+        }
+    }
+
+    // 증가/초기화가 실패했거나 redis 데이터가 유실된 경우를 DB(read cursor) 기준으로 다시 맞춤
+    // chunk마다 대상 member의 hash를 먼저 읽어두고, DB 계산 후 그 사이 바뀌지 않은 field만 덮어씀
+    @Scheduled(fixedDelayString = "${chat.unread.reconcile-interval-ms:600000}", initialDelayString = "${chat.unread.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        if(chatPubSubTemplate == null) {
+            return;
+        }
+        try {
+            Boolean locked = chatPubSubTemplate.opsForValue().setIfAbsent(RECONCILE_LOCK_KEY, ascii(1), reconcileLockTtl);
+            if(!Boolean.TRUE.equals(locked)) {
+                return;
+            }
+
+            long maxId = chatParticipantRepository.findMaxId();
+            for (long fromId = 0; fromId < maxId; fromId += reconcileChunkSize) {
+                List<Long> memberIds = chatParticipantRepository.findMemberIdsInIdRange(fromId, fromId + reconcileChunkSize);
+                if(memberIds.isEmpty()) {
+                    continue;
+                }
+                Map<Long, Map<String, byte[]>> snapshots = snapshot(memberIds);
+                Map<Long, List<ChatParticipantRepository.UnreadCountView>> byMember = new LinkedHashMap<>();
+                for (ChatParticipantRepository.UnreadCountView unreadCount : chatParticipantRepository.countUnreadInIdRange(fromId, fromId + reconcileChunkSize)) {
+                    byMember.computeIfAbsent(unreadCount.getMemberId(), memberId -> new ArrayList<>()).add(unreadCount);
+                }
+                byMember.forEach((memberId, unreadCounts) -> replaceUntouched(memberId, snapshots.getOrDefault(memberId, Map.of()), unreadCounts));
+            }
+        } catch (RuntimeException e) {
+            log.warn("unread counter reconcile failed", e);
+        }
+    }
+
+    // member id -> 지금 hash 값 (field -> value), 한번의 pipeline으로 읽음
+    private Map<Long, Map<String, byte[]>> snapshot(List<Long> memberIds) {
+        List<Object> results = chatPubSubTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Long memberId : memberIds) {
+                connection.hashCommands().hGetAll(ascii(KEY_PREFIX + memberId));
+            }
+            return null;
+        });
+        Map<Long, Map<String, byte[]>> snapshots = new HashMap<>();
+        for (int i = 0; i < memberIds.size(); i++) {
+            Map<String, byte[]> fields = new HashMap<>();
+            // 빈 hash는 역직렬화되지 않은 map으로 옴
+            if(results.get(i) instanceof Map<?, ?> entries) {
+                entries.forEach((field, value) -> fields.put(
+                        field instanceof byte[] raw ? new String(raw, StandardCharsets.US_ASCII) : String.valueOf(field), (byte[]) value));
+            }
+            snapshots.put(memberIds.get(i), fields);
+        }
+        return snapshots;
+    }
+
+    private void replaceUntouched(Long memberId, Map<String, byte[]> snapshot, List<ChatParticipantRepository.UnreadCountView> unreadCounts) {
+        List<Object> args = new ArrayList<>(1 + unreadCounts.size() * 3);
+        args.add(ascii(INIT_FIELD));
+        for (ChatParticipantRepository.UnreadCountView unreadCount : unreadCounts) {
+            String field = String.valueOf(unreadCount.getRoomId());
+            args.add(ascii(field));
+            args.add(snapshot.getOrDefault(field, ABSENT));
+            args.add(ascii(unreadCount.getUnreadCount()));
+        }
+        chatPubSubTemplate.execute(REPLACE_UNTOUCHED, List.of(KEY_PREFIX + memberId), args.toArray());
+    }
+
+    private static Map<Long, Long> toCounts(List<ChatParticipantRepository.UnreadCountView> unreadCounts) {
+        Map<Long, Long> counts = new HashMap<>();
+        for (ChatParticipantRepository.UnreadCountView unreadCount : unreadCounts) {
+            counts.put(unreadCount.getRoomId(), unreadCount.getUnreadCount());
+        }
+        return counts;
+    }
+
+    private static byte[] ascii(long value) {
+        return Long.toString(value).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
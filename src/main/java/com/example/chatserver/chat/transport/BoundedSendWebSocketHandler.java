@@ -0,0 +1,51 @@
+package com.example.chatserver.chat.transport;
+
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+
+// 연결시 session을 BoundedSendWebSocketSession으로 감싸서 STOMP handler에 넘김
+class BoundedSendWebSocketHandler extends WebSocketHandlerDecorator {
+
+    private static final String SESSION_ATTRIBUTE = BoundedSendWebSocketSession.class.getName();
+
+    private final OutboundBackpressure outboundBackpressure;
+
+    BoundedSendWebSocketHandler(WebSocketHandler delegate, OutboundBackpressure outboundBackpressure) {
+        super(delegate);
+        this.outboundBackpressure = outboundBackpressure;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        BoundedSendWebSocketSession boundedSession = new BoundedSendWebSocketSession(session, outboundBackpressure);
+        session.getAttributes().put(SESSION_ATTRIBUTE, boundedSession);
+        super.afterConnectionEstablished(boundedSession);
+    }
+
+    @Override
+    public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
+        super.handleMessage(decorated(session), message);
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
+        super.handleTransportError(decorated(session), exception);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+        WebSocketSession decorated = decorated(session);
+        if(decorated instanceof BoundedSendWebSocketSession boundedSession) {
+            boundedSession.discard();
+        }
+        super.afterConnectionClosed(decorated, closeStatus);
+    }
+
+    private static WebSocketSession decorated(WebSocketSession session) {
+        Object decorated = session.getAttributes().get(SESSION_ATTRIBUTE);
+        return decorated instanceof WebSocketSession webSocketSession ? webSocketSession : session;
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.chatserver.chat.transport;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+// 전송을 session별 버퍼에 넣고 session별 virtual thread가 순서대로 보냄 => 느린 session이 발행 스레드를 붙잡지 않음
+// 버퍼가 session 한도나 노드 전체 한도를 넘으면 SlowConsumerPolicy대로 처리
+// 버릴 수 있는 건 MESSAGE 프레임뿐이고, 나머지(CONNECTED, RECEIPT, ERROR, heartbeat)는 항상 보냄
+@Slf4j
+class BoundedSendWebSocketSession extends WebSocketSessionDecorator {
+
+    private final OutboundBackpressure outboundBackpressure;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<WebSocketMessage<?>> queue = new ArrayDeque<>();
+    // GAP : 구독(subscription id)별로 버린 프레임 수와 destination
+    private final Map<String, Gap> gaps = new LinkedHashMap<>();
+    private long bufferedBytes;
+    private long gapSequence;
+    private boolean draining;
+    private boolean closed;
+
+    BoundedSendWebSocketSession(WebSocketSession delegate, OutboundBackpressure outboundBackpressure) {
+        super(delegate);
+        this.outboundBackpressure = outboundBackpressure;
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+        boolean disconnect = false;
+        lock.lock();
+        try {
+            if(closed) {
+                return;
+            }
+            if(!droppable(message)) {
+                outboundBackpressure.forceReserve(message.getPayloadLength());
+                enqueue(message);
+            } else if(makeRoom(message.getPayloadLength())) {
+                enqueue(message);
+            } else if(outboundBackpressure.policy() == SlowConsumerPolicy.DISCONNECT) {
+                disconnect = true;
+            } else {
+                // 버퍼를 다 비워도 안 들어가는 경우 (노드 전체 한도) 새 프레임을 버림
+                drop(message);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if(disconnect) {
+            disconnect();
+        }
+    }
+
+    // 연결 종료시 남은 버퍼 정리
+    void discard() {
+        lock.lock();
+        try {
+            closed = true;
+            queue.clear();
+            gaps.clear();
+            outboundBackpressure.release(bufferedBytes);
+            bufferedBytes = 0;
+            outboundBackpressure.sessionClosed(getId());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // session 한도와 노드 전체 한도 안에 size가 들어가도록 오래된 MESSAGE 프레임을 버림 (DISCONNECT는 버리지 않음)
+    private boolean makeRoom(long size) {
+        while (true) {
+            if(bufferedBytes + size <= outboundBackpressure.sessionBufferBytes() && outboundBackpressure.tryReserve(size)) {
+                return true;
+            }
+            if(outboundBackpressure.policy() == SlowConsumerPolicy.DISCONNECT || !dropOldest()) {
+                return false;
+            }
+        }
+    }
+
+    private boolean dropOldest() {
+        Iterator<WebSocketMessage<?>> iterator = queue.iterator();
+        while (iterator.hasNext()) {
+            WebSocketMessage<?> queued = iterator.next();
+            if(droppable(queued)) {
+                iterator.remove();
+                bufferedBytes -= queued.getPayloadLength();
+                outboundBackpressure.release(queued.getPayloadLength());
+                drop(queued);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // coalescing이 켜져 있으면 message 하나에 여러 구독의 프레임이 묶여 있으므로 프레임마다 센다
+    private void drop(WebSocketMessage<?> message) {
+        for (String frame : StompFrames.split(((TextMessage) message).getPayload())) {
+            if(!StompFrames.isMessage(frame)) {
+                continue;
+            }
+            outboundBackpressure.recordDropped();
+            if(outboundBackpressure.policy() == SlowConsumerPolicy.GAP) {
+                String subscriptionId = StompFrames.messageHeader(frame, "subscription");
+                String destination = StompFrames.messageHeader(frame, "destination");
+                if(subscriptionId != null && destination != null) {
+                    gaps.computeIfAbsent(subscriptionId, id -> new Gap(destination)).dropped++;
+                }
+            }
+        }
+    }
+
+    private void enqueue(WebSocketMessage<?> message) {
+        queue.add(message);
+        bufferedBytes += message.getPayloadLength();
+        outboundBackpressure.updateOccupancy(getId(), bufferedBytes);
+        if(!draining) {
+            draining = true;
+            Thread.startVirtualThread(this::drain);
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            WebSocketMessage<?> next;
+            lock.lock();
+            try {
+                if(queue.isEmpty()) {
+                    // 밀린 프레임을 다 보냈으면 버린 구독마다 gap 프레임을 보냄
+                    enqueueGapFrames();
+                }
+                next = queue.poll();
+                if(next == null || closed) {
+                    draining = false;
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+            try {
+                super.sendMessage(next);
+            } catch (IOException e) {
+                log.debug("session 전송 실패 session : {}", getId(), e);
+                discard();
+                return;
+            } finally {
+                lock.lock();
+                try {
+                    if(!closed) {
+                        bufferedBytes -= next.getPayloadLength();
+                        outboundBackpressure.release(next.getPayloadLength());
+                        outboundBackpressure.updateOccupancy(getId(), bufferedBytes);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    // 클라이언트는 chat-gap header가 있는 프레임을 받으면 마지막으로 받은 메시지 이후를 이력 API로 다시 조회
+    private void enqueueGapFrames() {
+        if(gaps.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<String, Gap> entry : gaps.entrySet()) {
+            String body = "{\"gap\":true,\"dropped\":" + entry.getValue().dropped + "}";
+            TextMessage gapFrame = new TextMessage("MESSAGE\n"
+                    + "subscription:" + entry.getKey() + "\n"
+                    + "message-id:gap-" + (++gapSequence) + "\n"
+                    + "destination:" + entry.getValue().destination + "\n"
+                    + "content-type:application/json\n"
+                    + "chat-gap:" + entry.getValue().dropped + "\n"
+                    + "content-length:" + body.length() + "\n"
+                    + "\n" + body + "\u0000");
+            outboundBackpressure.forceReserve(gapFrame.getPayloadLength());
+            queue.add(gapFrame);
+            bufferedBytes += gapFrame.getPayloadLength();
+            outboundBackpressure.recordGap();
+        }
+        gaps.clear();
+    }
+
+    private void disconnect() {
+        outboundBackpressure.recordDisconnect();
+        discard();
+        try {
+            getDelegate().close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (IOException e) {
+            log.debug("느린 session 종료 실패 session : {}", getId(), e);
+        }
+    }
+
+    private static boolean droppable(WebSocketMessage<?> message) {
+        return message instanceof TextMessage textMessage && StompFrames.isMessage(textMessage.getPayload());
+    }
+
+    private static final class Gap {
+        private final String destination;
+        private long dropped;
+
+        private Gap(String destination) {
+            this.destination = destination;
+        }
+    }
+}
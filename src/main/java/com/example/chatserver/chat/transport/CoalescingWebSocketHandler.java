@@ -0,0 +1,51 @@
+package com.example.chatserver.chat.transport;
+
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+
+// 연결시 session을 CoalescingWebSocketSession으로 감싸서 STOMP handler에 넘김
+class CoalescingWebSocketHandler extends WebSocketHandlerDecorator {
+
+    private static final String SESSION_ATTRIBUTE = CoalescingWebSocketSession.class.getName();
+
+    private final OutboundCoalescing outboundCoalescing;
+
+    CoalescingWebSocketHandler(WebSocketHandler delegate, OutboundCoalescing outboundCoalescing) {
+        super(delegate);
+        this.outboundCoalescing = outboundCoalescing;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        CoalescingWebSocketSession coalescingSession = new CoalescingWebSocketSession(session, outboundCoalescing);
+        session.getAttributes().put(SESSION_ATTRIBUTE, coalescingSession);
+        super.afterConnectionEstablished(coalescingSession);
+    }
+
+    @Override
+    public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
+        super.handleMessage(decorated(session), message);
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
+        super.handleTransportError(decorated(session), exception);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+        WebSocketSession decorated = decorated(session);
+        if(decorated instanceof CoalescingWebSocketSession coalescingSession) {
+            coalescingSession.discard();
+        }
+        super.afterConnectionClosed(decorated, closeStatus);
+    }
+
+    private static WebSocketSession decorated(WebSocketSession session) {
+        Object decorated = session.getAttributes().get(SESSION_ATTRIBUTE);
+        return decorated instanceof WebSocketSession webSocketSession ? webSocketSession : session;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.chatserver.chat.transport;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// 묶을 수 있는 MESSAGE 프레임은 모아뒀다가 window가 지나거나 max-bytes/max-frames에 도달하면 한번에 전송
+// 그 외 프레임(CONNECTED, RECEIPT, ERROR, heartbeat, 제외된 destination)은 모아둔 프레임을 먼저 보낸 뒤 바로 전송 => 순서 유지
+@Slf4j
+class CoalescingWebSocketSession extends WebSocketSessionDecorator {
+
+    private final OutboundCoalescing outboundCoalescing;
+    // 발행 스레드(ConcurrentWebSocketSessionDecorator를 거쳐 한번에 하나)와 flush 스레드가 같이 접근
+    private final ReentrantLock lock = new ReentrantLock();
+    private final StringBuilder pending = new StringBuilder();
+    private int pendingFrames;
+    private ScheduledFuture<?> scheduledFlush;
+
+    CoalescingWebSocketSession(WebSocketSession delegate, OutboundCoalescing outboundCoalescing) {
+        super(delegate);
+        this.outboundCoalescing = outboundCoalescing;
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+        lock.lock();
+        try {
+            if(message instanceof TextMessage textMessage && outboundCoalescing.shouldCoalesce(StompFrames.messageHeader(textMessage.getPayload(), "destination"))) {
+                pending.append(textMessage.getPayload());
+                pendingFrames++;
+                if(pendingFrames >= outboundCoalescing.maxFrames() || pending.length() >= outboundCoalescing.maxBytes()) {
+                    flushPending();
+                } else if(scheduledFlush == null) {
+                    // 전송은 virtual thread에서 => 느린 session 하나가 다른 session의 flush를 막지 않음
+                    scheduledFlush = outboundCoalescing.flushScheduler().schedule(() -> Thread.startVirtualThread(this::flush),
+                            outboundCoalescing.windowMillis(), TimeUnit.MILLISECONDS);
+                }
+                return;
+            }
+            flushPending();
+            super.sendMessage(message);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 연결 종료시 모아둔 프레임 폐기
+    void discard() {
+        lock.lock();
+        try {
+            cancelScheduledFlush();
+            pending.setLength(0);
+            pendingFrames = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flush() {
+        lock.lock();
+        try {
+            flushPending();
+        } catch (IOException e) {
+            // 전송 실패한 session은 transport에서 닫히므로 로그만 남김
+            log.debug("모아둔 프레임 전송 실패 session : {}", getId(), e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushPending() throws IOException {
+        cancelScheduledFlush();
+        if(pendingFrames == 0) {
+            return;
+        }
+        TextMessage coalesced = new TextMessage(pending.toString());
+        int frames = pendingFrames;
+        pending.setLength(0);
+        pendingFrames = 0;
+        outboundCoalescing.recordWrite(frames);
+        super.sendMessage(coalesced);
+    }
+
+    private void cancelScheduledFlush() {
+        if(scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+    }
+}
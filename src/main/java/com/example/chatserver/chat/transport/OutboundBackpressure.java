@@ -0,0 +1,115 @@
+package com.example.chatserver.chat.transport;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 느린 클라이언트(모바일 등) 때문에 outbound 버퍼가 계속 쌓이지 않도록 session별 전송 버퍼를 제한 (chat.outbound.slow-consumer.*)
+// session별 한도와 노드 전체 한도(모든 session 버퍼 합) 중 하나라도 넘으면 policy대로 처리
+@Component
+public class OutboundBackpressure {
+
+    private final SlowConsumerPolicy policy;
+    private final long sessionBufferBytes;
+    private final long globalBufferBytes;
+    private final long slowSessionBytes;
+
+    private final AtomicLong bufferedBytes = new AtomicLong();
+    private final Set<String> slowSessions = ConcurrentHashMap.newKeySet();
+    private final Counter droppedFrames;
+    private final Counter gapFrames;
+    private final Counter disconnects;
+
+    public OutboundBackpressure(MeterRegistry meterRegistry,
+                                @Value("${chat.outbound.slow-consumer.policy:none}") String policy,
+                                @Value("${chat.outbound.slow-consumer.session-buffer-bytes:1048576}") long sessionBufferBytes,
+                                @Value("${chat.outbound.slow-consumer.global-buffer-bytes:268435456}") long globalBufferBytes,
+                                @Value("${chat.outbound.slow-consumer.slow-session-bytes:262144}") long slowSessionBytes) {
+        this.policy = SlowConsumerPolicy.from(policy);
+        this.sessionBufferBytes = sessionBufferBytes;
+        this.globalBufferBytes = globalBufferBytes;
+        this.slowSessionBytes = slowSessionBytes;
+        Gauge.builder("chat.outbound.buffer.bytes", bufferedBytes, AtomicLong::get)
+                .description("전송 대기중인 프레임 크기 합 (모든 session)")
+                .register(meterRegistry);
+        Gauge.builder("chat.outbound.slow.sessions", slowSessions, Set::size)
+                .description("버퍼가 slow-session-bytes 이상 쌓인 session 수")
+                .register(meterRegistry);
+        this.droppedFrames = Counter.builder("chat.outbound.dropped.frames")
+                .tag("policy", this.policy.name().toLowerCase())
+                .register(meterRegistry);
+        this.gapFrames = Counter.builder("chat.outbound.gap.frames")
+                .register(meterRegistry);
+        this.disconnects = Counter.builder("chat.outbound.slow.disconnects")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return policy != SlowConsumerPolicy.NONE;
+    }
+
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new BoundedSendWebSocketHandler(handler, this);
+    }
+
+    SlowConsumerPolicy policy() {
+        return policy;
+    }
+
+    long sessionBufferBytes() {
+        return sessionBufferBytes;
+    }
+
+    // 노드 전체 한도 안에서 size만큼 예약, 넘으면 false
+    boolean tryReserve(long size) {
+        while (true) {
+            long current = bufferedBytes.get();
+            if(current + size > globalBufferBytes) {
+                return false;
+            }
+            if(bufferedBytes.compareAndSet(current, current + size)) {
+                return true;
+            }
+        }
+    }
+
+    // policy와 관계없이 버릴 수 없는 프레임(CONNECTED, ERROR 등)은 한도를 넘어도 예약
+    void forceReserve(long size) {
+        bufferedBytes.addAndGet(size);
+    }
+
+    void release(long size) {
+        bufferedBytes.addAndGet(-size);
+    }
+
+    void updateOccupancy(String sessionId, long sessionBufferedBytes) {
+        if(sessionBufferedBytes >= slowSessionBytes) {
+            slowSessions.add(sessionId);
+        } else {
+            slowSessions.remove(sessionId);
+        }
+    }
+
+    void sessionClosed(String sessionId) {
+        slowSessions.remove(sessionId);
+    }
+
+    void recordDropped() {
+        droppedFrames.increment();
+    }
+
+    void recordGap() {
+        gapFrames.increment();
+    }
+
+    void recordDisconnect() {
+        disconnects.increment();
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.chatserver.chat.transport;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.socket.WebSocketHandler;
+
+import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+// 같은 session으로 짧은 시간(window) 안에 나가는 MESSAGE 프레임들을 WebSocket 메시지 하나로 묶어서 전송 (chat.outbound.coalesce.enabled)
+// STOMP 프레임은 NULL(\0)로 끝나므로 프레임을 이어붙인 텍스트 하나로 보내도 클라이언트가 프레임별로 나눠서 읽음
+// (SockJS에서는 SockJS 메시지 하나 = STOMP 프레임 여러개)
+// 묶을 destination은 include/exclude 패턴으로 지정 => 지연에 민감한 방은 exclude에 넣어서 바로 전송
+@Component
+public class OutboundCoalescing {
+
+    private final boolean enabled;
+    private final long windowMillis;
+    private final int maxBytes;
+    private final int maxFrames;
+    private final List<String> includes;
+    private final List<String> excludes;
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+    // destination별 패턴 매칭 결과
+    private final Cache<String, Boolean> decisions = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .build();
+    private final ScheduledThreadPoolExecutor flushScheduler;
+    private final Counter coalescedFrames;
+    private final Counter writes;
+
+    public OutboundCoalescing(MeterRegistry meterRegistry,
+                              @Value("${chat.outbound.coalesce.enabled:false}") boolean enabled,
+                              @Value("${chat.outbound.coalesce.window-ms:5}") long windowMillis,
+                              @Value("${chat.outbound.coalesce.max-bytes:16384}") int maxBytes,
+                              @Value("${chat.outbound.coalesce.max-frames:32}") int maxFrames,
+                              @Value("${chat.outbound.coalesce.include:/topic/**}") List<String> includes,
+                              @Value("${chat.outbound.coalesce.exclude:}") List<String> excludes) {
+        this.enabled = enabled;
+        this.windowMillis = windowMillis;
+        this.maxBytes = maxBytes;
+        this.maxFrames = maxFrames;
+        this.includes = includes;
+        this.excludes = excludes;
+        this.flushScheduler = new ScheduledThreadPoolExecutor(1, Thread.ofPlatform().name("chat-outbound-coalesce").daemon(true).factory());
+        this.flushScheduler.setRemoveOnCancelPolicy(true);
+        this.coalescedFrames = Counter.builder("chat.outbound.coalesce.frames")
+                .description("묶어서 전송된 MESSAGE 프레임 수")
+                .register(meterRegistry);
+        this.writes = Counter.builder("chat.outbound.coalesce.writes")
+                .description("묶은 프레임을 전송한 WebSocket 메시지 수")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new CoalescingWebSocketHandler(handler, this);
+    }
+
+    boolean shouldCoalesce(String destination) {
+        if(destination == null) {
+            return false;
+        }
+        return decisions.get(destination, key ->
+                includes.stream().anyMatch(pattern -> pathMatcher.match(pattern, key))
+                        && excludes.stream().noneMatch(pattern -> !pattern.isBlank() && pathMatcher.match(pattern, key)));
+    }
+
+    long windowMillis() {
+        return windowMillis;
+    }
+
+    int maxBytes() {
+        return maxBytes;
+    }
+
+    int maxFrames() {
+        return maxFrames;
+    }
+
+    ScheduledThreadPoolExecutor flushScheduler() {
+        return flushScheduler;
+    }
+
+    void recordWrite(int frames) {
+        coalescedFrames.increment(frames);
+        writes.increment();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushScheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.chatserver.chat.transport;
+
+// session 전송 버퍼가 가득 찼을 때(session별 한도 또는 노드 전체 한도) 처리 방식
+public enum SlowConsumerPolicy {
+    // 버퍼를 두지 않음 (ConcurrentWebSocketSessionDecorator의 send-time/buffer 한도만 적용)
+    NONE,
+    // 가장 오래된 MESSAGE 프레임부터 버림
+    DROP_OLDEST,
+    // 가장 오래된 MESSAGE 프레임부터 버리고, 버퍼가 비면 구독별로 gap 프레임을 보냄 => 클라이언트가 이전 메시지를 다시 조회
+    GAP,
+    // 연결을 끊음 => 클라이언트가 재접속 후 다시 조회
+    DISCONNECT;
+
+    // application.yml에는 none, drop-oldest, gap, disconnect 형태로 설정
+    public static SlowConsumerPolicy from(String value) {
+        return SlowConsumerPolicy.valueOf(value.trim().toUpperCase().replace('-', '_'));
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.chatserver.chat.transport;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// 인코딩된 STOMP 프레임(텍스트)에서 header를 읽는 유틸 (outbound session decorator용, header 영역만 확인)
+// isMessage/messageHeader는 첫번째 프레임 기준 => 여러 프레임이 묶인 텍스트(coalescing)는 split으로 나눠서 확인
+final class StompFrames {
+
+    private static final String MESSAGE_COMMAND = "MESSAGE\n";
+
+    private StompFrames() {
+    }
+
+    static boolean isMessage(String frame) {
+        return frame.startsWith(MESSAGE_COMMAND);
+    }
+
+    // MESSAGE 프레임의 header 값 (escape된 그대로), 없으면 null
+    static String messageHeader(String frame, String name) {
+        if(!isMessage(frame)) {
+            return null;
+        }
+        int lineStart = MESSAGE_COMMAND.length();
+        while (lineStart < frame.length()) {
+            int lineEnd = frame.indexOf('\n', lineStart);
+            if(lineEnd < 0 || lineEnd == lineStart) {
+                return null;
+            }
+            if(frame.startsWith(name, lineStart) && frame.length() > lineStart + name.length() && frame.charAt(lineStart + name.length()) == ':') {
+                return frame.substring(lineStart + name.length() + 1, lineEnd);
+            }
+            lineStart = lineEnd + 1;
+        }
+        return null;
+    }
+
+    // 여러 프레임이 이어붙은 텍스트를 프레임 단위로 나눔 (프레임은 NULL(\0)로 끝남, 프레임 사이의 heartbeat(EOL)는 건너뜀)
+    static List<String> split(String text) {
+        List<String> frames = new ArrayList<>(1);
+        int start = 0;
+        while (start < text.length()) {
+            char c = text.charAt(start);
+            if(c == '\n' || c == '\r') {
+                start++;
+                continue;
+            }
+            int end = text.indexOf('\u0000', start);
+            if(end < 0) {
+                frames.add(text.substring(start));
+                break;
+            }
+            frames.add(text.substring(start, end + 1));
+            start = end + 1;
+        }
+        return frames;
+    }
+}
@@ -1,15 +1,12 @@
 package com.example.chatserver.common.auth;
 
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -24,8 +21,11 @@ import java.util.List;
 @Component
 public class JwtAuthFilter extends GenericFilter {
 
-    @Value("${jwt.secretKey}")
-    private String secretKey;
+    private final JwtTokenProvider jwtTokenProvider;
+
+    public JwtAuthFilter(JwtTokenProvider jwtTokenProvider) {
+        this.jwtTokenProvider = jwtTokenProvider;
+    }
 
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
@@ -41,18 +41,19 @@ public class JwtAuthFilter extends GenericFilter {
 
                 String jwtToken = token.substring(7);
                 // 토큰 검증 및 claims 추출
-                Claims claims = Jwts.parserBuilder()
-                        .setSigningKey(secretKey)
-                        .build()
-                        .parseClaimsJws(jwtToken)  //다시 암호화해봐서 검증하는 작업
-                        .getBody();
+                Claims claims = jwtTokenProvider.parseClaims(jwtToken);  //다시 암호화해봐서 검증하는 작업
 
                 //Authentication 객체생성
 
                 List<GrantedAuthority> authorities = new ArrayList<>();
                 authorities.add(new SimpleGrantedAuthority("ROLE_" + claims.get("role")));
                 UserDetails userDetails = new User(claims.getSubject(), "", authorities);
-                Authentication authentication = new UsernamePasswordAuthenticationToken(userDetails, "", userDetails.getAuthorities());
+                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(userDetails, "", userDetails.getAuthorities());
+                // memberId claim이 있으면 서비스에서 email로 member id를 다시 조회하지 않도록 같이 저장
+                Object memberId = claims.get("memberId");
+                if (memberId != null) {
+                    authentication.setDetails(MemberPrincipal.of(claims, ((Number) memberId).longValue()));
+                }
                 SecurityContextHolder.getContext().setAuthentication(authentication); //securitycontextholder 안에 securitycontext가 있고 그 안에 authentication 객체가 들어있다
             }
 
@@ -1,6 +1,7 @@
 package com.example.chatserver.common.auth;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import org.springframework.beans.factory.annotation.Value;
@@ -11,22 +12,28 @@ import java.security.Key;
 import java.util.Date;
 
 @Component
-// jwt 토큰 생성해주는 클래스
+// jwt 토큰 생성/검증 클래스
 public class JwtTokenProvider {
 
     private final String secretKey;
     private final int expiration;
     private Key SECRET_KEY;
+    // 검증용 parser는 thread-safe하므로 한번만 만들어서 재사용 (요청마다 parserBuilder로 key를 다시 만들지 않음)
+    private final JwtParser jwtParser;
 
     public JwtTokenProvider(@Value("${jwt.secretKey}") String secretKey, @Value("${jwt.expiration}") int expiration) {
         this.secretKey = secretKey;
         this.expiration = expiration;
         this.SECRET_KEY = new SecretKeySpec(java.util.Base64.getDecoder().decode(secretKey), SignatureAlgorithm.HS512.getJcaName());
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(SECRET_KEY)
+                .build();
     }
 
-    public String createToken(String email, String role) {
+    public String createToken(Long memberId, String email, String role) {
         Claims claims = Jwts.claims().setSubject(email);    //페이로드
         claims.put("role", role);
+        claims.put("memberId", memberId);
         Date now = new Date();  //현재시간
         String token = Jwts.builder()   //토큰생성
                 .setClaims(claims)
@@ -36,4 +43,9 @@ public class JwtTokenProvider {
                 .compact();
         return token;
     }
+
+    // 토큰 검증 및 claims 추출 (서명이 다르거나 만료된 경우 JwtException)
+    public Claims parseClaims(String token) {
+        return jwtParser.parseClaimsJws(token).getBody();
+    }
 }
@@ -0,0 +1,39 @@
+package com.example.chatserver.common.auth;
+
+import io.jsonwebtoken.Claims;
+import lombok.Getter;
+
+import java.security.Principal;
+import java.time.Instant;
+
+// STOMP CONNECT시 토큰을 한번 검증한 결과
+// 세션에 묶여서 이후 SUBSCRIBE/SEND 프레임에서는 토큰을 다시 검증하지 않고 재사용
+@Getter
+public class MemberPrincipal implements Principal {
+
+    private final Long memberId;
+    private final String email;
+    private final String role;
+    private final Instant expiresAt;
+
+    public MemberPrincipal(Long memberId, String email, String role, Instant expiresAt) {
+        this.memberId = memberId;
+        this.email = email;
+        this.role = role;
+        this.expiresAt = expiresAt;
+    }
+
+    public static MemberPrincipal of(Claims claims, Long memberId) {
+        return new MemberPrincipal(memberId, claims.getSubject(), String.valueOf(claims.get("role")), claims.getExpiration().toInstant());
+    }
+
+    // 기존 코드와 같이 email을 사용자 이름으로 사용
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    public boolean isExpired() {
+        return Instant.now().isAfter(expiresAt);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.chatserver.common.cluster;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+// 클러스터에서 이 서버 노드를 구분하는 id (chat.node-id, 없으면 기동시마다 새로 생성)
+@Component
+public class NodeId {
+
+    private final String value;
+
+    public NodeId(@Value("${chat.node-id:}") String nodeId) {
+        this.value = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+    }
+
+    public String get() {
+        return value;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.chatserver.common.concurrency;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// virtual thread 모드에서는 tomcat 요청 처리 스레드 수에도 제한이 없으므로 DB를 쓰는 REST 요청도 DatabaseCallLimiter로 제한
+// 요청 전체를 하나의 DB 구간으로 보고 permit을 잡음 (등록 url은 ExecutionConfig), 대기 시간 안에 못 얻으면 503
+public class DatabaseCallLimitFilter extends OncePerRequestFilter {
+
+    private final DatabaseCallLimiter databaseCallLimiter;
+
+    public DatabaseCallLimitFilter(DatabaseCallLimiter databaseCallLimiter) {
+        this.databaseCallLimiter = databaseCallLimiter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        if(!databaseCallLimiter.tryAcquire()) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setContentType("application/json");
+            response.setCharacterEncoding("UTF-8");
+            response.getWriter().write("DB 요청이 너무 많습니다. 잠시 후 다시 시도해주세요.");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            databaseCallLimiter.release();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.chatserver.common.concurrency;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// virtual thread 모드에서는 STOMP inbound 처리 스레드 수에 제한이 없으므로
+// DB를 호출하는 구간의 동시 실행 수를 커넥션 풀 크기 정도로 제한 (풀에서 오래 기다리다 timeout 나는 대신 여기서 대기)
+// REST 요청은 DatabaseCallLimitFilter가 요청 단위로 같은 permit을 사용
+@Component
+public class DatabaseCallLimiter {
+
+    private final Semaphore permits;
+    private final long acquireTimeoutMillis;
+
+    public DatabaseCallLimiter(@Value("${chat.execution.db-permits:10}") int permits,
+                               @Value("${chat.execution.db-acquire-timeout-ms:5000}") long acquireTimeoutMillis) {
+        this.permits = new Semaphore(permits, true);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    public <T> T call(Supplier<T> supplier) {
+        acquire();
+        try {
+            return supplier.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    public void run(Runnable runnable) {
+        acquire();
+        try {
+            runnable.run();
+        } finally {
+            permits.release();
+        }
+    }
+
+    // Supplier로 감쌀 수 없는 구간(filter chain)용, true를 받았으면 끝난 뒤 release 호출
+    boolean tryAcquire() {
+        try {
+            return permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    void release() {
+        permits.release();
+    }
+
+    private void acquire() {
+        try {
+            if(!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("DB 요청이 너무 많습니다. 잠시 후 다시 시도해주세요.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("DB 요청 대기 중 인터럽트되었습니다.", e);
+        }
+    }
+}
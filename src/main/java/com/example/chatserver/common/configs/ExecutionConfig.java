@@ -0,0 +1,32 @@
+package com.example.chatserver.common.configs;
+
+import com.example.chatserver.common.concurrency.DatabaseCallLimitFilter;
+import com.example.chatserver.common.concurrency.DatabaseCallLimiter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executors;
+
+// chat.execution.mode=virtual : tomcat 요청 처리도 virtual thread에서 실행
+// (STOMP inbound/outbound channel은 StompWebSocketConfig에서 설정)
+@Configuration
+@ConditionalOnProperty(name = "chat.execution.mode", havingValue = "virtual")
+public class ExecutionConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    // tomcat 스레드 수로 제한되던 REST 요청의 DB 동시 실행 수를 STOMP와 같은 limiter로 제한
+    // security filter 뒤에서 실행되므로 인증 실패한 요청은 permit을 잡지 않음, actuator/websocket handshake는 제외
+    @Bean
+    public FilterRegistrationBean<DatabaseCallLimitFilter> databaseCallLimitFilter(DatabaseCallLimiter databaseCallLimiter) {
+        FilterRegistrationBean<DatabaseCallLimitFilter> registration = new FilterRegistrationBean<>(new DatabaseCallLimitFilter(databaseCallLimiter));
+        registration.addUrlPatterns("/chat/*", "/member/*");
+        return registration;
+    }
+}
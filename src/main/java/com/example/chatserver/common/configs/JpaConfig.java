@@ -0,0 +1,20 @@
+package com.example.chatserver.common.configs;
+
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JpaConfig {
+
+    // 메시지 write-behind 저장시 insert를 jdbc batch로 묶기 위한 설정
+    // mysql은 jdbc url에 rewriteBatchedStatements=true 가 있어야 multi-row insert로 전송됨
+    // application.yml에 값이 있으면 그 값을 우선 사용
+    @Bean
+    public HibernatePropertiesCustomizer batchInsertCustomizer() {
+        return properties -> {
+            properties.putIfAbsent("hibernate.jdbc.batch_size", 50);
+            properties.putIfAbsent("hibernate.order_inserts", true);
+        };
+    }
+}
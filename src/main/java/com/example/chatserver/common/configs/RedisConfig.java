@@ -1,19 +1,25 @@
 package com.example.chatserver.common.configs;
 
 import com.example.chatserver.chat.service.RedisPubSubService;
+import com.example.chatserver.chat.service.RoomMembershipIndex;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnection;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.listener.adapter.MessageListenerAdapter;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
+// chat.bus.type=in-process(단일 노드)면 redis 연결을 만들지 않음 => redis를 쓰는 캐시/presence는 DB, 메모리로 대신함
 @Configuration
+@ConditionalOnProperty(name = "chat.bus.type", havingValue = "redis", matchIfMissing = true)
 public class RedisConfig {
     @Value("${spring.data.redis.host}")
     private String host;
@@ -34,25 +40,49 @@ public class RedisConfig {
         return new LettuceConnectionFactory(configuration);
     }
 
+    // 채팅 메시지 발행 전용 연결 (chat.redis.publish.mode=pipelined 일 때 RedisBatchPublisher가 사용)
+    // listener container나 다른 redis 명령과 연결을 같이 쓰지 않고, pipeline 명령은 모아뒀다가 closePipeline때 한번에 전송
+    // defaultCandidate = false : @Qualifier("chatPublish")로만 주입 (redis auto configuration에는 영향 없음)
+    @Bean(defaultCandidate = false)
+    @Qualifier("chatPublish")
+    public RedisConnectionFactory chatPublishFactory() {
+        RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration();
+        configuration.setHostName(host);
+        configuration.setPort(port);
+
+        LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(configuration);
+        connectionFactory.setShareNativeConnection(false);
+        connectionFactory.setPipeliningFlushPolicy(LettuceConnection.PipeliningFlushPolicy.flushOnClose());
+        return connectionFactory;
+    }
+
     //publish 객체
     @Bean
     @Qualifier("chatPubSub")
-    // 일반적으로는 RedisTemplate<key데이터타입, value데이터타입>을 사용, 근데 우리는 메시지만 주고 받으니 StringRedisTemplate을 씀
-    public StringRedisTemplate stringRedisTemplate(@Qualifier("chatPubSub") RedisConnectionFactory redisConnectionFactory) {    //RedisConnectionFactory 중 우리가 정한거 쓴다
-        return new StringRedisTemplate(redisConnectionFactory);
+    // 메시지는 ChatMessageCodecs로 이미 byte[]로 직렬화되어 있으므로 value는 그대로 전송 (String으로 다시 인코딩하지 않음)
+    public RedisTemplate<String, byte[]> chatPubSubTemplate(@Qualifier("chatPubSub") RedisConnectionFactory redisConnectionFactory) {    //RedisConnectionFactory 중 우리가 정한거 쓴다
+        RedisTemplate<String, byte[]> redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(redisConnectionFactory);
+        redisTemplate.setKeySerializer(RedisSerializer.string());
+        redisTemplate.setValueSerializer(RedisSerializer.byteArray());
+        redisTemplate.setHashKeySerializer(RedisSerializer.string());
+        redisTemplate.setHashValueSerializer(RedisSerializer.byteArray());
+        return redisTemplate;
     }
 
 
     // subscribe객체
-    // chat이라는 room에 메시지가 들어오면 나는 이걸 messageListenerAdapter 에 던지겠다
+    // 채팅 메시지는 room별 channel(chat.room.{roomId})로 발행되고,
+    // 이 노드에 해당 room 구독자가 있을 때만 RoomChannelSubscriptionManager가 messageListenerAdapter를 channel에 등록 (읽음 알림, presence channel도 같이)
     @Bean
     public RedisMessageListenerContainer redisMessageListenerContainer(
             @Qualifier("chatPubSub") RedisConnectionFactory redisConnectionFactory,
-            MessageListenerAdapter messageListenerAdapter
+            RoomMembershipIndex roomMembershipIndex
     ){
         RedisMessageListenerContainer container = new RedisMessageListenerContainer();
         container.setConnectionFactory(redisConnectionFactory);
-        container.addMessageListener(messageListenerAdapter, new PatternTopic("chat"));   //redis에서도 room(topic)같은 것을 chat이라 지정
+        // 채팅방 참여자 변경시 각 노드의 membership 캐시 무효화
+        container.addMessageListener(roomMembershipIndex, new ChannelTopic(RoomMembershipIndex.INVALIDATION_CHANNEL));
         return container;
     }
 
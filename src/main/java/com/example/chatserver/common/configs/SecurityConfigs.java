@@ -1,6 +1,7 @@
 package com.example.chatserver.common.configs;
 
 import com.example.chatserver.common.auth.JwtAuthFilter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -10,6 +11,7 @@ import org.springframework.security.crypto.factory.PasswordEncoderFactories;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -20,9 +22,12 @@ import java.util.Arrays;
 public class SecurityConfigs {
 
     private final JwtAuthFilter jwtAuthFilter;
+    private final int managementPort;
 
-    public SecurityConfigs(JwtAuthFilter jwtAuthFilter) {
+    public SecurityConfigs(JwtAuthFilter jwtAuthFilter,
+                           @Value("${management.server.port:-1}") int managementPort) {
         this.jwtAuthFilter = jwtAuthFilter;
+        this.managementPort = managementPort;
     }
 
     @Bean
@@ -32,12 +37,22 @@ public class SecurityConfigs {
                 .csrf(AbstractHttpConfigurer::disable)  //csrf 비활성화
                 .httpBasic(AbstractHttpConfigurer::disable) //HTTP Basic 비활성화
                 //특정 url패턴에 대해서는 Authentication객체 요구하지 않음(인증처리 제외)
-                .authorizeHttpRequests(a->a.requestMatchers("/member/create", "/member/doLogin", "/connect/**").permitAll().anyRequest().authenticated())
+                .authorizeHttpRequests(a->a.requestMatchers("/member/create", "/member/doLogin", "/connect/**", "/ws", "/actuator/health/**").permitAll()
+                        .requestMatchers(prometheusOnManagementPort()).permitAll()
+                        .anyRequest().authenticated())
                 .sessionManagement(s->s.sessionCreationPolicy(SessionCreationPolicy.STATELESS)) //세션방식을 사용하지 않겠다라는 의미
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
                 .build();
     }
 
+    // prometheus scrape는 외부에 열지 않는 management port로 들어온 요청만 인증 없이 허용
+    // management port를 따로 두지 않으면(서비스 포트와 같으면) 다른 API처럼 인증 필요
+    private RequestMatcher prometheusOnManagementPort() {
+        return request -> managementPort > 0
+                && request.getLocalPort() == managementPort
+                && "/actuator/prometheus".equals(request.getRequestURI());
+    }
+
     //cors 설정
     @Bean
     CorsConfigurationSource configurationSource(){
@@ -35,7 +35,7 @@ public class MemberController {
         //email, password 검증
         Member member = memberService.login(memberLoginReqDto);
         //일치할경우 access 토큰 발행
-        String jwtToken = jwtTokenProvider.createToken(member.getEmail(), member.getRole().toString());
+        String jwtToken = jwtTokenProvider.createToken(member.getId(), member.getEmail(), member.getRole().toString());
         Map<String, Object> loginInfo = new HashMap<>();
         loginInfo.put("id", member.getId());
         loginInfo.put("token", jwtToken);
@@ -2,6 +2,8 @@ package com.example.chatserver.member.repository;
 
 import com.example.chatserver.member.domain.Member;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -9,4 +11,7 @@ import java.util.Optional;
 @Repository
 public interface MemberRepository extends JpaRepository<Member, Long> {
     Optional<Member> findByEmail(String email);
+
+    @Query("SELECT m.id FROM Member m WHERE m.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
 }
@@ -46,6 +46,10 @@ public class MemberService {
         return member;
     }
 
+    public Long findIdByEmail(String email) {
+        return memberRepository.findIdByEmail(email).orElseThrow(()->new EntityNotFoundException("존재하지 않는 이메일입니다."));
+    }
+
     public List<MemberListResDto> findAll() {
         List<Member> members = memberRepository.findAll();
         List<MemberListResDto> memberListResDtos = new ArrayList<>();
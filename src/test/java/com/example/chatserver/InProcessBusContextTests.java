@@ -0,0 +1,51 @@
+package com.example.chatserver;
+
+import com.example.chatserver.chat.bus.ChatMessageBus;
+import com.example.chatserver.chat.bus.InProcessChatMessageBus;
+import com.example.chatserver.chat.service.InboxService;
+import com.example.chatserver.chat.service.LocalRoomSeqAllocator;
+import com.example.chatserver.chat.service.RoomSeqAllocator;
+import com.example.chatserver.chat.service.UnreadCounterService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// chat.bus.type=in-process는 redis 없이 떠야 함 (redis auto configuration도 빼고 띄움, DB는 H2)
+@SpringBootTest(properties = {
+		"chat.bus.type=in-process",
+		"spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration,"
+				+ "org.springframework.boot.autoconfigure.data.redis.RedisRepositoriesAutoConfiguration",
+		"spring.datasource.url=jdbc:h2:mem:in-process;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"jwt.secretKey=aW4tcHJvY2Vzcy1zZWNyZXQta2V5LWluLXByb2Nlc3Mtc2VjcmV0LWtleS1pbi1wcm9jZXNzLXNlY3JldC1rZXk=",
+		"jwt.expiration=120"
+})
+class InProcessBusContextTests {
+
+	@Autowired
+	private ApplicationContext applicationContext;
+
+	@Autowired
+	private InboxService inboxService;
+
+	@Autowired
+	private UnreadCounterService unreadCounterService;
+
+	@Test
+	void startsWithoutRedis() {
+		assertEquals(0, applicationContext.getBeanNamesForType(RedisConnectionFactory.class).length);
+		assertInstanceOf(InProcessChatMessageBus.class, applicationContext.getBean(ChatMessageBus.class));
+		assertInstanceOf(LocalRoomSeqAllocator.class, applicationContext.getBean(RoomSeqAllocator.class));
+
+		// redis 캐시 대신 DB에서 조회
+		assertTrue(inboxService.getInbox(1L, null, 20).getRooms().isEmpty());
+		assertTrue(unreadCounterService.getUnreadCounts(1L).isEmpty());
+	}
+
+}
@@ -0,0 +1,182 @@
+package com.example.chatserver.chat.broker;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class FanoutBrokerMessageHandlerTest {
+
+    private static final int MESSAGES = 200;
+
+    // 멀티 스레드 outbound channel (virtual 모드처럼 preservePublishOrder가 없으면 session별 순서가 섞일 수 있음)
+    private final List<ExecutorService> executors = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        executors.forEach(ExecutorService::shutdownNow);
+    }
+
+    @Test
+    void refusesToStartWithServerHeartbeat() {
+        FanoutBrokerMessageHandler handler = handler();
+        // task scheduler를 지정하면 SimpleBroker 기본 heartbeat(10초)가 켜짐
+        handler.setTaskScheduler(new ThreadPoolTaskScheduler());
+        try {
+            assertThrows(IllegalStateException.class, handler::start);
+        } finally {
+            handler.stopInternal();
+        }
+    }
+
+    @Test
+    void startsWithoutHeartbeat() {
+        FanoutBrokerMessageHandler handler = handler();
+        handler.start();
+        try {
+            assertTrue(handler.isRunning());
+        } finally {
+            handler.stop();
+        }
+    }
+
+    // 같은 구독/발행/연결 종료를 SimpleBroker와 fanout broker에 똑같이 하고 구독별로 받은 메시지와 순서가 같은지 확인
+    @Test
+    void deliversToEverySubscriptionInSameOrderAsSimpleBroker() {
+        Deliveries expected = run((inbound, outbound, broker) -> new SimpleBrokerMessageHandler(inbound, outbound, broker, List.of("/topic")));
+        Deliveries actual = run((inbound, outbound, broker) -> new FanoutBrokerMessageHandler(inbound, outbound, broker, List.of("/topic"), 2));
+
+        // s1 구독 2개 + s2 + s3(pattern) => 메시지마다 4번, 연결 종료 후에는 s2 제외 3번
+        assertEquals(MESSAGES * 4 + MESSAGES * 3, expected.count.get());
+        assertEquals(expected.count.get(), actual.count.get());
+        assertEquals(expected.bySubscription, actual.bySubscription);
+    }
+
+    private Deliveries run(BrokerFactory brokerFactory) {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        executors.add(executor);
+        ExecutorSubscribableChannel outbound = new ExecutorSubscribableChannel(executor);
+        Deliveries deliveries = new Deliveries();
+        outbound.subscribe(deliveries::record);
+
+        SimpleBrokerMessageHandler broker = brokerFactory.create(new ExecutorSubscribableChannel(), outbound, new ExecutorSubscribableChannel());
+        broker.setPreservePublishOrder(true);
+        broker.start();
+        try {
+            for (String sessionId : List.of("s1", "s2", "s3", "s4")) {
+                broker.handleMessage(connect(sessionId));
+            }
+            broker.handleMessage(subscribe("s1", "sub-0", "/topic/1"));
+            broker.handleMessage(subscribe("s1", "sub-1", "/topic/1"));
+            broker.handleMessage(subscribe("s2", "sub-0", "/topic/1"));
+            broker.handleMessage(subscribe("s3", "sub-0", "/topic/*"));
+            broker.handleMessage(subscribe("s4", "sub-0", "/topic/2"));
+
+            for (int i = 0; i < MESSAGES; i++) {
+                broker.handleMessage(message("/topic/1", "m-" + i));
+            }
+            await(() -> deliveries.count.get() >= MESSAGES * 4);
+
+            broker.handleMessage(disconnect("s2"));
+            for (int i = MESSAGES; i < MESSAGES * 2; i++) {
+                broker.handleMessage(message("/topic/1", "m-" + i));
+            }
+            await(() -> deliveries.count.get() >= MESSAGES * 4 + MESSAGES * 3);
+            // 더 들어오는 메시지가 없는지 잠시 대기
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError(e);
+        } finally {
+            broker.stop();
+        }
+        return deliveries;
+    }
+
+    private static Message<byte[]> connect(String sessionId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT);
+        accessor.setSessionId(sessionId);
+        accessor.setHeader(SimpMessageHeaderAccessor.HEART_BEAT_HEADER, new long[]{0, 0});
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static Message<byte[]> subscribe(String sessionId, String subscriptionId, String destination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static Message<byte[]> disconnect(String sessionId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.DISCONNECT);
+        accessor.setSessionId(sessionId);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static Message<byte[]> message(String destination, String payload) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(payload.getBytes(StandardCharsets.UTF_8), accessor.getMessageHeaders());
+    }
+
+    private static FanoutBrokerMessageHandler handler() {
+        return new FanoutBrokerMessageHandler(mock(SubscribableChannel.class), mock(MessageChannel.class),
+                mock(SubscribableChannel.class), List.of("/topic"), 1);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            if(System.currentTimeMillis() > deadline) {
+                throw new AssertionError("시간 안에 조건을 만족하지 못함");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    @FunctionalInterface
+    private interface BrokerFactory {
+        SimpleBrokerMessageHandler create(SubscribableChannel inbound, MessageChannel outbound, SubscribableChannel broker);
+    }
+
+    // session/subscription별로 받은 payload (받은 순서대로)
+    private static final class Deliveries {
+        private final Map<String, List<String>> bySubscription = new ConcurrentHashMap<>();
+        private final AtomicInteger count = new AtomicInteger();
+
+        private void record(Message<?> message) {
+            if(SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+                return;
+            }
+            String key = SimpMessageHeaderAccessor.getSessionId(message.getHeaders()) + "/"
+                    + SimpMessageHeaderAccessor.getSubscriptionId(message.getHeaders());
+            bySubscription.computeIfAbsent(key, k -> Collections.synchronizedList(new ArrayList<>()))
+                    .add(new String((byte[]) message.getPayload(), StandardCharsets.UTF_8));
+            count.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.chatserver.chat.broker;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.DefaultSubscriptionRegistry;
+import org.springframework.messaging.simp.broker.SubscriptionRegistry;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MultiValueMap;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+// 같은 구독/해제를 DefaultSubscriptionRegistry(SimpleBroker 기본)에도 똑같이 하고 조회 결과가 같은지 확인
+class RoomSubscriptionRegistryTest {
+
+    private static final String SELECTOR_HEADER = "selector";
+
+    private final RoomSubscriptionRegistry roomSubscriptionRegistry = new RoomSubscriptionRegistry(SELECTOR_HEADER);
+    private final DefaultSubscriptionRegistry defaultSubscriptionRegistry = new DefaultSubscriptionRegistry();
+
+    RoomSubscriptionRegistryTest() {
+        defaultSubscriptionRegistry.setSelectorHeaderName(SELECTOR_HEADER);
+    }
+
+    @Test
+    void exactDestination() {
+        subscribe("s1", "sub-1", "/topic/1", null);
+        subscribe("s2", "sub-1", "/topic/1", null);
+        subscribe("s2", "sub-2", "/topic/1", null);
+        subscribe("s2", "sub-3", "/topic/2", null);
+
+        assertSameSubscriptions(message("/topic/1", null));
+        assertSameSubscriptions(message("/topic/2", null));
+        assertSameSubscriptions(message("/topic/3", null));
+    }
+
+    @Test
+    void patternDestination() {
+        subscribe("s1", "sub-1", "/topic/1", null);
+        subscribe("s2", "sub-1", "/topic/*", null);
+        subscribe("s3", "sub-1", "/topic/**", null);
+
+        assertSameSubscriptions(message("/topic/1", null));
+        assertSameSubscriptions(message("/topic/1/read", null));
+    }
+
+    @Test
+    void selector() {
+        subscribe("s1", "sub-1", "/topic/1", null);
+        subscribe("s2", "sub-1", "/topic/1", "headers.kind == 'notice'");
+        subscribe("s3", "sub-1", "/topic/*", "headers.kind == 'chat'");
+
+        assertSameSubscriptions(message("/topic/1", "notice"));
+        assertSameSubscriptions(message("/topic/1", "chat"));
+        assertSameSubscriptions(message("/topic/1", null));
+    }
+
+    @Test
+    void afterUnsubscribe() {
+        subscribe("s1", "sub-1", "/topic/1", null);
+        subscribe("s1", "sub-2", "/topic/1", null);
+        subscribe("s2", "sub-1", "/topic/1", null);
+        subscribe("s2", "sub-2", "/topic/*", null);
+        subscribe("s3", "sub-1", "/topic/1", "headers.kind == 'chat'");
+
+        unsubscribe("s1", "sub-1");
+        unsubscribe("s2", "sub-2");
+        unsubscribe("s3", "sub-1");
+        // 없는 구독 해제는 무시
+        unsubscribe("s4", "sub-1");
+
+        assertSameSubscriptions(message("/topic/1", "chat"));
+
+        unsubscribe("s1", "sub-2");
+        unsubscribe("s2", "sub-1");
+        assertSameSubscriptions(message("/topic/1", "chat"));
+    }
+
+    @Test
+    void afterDisconnect() {
+        subscribe("s1", "sub-1", "/topic/1", null);
+        subscribe("s1", "sub-2", "/topic/*", null);
+        subscribe("s1", "sub-3", "/topic/1", "headers.kind == 'chat'");
+        subscribe("s2", "sub-1", "/topic/1", null);
+
+        disconnect("s1");
+        assertSameSubscriptions(message("/topic/1", "chat"));
+
+        disconnect("s2");
+        assertSameSubscriptions(message("/topic/1", "chat"));
+    }
+
+    private void assertSameSubscriptions(Message<?> message) {
+        Map<String, Set<String>> expected = normalize(defaultSubscriptionRegistry.findSubscriptions(message));
+        Map<String, Set<String>> actual = normalize(roomSubscriptionRegistry.findSubscriptions(message));
+        assertEquals(expected, actual);
+        // 구독을 등록한 경우 비교가 빈 결과끼리만 되지 않도록 확인
+        if(!expected.isEmpty()) {
+            assertFalse(actual.isEmpty());
+        }
+    }
+
+    private static Map<String, Set<String>> normalize(MultiValueMap<String, String> subscriptions) {
+        Map<String, Set<String>> normalized = new HashMap<>();
+        subscriptions.forEach((sessionId, subscriptionIds) -> normalized.put(sessionId, new HashSet<>(subscriptionIds)));
+        return normalized;
+    }
+
+    private void subscribe(String sessionId, String subscriptionId, String destination, String selector) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setDestination(destination);
+        if(selector != null) {
+            accessor.setNativeHeader(SELECTOR_HEADER, selector);
+        }
+        registerAll(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()), SubscriptionRegistry::registerSubscription);
+    }
+
+    private void unsubscribe(String sessionId, String subscriptionId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.UNSUBSCRIBE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        registerAll(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()), SubscriptionRegistry::unregisterSubscription);
+    }
+
+    private void disconnect(String sessionId) {
+        roomSubscriptionRegistry.unregisterAllSubscriptions(sessionId);
+        defaultSubscriptionRegistry.unregisterAllSubscriptions(sessionId);
+    }
+
+    private void registerAll(Message<?> message, BiConsumer<SubscriptionRegistry, Message<?>> action) {
+        action.accept(roomSubscriptionRegistry, message);
+        action.accept(defaultSubscriptionRegistry, message);
+    }
+
+    // selector 평가에 header accessor가 필요하므로 mutable로 남겨둠
+    private static Message<?> message(String destination, String kind) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(destination);
+        if(kind != null) {
+            accessor.setNativeHeader("kind", kind);
+        }
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
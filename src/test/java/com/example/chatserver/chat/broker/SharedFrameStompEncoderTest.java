@@ -0,0 +1,78 @@
+package com.example.chatserver.chat.broker;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompDecoder;
+import org.springframework.messaging.simp.stomp.StompEncoder;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// 공통 부분을 재사용한 프레임이 StompEncoder로 인코딩한 프레임과 같은 STOMP 프레임으로 decode 되는지 확인
+class SharedFrameStompEncoderTest {
+
+    private final SharedFrameStompEncoder sharedFrameStompEncoder = new SharedFrameStompEncoder();
+    private final StompEncoder stompEncoder = new StompEncoder();
+    private final StompDecoder stompDecoder = new StompDecoder();
+
+    @Test
+    void recipientsOfSamePayloadDecodeLikeStompEncoder() {
+        byte[] payload = "{\"messageId\":1,\"message\":\"안녕하세요\"}".getBytes(StandardCharsets.UTF_8);
+
+        // 두번째 구독자부터 공통 부분을 재사용, escape가 필요한 header 값 포함
+        assertSameFrame(messageHeaders("sub-0", "1", "/topic/1"), payload);
+        assertSameFrame(messageHeaders("sub:1", "2", "/topic/1"), payload);
+        assertSameFrame(messageHeaders("sub\\2\n", "3", "/topic/1"), payload);
+    }
+
+    @Test
+    void samePayloadToOtherDestinationDecodesLikeStompEncoder() {
+        byte[] payload = "{\"messageId\":2}".getBytes(StandardCharsets.UTF_8);
+
+        assertSameFrame(messageHeaders("sub-0", "1", "/topic/1"), payload);
+        assertSameFrame(messageHeaders("sub-0", "2", "/topic/2"), payload);
+    }
+
+    @Test
+    void otherCommandsAreEncodedByStompEncoder() {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.RECEIPT);
+        accessor.setReceiptId("receipt-1");
+        Map<String, Object> headers = accessor.getMessageHeaders();
+
+        assertArrayEquals(stompEncoder.encode(headers, new byte[0]), sharedFrameStompEncoder.encode(headers, new byte[0]));
+    }
+
+    private void assertSameFrame(Map<String, Object> headers, byte[] payload) {
+        Message<byte[]> expected = decode(stompEncoder.encode(headers, payload));
+        Message<byte[]> actual = decode(sharedFrameStompEncoder.encode(headers, payload));
+
+        StompHeaderAccessor expectedHeaders = StompHeaderAccessor.wrap(expected);
+        StompHeaderAccessor actualHeaders = StompHeaderAccessor.wrap(actual);
+        assertEquals(expectedHeaders.getCommand(), actualHeaders.getCommand());
+        assertEquals(expectedHeaders.toNativeHeaderMap(), actualHeaders.toNativeHeaderMap());
+        assertArrayEquals(expected.getPayload(), actual.getPayload());
+    }
+
+    private Message<byte[]> decode(byte[] frame) {
+        List<Message<byte[]>> messages = stompDecoder.decode(ByteBuffer.wrap(frame));
+        assertEquals(1, messages.size());
+        return messages.get(0);
+    }
+
+    private static Map<String, Object> messageHeaders(String subscriptionId, String messageId, String destination) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.MESSAGE);
+        accessor.setNativeHeader("subscription", subscriptionId);
+        accessor.setNativeHeader("message-id", messageId);
+        accessor.setNativeHeader("destination", destination);
+        accessor.setNativeHeader("content-type", "application/json");
+        accessor.setNativeHeader("chat-trace", "a:b\\c");
+        return accessor.getMessageHeaders();
+    }
+}
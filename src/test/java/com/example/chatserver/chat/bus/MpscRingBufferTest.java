@@ -0,0 +1,89 @@
+package com.example.chatserver.chat.bus;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MpscRingBufferTest {
+
+    @Test
+    void rejectsWhenFullAndReusesSlotsAfterPoll() {
+        MpscRingBuffer<Integer> ringBuffer = new MpscRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ringBuffer.offer(i));
+        }
+        assertFalse(ringBuffer.offer(4));
+        assertEquals(4, ringBuffer.size());
+
+        // 여러 바퀴를 돌아도 넣은 순서대로 꺼냄
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i, ringBuffer.poll());
+            assertTrue(ringBuffer.offer(i + 4));
+        }
+        assertEquals(4, ringBuffer.size());
+    }
+
+    @Test
+    void returnsNullWhenEmpty() {
+        MpscRingBuffer<String> ringBuffer = new MpscRingBuffer<>(2);
+        assertNull(ringBuffer.poll());
+        ringBuffer.offer("a");
+        assertEquals("a", ringBuffer.poll());
+        assertNull(ringBuffer.poll());
+    }
+
+    @Test
+    void capacityMustBePowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new MpscRingBuffer<>(3));
+    }
+
+    @Test
+    void keepsOrderOfEachProducer() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 50_000;
+        MpscRingBuffer<long[]> ringBuffer = new MpscRingBuffer<>(1024);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (long i = 0; i < perProducer; i++) {
+                    while (!ringBuffer.offer(new long[]{producer, i})) {
+                        Thread.onSpinWait();
+                    }
+                }
+            }));
+        }
+        start.countDown();
+
+        long[] next = new long[producers];
+        int received = 0;
+        while (received < producers * perProducer) {
+            long[] element = ringBuffer.poll();
+            if(element == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            assertEquals(next[(int) element[0]], element[1]);
+            next[(int) element[0]]++;
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(ringBuffer.poll());
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.chatserver.chat.codec;
+
+import com.example.chatserver.chat.dto.ChatMessageDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ChatMessageCodecsTest {
+
+    private final ChatMessageDto chatMessageDto = ChatMessageDto.builder()
+            .roomId(1L)
+            .messageId(10L)
+            .message("안녕하세요")
+            .senderEmail("test@test.com")
+            .senderId(3L)
+            .sentAt(1700000000000L)
+            .originNodeId("node-1")
+            .roomSeq(7L)
+            .build();
+
+    @Test
+    void jsonNodeAndBinaryNodeReadEachOther() {
+        ChatMessageCodecs jsonNode = new ChatMessageCodecs(new ObjectMapper(), "json");
+        ChatMessageCodecs binaryNode = new ChatMessageCodecs(new ObjectMapper(), "binary");
+
+        assertEquals(chatMessageDto, binaryNode.decode(jsonNode.encode(chatMessageDto)));
+        assertEquals(chatMessageDto, jsonNode.decode(binaryNode.encode(chatMessageDto)));
+    }
+
+    @Test
+    void decodeLegacyJsonWithoutFormatByte() throws Exception {
+        byte[] legacy = new ObjectMapper().writeValueAsString(chatMessageDto).getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(chatMessageDto, new ChatMessageCodecs(new ObjectMapper(), "binary").decode(legacy));
+    }
+
+    @Test
+    void binarySkipsUnknownFields() {
+        byte[] encoded = new BinaryChatMessageCodec().encode(chatMessageDto);
+        // 이후 버전에서 추가된 필드(tag 99, 길이 3)가 붙어 있는 경우
+        byte[] withUnknown = new byte[encoded.length + 5];
+        System.arraycopy(encoded, 0, withUnknown, 0, encoded.length);
+        withUnknown[encoded.length] = 99;
+        withUnknown[encoded.length + 1] = 3;
+
+        assertEquals(chatMessageDto, new BinaryChatMessageCodec().decode(withUnknown));
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.chatserver.chat.service;
+
+import com.example.chatserver.chat.bus.ChatMessageBus;
+import com.example.chatserver.chat.dto.ChatMessageDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// worker 하나로 room 순번 부여 확인 (mailbox에 먼저 넣고 start 하면 한 batch로 처리됨)
+class RoomMessageActorsTest {
+
+    private final ChatService chatService = mock(ChatService.class);
+    private final ChatMessageBus chatMessageBus = mock(ChatMessageBus.class);
+    private RoomMessageActors roomMessageActors;
+
+    @BeforeEach
+    void setUp() {
+        when(chatService.getLastRoomSeq(1L)).thenReturn(5L);
+        when(chatService.getLastRoomSeq(2L)).thenReturn(0L);
+        when(chatMessageBus.publish(anyLong(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        roomMessageActors = new RoomMessageActors(chatService, chatMessageBus, new LocalRoomSeqAllocator(chatService, 100),
+                new SimpleMeterRegistry(), "room-actor", 1, 100, 100, 50);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        roomMessageActors.stop();
+    }
+
+    @Test
+    void assignsSequencePerRoomContinuingFromDatabase() throws Exception {
+        ChatMessageDto first = message(1L, "a");
+        ChatMessageDto second = message(1L, "b");
+        ChatMessageDto other = message(2L, "c");
+        ChatMessageDto third = message(1L, "d");
+        List<CompletableFuture<Void>> delivered = List.of(
+                roomMessageActors.submit(first), roomMessageActors.submit(second),
+                roomMessageActors.submit(other), roomMessageActors.submit(third));
+        roomMessageActors.start();
+        awaitAll(delivered);
+
+        assertEquals(6L, first.getRoomSeq());
+        assertEquals(7L, second.getRoomSeq());
+        assertEquals(8L, third.getRoomSeq());
+        assertEquals(1L, other.getRoomSeq());
+
+        // 다음 batch는 캐싱된 마지막 순번부터 이어감
+        ChatMessageDto next = message(1L, "e");
+        roomMessageActors.submit(next).get(5, TimeUnit.SECONDS);
+        assertEquals(9L, next.getRoomSeq());
+    }
+
+    @Test
+    void renumbersOnlyPersistedMessagesWhenBatchInsertFails() throws Exception {
+        doThrow(new IllegalStateException("batch insert 실패")).when(chatService).saveMessages(anyList());
+        doThrow(new IllegalStateException("저장 실패")).when(chatService).saveMessage(anyLong(), argThat(dto -> "bad".equals(dto.getMessage())));
+
+        ChatMessageDto first = message(1L, "a");
+        ChatMessageDto bad = message(1L, "bad");
+        ChatMessageDto third = message(1L, "c");
+        CompletableFuture<Void> firstDelivered = roomMessageActors.submit(first);
+        CompletableFuture<Void> badDelivered = roomMessageActors.submit(bad);
+        CompletableFuture<Void> thirdDelivered = roomMessageActors.submit(third);
+        roomMessageActors.start();
+
+        firstDelivered.get(5, TimeUnit.SECONDS);
+        thirdDelivered.get(5, TimeUnit.SECONDS);
+        assertThrows(ExecutionException.class, () -> badDelivered.get(5, TimeUnit.SECONDS));
+
+        // 실패한 메시지는 순번을 쓰지 않음
+        assertEquals(6L, first.getRoomSeq());
+        assertNull(bad.getRoomSeq());
+        assertEquals(7L, third.getRoomSeq());
+
+        // 쓰지 않은 순번(8)은 돌려받아 다음 메시지가 이어서 씀
+        ChatMessageDto next = message(1L, "d");
+        roomMessageActors.submit(next).get(5, TimeUnit.SECONDS);
+        assertEquals(8L, next.getRoomSeq());
+    }
+
+    @Test
+    void failsQueuedAndLaterMessagesAfterStop() throws Exception {
+        // worker를 시작하지 않았으므로 mailbox에 남은 채로 종료됨
+        CompletableFuture<Void> queued = roomMessageActors.submit(message(1L, "a"));
+        roomMessageActors.stop();
+
+        assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertThrows(ExecutionException.class, () -> roomMessageActors.submit(message(1L, "b")).get(5, TimeUnit.SECONDS));
+    }
+
+    private static ChatMessageDto message(Long roomId, String content) {
+        return ChatMessageDto.builder()
+                .roomId(roomId)
+                .senderId(10L)
+                .message(content)
+                .build();
+    }
+
+    private static void awaitAll(List<CompletableFuture<Void>> futures) throws Exception {
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+    }
+}
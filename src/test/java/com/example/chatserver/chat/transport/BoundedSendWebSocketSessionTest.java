@@ -0,0 +1,179 @@
+package com.example.chatserver.chat.transport;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// 프레임 하나 보내는데 20ms 걸리는 클라이언트로 policy별 동작 확인
+class BoundedSendWebSocketSessionTest {
+
+    private static final long THROTTLE_MILLIS = 20;
+    private static final int FRAMES = 20;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<String> delivered = new CopyOnWriteArrayList<>();
+
+    @Test
+    void dropOldestKeepsNewestFramesWithinBuffer() throws Exception {
+        OutboundBackpressure backpressure = backpressure("drop-oldest");
+        BoundedSendWebSocketSession session = new BoundedSendWebSocketSession(throttledSession(), backpressure);
+
+        for (int i = 0; i < FRAMES; i++) {
+            session.sendMessage(frame(i));
+        }
+        awaitDrained();
+
+        double dropped = meterRegistry.get("chat.outbound.dropped.frames").counter().count();
+        assertTrue(dropped > 0);
+        assertEquals(FRAMES, delivered.size() + (int) dropped);
+        assertTrue(delivered.get(delivered.size() - 1).contains("message-id:" + (FRAMES - 1)));
+        assertEquals(0, bufferedBytes());
+    }
+
+    @Test
+    void gapPolicySendsGapFrameAfterBacklogIsSent() throws Exception {
+        OutboundBackpressure backpressure = backpressure("gap");
+        BoundedSendWebSocketSession session = new BoundedSendWebSocketSession(throttledSession(), backpressure);
+
+        for (int i = 0; i < FRAMES; i++) {
+            session.sendMessage(frame(i));
+        }
+        awaitDrained();
+
+        String last = delivered.get(delivered.size() - 1);
+        long dropped = (long) meterRegistry.get("chat.outbound.dropped.frames").counter().count();
+        assertEquals("sub-0", StompFrames.messageHeader(last, "subscription"));
+        assertEquals("/topic/1", StompFrames.messageHeader(last, "destination"));
+        assertEquals(String.valueOf(dropped), StompFrames.messageHeader(last, "chat-gap"));
+        assertEquals(0, bufferedBytes());
+    }
+
+    // coalescing -> backpressure 순서로 감싼 실제 구성 : 버린 message 하나에 두 구독의 프레임이 묶여 있음
+    @Test
+    void gapPolicyCountsEveryFrameOfCoalescedMessage() throws Exception {
+        OutboundBackpressure backpressure = backpressure("gap");
+        OutboundCoalescing coalescing = new OutboundCoalescing(meterRegistry, true, 1000, 16384, 2, List.of("/topic/**"), List.of());
+        try {
+            CoalescingWebSocketSession session = new CoalescingWebSocketSession(
+                    new BoundedSendWebSocketSession(throttledSession(), backpressure), coalescing);
+
+            for (int i = 0; i < FRAMES; i++) {
+                session.sendMessage(frame(i, "sub-" + (i % 2), "/topic/" + (i % 2)));
+            }
+            awaitDrained();
+
+            Map<String, Long> gaps = new HashMap<>();
+            int deliveredFrames = 0;
+            for (String payload : delivered) {
+                for (String frame : StompFrames.split(payload)) {
+                    String gap = StompFrames.messageHeader(frame, "chat-gap");
+                    if(gap == null) {
+                        deliveredFrames++;
+                    } else {
+                        gaps.merge(StompFrames.messageHeader(frame, "subscription"), Long.parseLong(gap), Long::sum);
+                    }
+                }
+            }
+            long dropped = (long) meterRegistry.get("chat.outbound.dropped.frames").counter().count();
+            assertTrue(dropped > 0);
+            assertEquals(FRAMES, deliveredFrames + dropped);
+            // 구독마다 자기 몫의 gap을 받음
+            assertEquals(dropped / 2, gaps.get("sub-0").longValue());
+            assertEquals(dropped / 2, gaps.get("sub-1").longValue());
+            assertEquals(0, bufferedBytes());
+        } finally {
+            coalescing.shutdown();
+        }
+    }
+
+    @Test
+    void disconnectPolicyClosesSlowSession() throws Exception {
+        OutboundBackpressure backpressure = backpressure("disconnect");
+        WebSocketSession delegate = throttledSession();
+        BoundedSendWebSocketSession session = new BoundedSendWebSocketSession(delegate, backpressure);
+
+        for (int i = 0; i < FRAMES; i++) {
+            session.sendMessage(frame(i));
+        }
+
+        verify(delegate, timeout(1000)).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertEquals(1.0, meterRegistry.get("chat.outbound.slow.disconnects").counter().count());
+        assertEquals(0, bufferedBytes());
+    }
+
+    @Test
+    void controlFramesAreNeverDropped() throws Exception {
+        OutboundBackpressure backpressure = backpressure("drop-oldest");
+        BoundedSendWebSocketSession session = new BoundedSendWebSocketSession(throttledSession(), backpressure);
+
+        for (int i = 0; i < FRAMES; i++) {
+            session.sendMessage(new TextMessage("RECEIPT\nreceipt-id:" + i + "\n\n\u0000"));
+        }
+        awaitDrained();
+
+        assertEquals(FRAMES, delivered.size());
+    }
+
+    // session 한도는 프레임 3개 정도
+    private OutboundBackpressure backpressure(String policy) {
+        return new OutboundBackpressure(meterRegistry, policy, 300, 1024 * 1024, 200);
+    }
+
+    private WebSocketSession throttledSession() throws Exception {
+        WebSocketSession delegate = mock(WebSocketSession.class);
+        when(delegate.getId()).thenReturn("slow-session");
+        doAnswer(invocation -> {
+            Thread.sleep(THROTTLE_MILLIS);
+            delivered.add(((TextMessage) invocation.getArgument(0)).getPayload());
+            return null;
+        }).when(delegate).sendMessage(any());
+        return delegate;
+    }
+
+    private static TextMessage frame(int messageId) {
+        return frame(messageId, "sub-0", "/topic/1");
+    }
+
+    private static TextMessage frame(int messageId, String subscriptionId, String destination) {
+        return new TextMessage("MESSAGE\nsubscription:" + subscriptionId + "\nmessage-id:" + messageId + "\ndestination:" + destination + "\n\n"
+                + "{\"messageId\":" + messageId + ",\"message\":\"hello\"}\u0000");
+    }
+
+    private double bufferedBytes() {
+        return meterRegistry.get("chat.outbound.buffer.bytes").gauge().value();
+    }
+
+    private void awaitDrained() throws InterruptedException {
+        await(() -> bufferedBytes() == 0);
+        // gap 프레임까지 전송되도록 잠시 대기
+        Thread.sleep(THROTTLE_MILLIS * 3);
+        await(() -> bufferedBytes() == 0);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            if(System.currentTimeMillis() > deadline) {
+                throw new AssertionError("시간 안에 조건을 만족하지 못함");
+            }
+            Thread.sleep(10);
+        }
+    }
+}